@@ -0,0 +1,29 @@
+package com.rman.de.core;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <pre>public class BenchmarkRunner</pre>
+ *
+ * <p> Runs the benchmarks with allocation profiling (JMH's <code>gc</code> profiler) turned on, so every result
+ * also reports the bytes allocated per operation. Any arguments are handled like the arguments of JMH's own
+ * main class, e.g. <code>java -jar target/benchmarks.jar GridBenchmark -p size=18x13</code>. </p>
+ *
+ * @author Arman
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
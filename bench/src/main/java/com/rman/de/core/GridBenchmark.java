@@ -0,0 +1,119 @@
+package com.rman.de.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class GridBenchmark</pre>
+ *
+ * <p> Benchmarks {@link Grid#update(double) Grid.update()} for different grid sizes and unit densities. Shooters
+ * are placed in the bottom half of the grid and enemies in the top half, so the enemies walk down into the shooters
+ * while they are fired at. Each invocation simulates one second of the game on a freshly filled grid. The grid is
+ * updated serially and with the parallel column-strip update (see {@link Grid#setParallelism(int)
+ * setParallelism()}). </p>
+ *
+ * @author Arman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+	/**
+	 * The number of ticks simulated by each invocation (one second of the game).
+	 */
+	private static final int TICKS = DefenseEvolution.TICK_RATE;
+
+	/**
+	 * The size of the grid, given as <code>columns x rows</code>. The first size is the size of the game's grid.
+	 */
+	@Param({"18x13", "64x48", "256x192"})
+	public String size;
+
+	/**
+	 * The fraction of squares that have a unit on them.
+	 */
+	@Param({"0.05", "0.25", "0.5"})
+	public double density;
+
+	/**
+	 * The number of threads the grid is updated with.
+	 */
+	@Param({"1", "4"})
+	public int threads;
+
+	private TickClock clock;
+	private long tickLength;
+	private Simulation sim;
+	private Grid grid;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		String[] dims = this.size.split("x");
+		int columns = Integer.parseInt(dims[0]);
+		int rows = Integer.parseInt(dims[1]);
+
+		this.clock = new TickClock();
+		this.tickLength = 1000000000L / DefenseEvolution.TICK_RATE;
+		this.sim = new Simulation(this.clock, columns * Grid.SQUARE_SIZE, rows * Grid.SQUARE_SIZE);
+		this.sim.addGold(Integer.MAX_VALUE / 2);
+		this.grid = this.sim.getGrid();
+		this.grid.setParallelism(this.threads);
+
+		fill(this.grid, this.density, new Random(42L));
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		this.grid.setParallelism(1);
+	}
+
+	@Benchmark
+	public int update() {
+		for (int tick = 0; tick < TICKS; tick++) {
+			this.clock.advance(this.tickLength);
+			this.grid.update(1.0);
+		}
+		return this.grid.getEnemyCount();
+	}
+
+	/**
+	 * <pre>static void fill({@link Grid Grid} grid, double density, {@link Random Random} rand)</pre>
+	 *
+	 * <p> Places enemies in the top half of the grid and shooters in the bottom half, so that about the given
+	 * fraction of squares is filled. </p>
+	 *
+	 * @param grid - The grid to fill
+	 * @param density - The fraction of squares to fill
+	 * @param rand - The random number generator that chooses the squares
+	 */
+	static void fill(Grid grid, double density, Random rand) {
+		int rows = grid.getNumRows();
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < grid.getNumColumns(); column++) {
+				if (rand.nextDouble() < density) {
+					grid.addUnit(row < rows / 2 ? UnitType.ENEMY : UnitType.SHOOTER, row, column);
+				}
+			}
+		}
+	}
+}
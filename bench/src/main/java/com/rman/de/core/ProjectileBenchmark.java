@@ -0,0 +1,86 @@
+package com.rman.de.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class ProjectileBenchmark</pre>
+ *
+ * <p> Benchmarks the loop in {@link Grid#update(double) Grid.update()} that updates projectiles and removes the
+ * ones that have hit. Each invocation fires the given number of projectiles (spread out over the column) at one
+ * enemy and updates them, resolving the damage of the hits (see {@link CombatQueue CombatQueue}) every tick,
+ * until all of them are removed. With <code>scheduled</code>, the impacts of the
+ * projectiles are scheduled when they are fired (see {@link Grid#setScheduledImpacts(boolean)
+ * setScheduledImpacts()}), so they aren't moved. </p>
+ *
+ * @author Arman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectileBenchmark {
+
+	private static final long TICK_LENGTH = 1000000000L / DefenseEvolution.TICK_RATE;
+
+	/**
+	 * The number of projectiles in flight at the start of each invocation.
+	 */
+	@Param({"100", "1000", "10000"})
+	public int projectiles;
+
+	@Param({"false", "true"})
+	public boolean scheduled;
+
+	private TickClock clock;
+	private Simulation sim;
+	private Grid grid;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		this.clock = new TickClock();
+		this.sim = new Simulation(this.clock, 18 * Grid.SQUARE_SIZE, 13 * Grid.SQUARE_SIZE);
+		this.grid = this.sim.getGrid();
+		this.grid.setScheduledImpacts(this.scheduled);
+
+		int rows = this.grid.getNumRows();
+		this.grid.addUnit(UnitType.SHOOTER, rows - 1, 0);
+		this.grid.addUnit(UnitType.ENEMY, 0, 0);
+		Unit shooter = (Unit) this.grid.getEntityAt(rows - 1, 0);
+		Unit enemy = (Unit) this.grid.getEntityAt(0, 0);
+
+		float distance = shooter.getY() - enemy.getY() - enemy.getHeight();
+		for (int i = 0; i < this.projectiles; i++) {
+			float y = enemy.getY() + enemy.getHeight() + distance * (i + 1) / this.projectiles;
+			this.grid.fireProjectile(Projectile.ARROW, shooter.getX(), y, shooter, enemy, Unit.UP);
+		}
+	}
+
+	@Benchmark
+	public int update() {
+		int ticks = 0;
+		while (this.grid.getProjectileCount() > 0) {
+			this.clock.advance(TICK_LENGTH);
+			this.grid.updateProjectiles(1.0, this.clock.nanoTime());
+			this.grid.getCombatQueue().resolve(this.grid.getUnitStore(), this.sim);
+			ticks++;
+		}
+		return ticks;
+	}
+}
@@ -0,0 +1,88 @@
+package com.rman.de.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class SparseGridBenchmark</pre>
+ *
+ * <p> Benchmarks {@link Grid#update(double) Grid.update()} on maps that are mostly empty. The same front of
+ * enemies above shooters is placed in the middle of maps of different sizes, so the time of an update should
+ * depend on the size of the front and not on the size of the map. Each invocation simulates one second of the
+ * game on a freshly filled grid. </p>
+ *
+ * @author Arman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseGridBenchmark {
+
+	/**
+	 * The number of ticks simulated by each invocation (one second of the game).
+	 */
+	private static final int TICKS = DefenseEvolution.TICK_RATE;
+
+	/**
+	 * The width and height of the front (in squares).
+	 */
+	private static final int FRONT_WIDTH = 64;
+	private static final int FRONT_HEIGHT = 32;
+
+	/**
+	 * The size of the map, given as <code>columns x rows</code>.
+	 */
+	@Param({"256x192", "1024x1024", "4096x4096"})
+	public String size;
+
+	private TickClock clock;
+	private long tickLength;
+	private Grid grid;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		String[] dims = this.size.split("x");
+		int columns = Integer.parseInt(dims[0]);
+		int rows = Integer.parseInt(dims[1]);
+
+		this.clock = new TickClock();
+		this.tickLength = 1000000000L / DefenseEvolution.TICK_RATE;
+		Simulation sim = new Simulation(this.clock, columns * Grid.SQUARE_SIZE, rows * Grid.SQUARE_SIZE);
+		sim.addGold(Integer.MAX_VALUE / 2);
+		this.grid = sim.getGrid();
+
+		int firstRow = (rows - FRONT_HEIGHT) / 2;
+		int firstColumn = (columns - FRONT_WIDTH) / 2;
+		for (int row = firstRow; row < firstRow + FRONT_HEIGHT; row++) {
+			for (int column = firstColumn; column < firstColumn + FRONT_WIDTH; column++) {
+				this.grid.addUnit(row < firstRow + FRONT_HEIGHT / 2 ? UnitType.ENEMY : UnitType.SHOOTER, row, column);
+			}
+		}
+	}
+
+	@Benchmark
+	public int update() {
+		for (int tick = 0; tick < TICKS; tick++) {
+			this.clock.advance(this.tickLength);
+			this.grid.update(1.0);
+		}
+		return this.grid.getEnemyCount();
+	}
+}
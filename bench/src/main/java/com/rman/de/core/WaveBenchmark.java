@@ -0,0 +1,80 @@
+package com.rman.de.core;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class WaveBenchmark</pre>
+ *
+ * <p> Benchmarks opening the wave info file with {@link WaveInfoReader WaveInfoReader}, which compiles it, and
+ * reading a wave and placing the units of its spawn with {@link WaveInfo#extractNextSpawn() extractNextSpawn()}. </p>
+ *
+ * @author Arman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaveBenchmark {
+
+	/**
+	 * The wave whose spawn is placed. Wave 1 allows 2 columns on each side and wave 25 allows 8 (the first and
+	 * last entries of {@link Simulation#COLUMNS_OUTLINED COLUMNS_OUTLINED}), which sets the number of spawn
+	 * positions.
+	 */
+	@Param({"1", "25"})
+	public int wave;
+
+	/**
+	 * The fraction of spawn positions that are filled.
+	 */
+	@Param({"0.5", "1.0"})
+	public double fill;
+
+	private Simulation sim;
+	private URL waveInfoFile;
+	private WaveInfoReader spawnWaves;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.sim = new Simulation(new TickClock(), 18 * Grid.SQUARE_SIZE, 13 * Grid.SQUARE_SIZE, 42L);
+		this.waveInfoFile = WaveBenchmark.class.getResource("res/waveinfo.de");
+
+		// Waves with one spawn each, which fills the given fraction of the wave's positions
+		StringBuilder waves = new StringBuilder();
+		for (int i = 1; i <= this.wave; i++) {
+			int units = (int) (this.sim.getAllowedColumns(i) * 2 * this.fill);
+			waves.append("\n0 ").append(units).append("e\n");
+		}
+		ByteBuffer text = ByteBuffer.wrap(waves.toString().getBytes(StandardCharsets.ISO_8859_1));
+		this.spawnWaves = new WaveInfoReader(WaveCompiler.compile(text), this.sim);
+	}
+
+	@Benchmark
+	public WaveInfo loadWaveInfoFile() throws Exception {
+		return WaveInfoReader.open(this.waveInfoFile, this.sim).getWaveInfo(1);
+	}
+
+	@Benchmark
+	public int[] extractNextSpawn() {
+		return this.spawnWaves.getWaveInfo(this.wave).extractNextSpawn();
+	}
+}
@@ -0,0 +1,310 @@
+package com.rman.de.core;
+
+import java.util.BitSet;
+
+/**
+ * <pre>public class ColumnIndex</pre>
+ *
+ * <p> This class keeps track of which squares of a {@link Grid Grid} hold a certain kind of unit. The {@link Grid
+ * Grid} updates it whenever a square's entity changes, so that finding the nearest unit in a column doesn't require
+ * walking the column square by square. </p>
+ *
+ * <p> The grid is split into chunks of <code>CHUNK_SIZE</code> by <code>CHUNK_SIZE</code> squares. A chunk is only
+ * allocated while one of its squares is indexed, and holds a mask of the indexed rows of each of its columns. The
+ * chunks of each column of chunks are kept in a {@link BitSet BitSet}, so searching a column skips the empty chunks,
+ * and {@link #nextColumn(int) nextColumn()} skips the columns of chunks that are empty. This makes the memory and the
+ * cost of iterating over an index follow the area that is occupied rather than the size of the grid. </p>
+ *
+ * @author Arman
+ */
+public class ColumnIndex {
+
+	/**
+	 * The width and height of a chunk (in squares).
+	 */
+	public static final int CHUNK_SIZE = 32;
+	private static final int CHUNK_SHIFT = 5;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final int numChunkRows;
+
+	/**
+	 * The chunks, indexed by {@link #getChunkIndex(int, int) getChunkIndex()}. Each chunk holds a mask for each of
+	 * its columns, where the bit for a row is set if the square at that row holds an indexed unit. A chunk is null
+	 * if none of its squares are indexed.
+	 */
+	private int[][] chunks;
+	/**
+	 * The number of indexed squares in each chunk.
+	 */
+	private int[] chunkCounts;
+	/**
+	 * The allocated chunks of each column of chunks, by row of chunks.
+	 */
+	private BitSet[] chunkColumns;
+	/**
+	 * The columns of chunks that have at least one allocated chunk.
+	 */
+	private BitSet usedChunkColumns;
+
+	private int count;
+	private int numChunks;
+
+	/**
+	 * <pre>public ColumnIndex(int numRows, int numColumns)</pre>
+	 *
+	 * <p> Constructs an empty index for a grid of the given size. </p>
+	 *
+	 * @param numRows - The number of rows in the grid
+	 * @param numColumns - The number of columns in the grid
+	 */
+	public ColumnIndex(int numRows, int numColumns) {
+		this.numChunkRows = (numRows + CHUNK_MASK) >> CHUNK_SHIFT;
+		int numChunkColumns = (numColumns + CHUNK_MASK) >> CHUNK_SHIFT;
+		this.chunks = new int[this.numChunkRows * numChunkColumns][];
+		this.chunkCounts = new int[this.chunks.length];
+		this.chunkColumns = new BitSet[numChunkColumns];
+		for (int chunkColumn = 0; chunkColumn < numChunkColumns; chunkColumn++) {
+			this.chunkColumns[chunkColumn] = new BitSet();
+		}
+		this.usedChunkColumns = new BitSet(numChunkColumns);
+	}
+
+	/**
+	 * <pre>public int getChunkIndex(int row, int column)</pre>
+	 *
+	 * <p> Gets the index of the chunk that holds a square. The chunks of a column of chunks have consecutive
+	 * indexes, from top to bottom. </p>
+	 *
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 *
+	 * @return The chunk's index
+	 */
+	public int getChunkIndex(int row, int column) {
+		return (column >> CHUNK_SHIFT) * this.numChunkRows + (row >> CHUNK_SHIFT);
+	}
+
+	/**
+	 * <pre>public static int getSquareIndex(int row, int column)</pre>
+	 *
+	 * <p> Gets the index of a square within its chunk, from 0 to <code>CHUNK_SIZE * CHUNK_SIZE - 1</code>. The
+	 * squares of a column of the chunk have consecutive indexes, from top to bottom. </p>
+	 *
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 *
+	 * @return The square's index in its chunk
+	 */
+	public static int getSquareIndex(int row, int column) {
+		return (column & CHUNK_MASK) << CHUNK_SHIFT | (row & CHUNK_MASK);
+	}
+
+	public void add(int row, int column) {
+		int index = getChunkIndex(row, column);
+		int[] chunk = this.chunks[index];
+		if (chunk == null) {
+			chunk = new int[CHUNK_SIZE];
+			this.chunks[index] = chunk;
+			this.chunkColumns[column >> CHUNK_SHIFT].set(row >> CHUNK_SHIFT);
+			this.usedChunkColumns.set(column >> CHUNK_SHIFT);
+			this.numChunks++;
+		}
+
+		int bit = 1 << (row & CHUNK_MASK);
+		if ((chunk[column & CHUNK_MASK] & bit) == 0) {
+			chunk[column & CHUNK_MASK] |= bit;
+			this.chunkCounts[index]++;
+			this.count++;
+		}
+	}
+
+	public void remove(int row, int column) {
+		int index = getChunkIndex(row, column);
+		int[] chunk = this.chunks[index];
+		int bit = 1 << (row & CHUNK_MASK);
+		if (chunk == null || (chunk[column & CHUNK_MASK] & bit) == 0) {
+			return;
+		}
+
+		chunk[column & CHUNK_MASK] &= ~bit;
+		this.count--;
+		if (--this.chunkCounts[index] == 0) {
+			// Free the chunk
+			this.chunks[index] = null;
+			BitSet chunkColumn = this.chunkColumns[column >> CHUNK_SHIFT];
+			chunkColumn.clear(row >> CHUNK_SHIFT);
+			if (chunkColumn.isEmpty()) {
+				this.usedChunkColumns.clear(column >> CHUNK_SHIFT);
+			}
+			this.numChunks--;
+		}
+	}
+
+	public boolean contains(int row, int column) {
+		int[] chunk = this.chunks[getChunkIndex(row, column)];
+		return chunk != null && (chunk[column & CHUNK_MASK] & (1 << (row & CHUNK_MASK))) != 0;
+	}
+
+	/**
+	 * <pre>public boolean hasChunk(int row, int column)</pre>
+	 *
+	 * <p> Gets whether any square in the chunk that holds a square is indexed. </p>
+	 *
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 *
+	 * @return Whether the square's chunk is allocated
+	 */
+	public boolean hasChunk(int row, int column) {
+		return this.chunks[getChunkIndex(row, column)] != null;
+	}
+
+	/**
+	 * <pre>public int next(int column, int fromRow)</pre>
+	 *
+	 * <p> Finds the first indexed square of a column, starting from a row. This is used to iterate over the
+	 * indexed squares of a column from top to bottom. </p>
+	 *
+	 * @param column - The column to search
+	 * @param fromRow - The row to start from (inclusive)
+	 *
+	 * @return The row of the first indexed square at or below <code>fromRow</code>, or -1 if there is none
+	 */
+	public int next(int column, int fromRow) {
+		int firstChunkRow = fromRow >> CHUNK_SHIFT;
+		BitSet chunkColumn = this.chunkColumns[column >> CHUNK_SHIFT];
+		for (int chunkRow = chunkColumn.nextSetBit(firstChunkRow); chunkRow >= 0; chunkRow = chunkColumn.nextSetBit(chunkRow + 1)) {
+			int rows = this.chunks[getChunkIndex(chunkRow << CHUNK_SHIFT, column)][column & CHUNK_MASK];
+			if (chunkRow == firstChunkRow) {
+				rows &= -1 << (fromRow & CHUNK_MASK);
+			}
+			if (rows != 0) {
+				return (chunkRow << CHUNK_SHIFT) + Integer.numberOfTrailingZeros(rows);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * <pre>public int nextColumn(int fromColumn)</pre>
+	 *
+	 * <p> Finds the first column, starting from a column, that may have an indexed square. The columns of chunks
+	 * that have no indexed squares are skipped, so iterating over the columns this returns, and over the
+	 * {@link #next(int, int) indexed squares} of each of them, visits the indexed squares of the whole grid in
+	 * column order. </p>
+	 *
+	 * @param fromColumn - The column to start from (inclusive)
+	 *
+	 * @return The first column at or after <code>fromColumn</code> whose column of chunks has an indexed square,
+	 *         or -1 if there is none
+	 */
+	public int nextColumn(int fromColumn) {
+		int chunkColumn = this.usedChunkColumns.nextSetBit(fromColumn >> CHUNK_SHIFT);
+		if (chunkColumn < 0) {
+			return -1;
+		}
+		return chunkColumn == fromColumn >> CHUNK_SHIFT ? fromColumn : chunkColumn << CHUNK_SHIFT;
+	}
+
+	/**
+	 * <pre>public int count()</pre>
+	 *
+	 * <p> Counts all the indexed squares. </p>
+	 *
+	 * @return The number of indexed squares
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * <pre>public int getNumChunks()</pre>
+	 *
+	 * <p> Gets the number of chunks that are allocated because one of their squares is indexed. </p>
+	 *
+	 * @return The number of allocated chunks
+	 */
+	public int getNumChunks() {
+		return this.numChunks;
+	}
+
+	/**
+	 * <pre>public int nearestAbove(int row, int column)</pre>
+	 *
+	 * <p> Finds the closest indexed square above the given square in its column. </p>
+	 *
+	 * @param row - The row of the square to search from (not included in the search)
+	 * @param column - The column to search
+	 *
+	 * @return The row of the closest indexed square above, or -1 if there is none
+	 */
+	public int nearestAbove(int row, int column) {
+		if (row <= 0) {
+			return -1;
+		}
+		int fromRow = row - 1;
+		int firstChunkRow = fromRow >> CHUNK_SHIFT;
+		BitSet chunkColumn = this.chunkColumns[column >> CHUNK_SHIFT];
+		for (int chunkRow = chunkColumn.previousSetBit(firstChunkRow); chunkRow >= 0; chunkRow = chunkColumn.previousSetBit(chunkRow - 1)) {
+			int rows = this.chunks[getChunkIndex(chunkRow << CHUNK_SHIFT, column)][column & CHUNK_MASK];
+			if (chunkRow == firstChunkRow) {
+				rows &= -1 >>> (CHUNK_MASK - (fromRow & CHUNK_MASK));
+			}
+			if (rows != 0) {
+				return (chunkRow << CHUNK_SHIFT) + CHUNK_MASK - Integer.numberOfLeadingZeros(rows);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * <pre>public int nearestBelow(int row, int column)</pre>
+	 *
+	 * <p> Finds the closest indexed square below the given square in its column. </p>
+	 *
+	 * @param row - The row of the square to search from (not included in the search)
+	 * @param column - The column to search
+	 *
+	 * @return The row of the closest indexed square below, or -1 if there is none
+	 */
+	public int nearestBelow(int row, int column) {
+		return next(column, row + 1);
+	}
+
+	/**
+	 * <pre>public int firstInRange(int column, int fromRow, int toRow)</pre>
+	 *
+	 * <p> Finds the first indexed square in a range of rows of a column. This can be used to find targets within
+	 * a certain distance. </p>
+	 *
+	 * @param column - The column to search
+	 * @param fromRow - The first row of the range (inclusive)
+	 * @param toRow - The last row of the range (exclusive)
+	 *
+	 * @return The row of the first indexed square in the range, or -1 if there is none
+	 */
+	public int firstInRange(int column, int fromRow, int toRow) {
+		int row = next(column, Math.max(fromRow, 0));
+		return (row >= 0 && row < toRow) ? row : -1;
+	}
+
+	/**
+	 * <pre>public int countInRange(int column, int fromRow, int toRow)</pre>
+	 *
+	 * <p> Counts the indexed squares in a range of rows of a column. </p>
+	 *
+	 * @param column - The column to search
+	 * @param fromRow - The first row of the range (inclusive)
+	 * @param toRow - The last row of the range (exclusive)
+	 *
+	 * @return The number of indexed squares in the range
+	 */
+	public int countInRange(int column, int fromRow, int toRow) {
+		int count = 0;
+		for (int row = next(column, Math.max(fromRow, 0)); row >= 0 && row < toRow; row = next(column, row + 1)) {
+			count++;
+		}
+		return count;
+	}
+}
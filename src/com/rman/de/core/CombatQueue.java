@@ -0,0 +1,234 @@
+package com.rman.de.core;
+
+import java.util.Arrays;
+
+/**
+ * <pre>public class CombatQueue</pre>
+ *
+ * <p> The combat events of one tick of a {@link Grid Grid}: damage done by units, kills, experience for units, and
+ * gold for the player. The phases of the grid's update only append events while they go over the units, without
+ * changing any health, experience, or gold, and {@link #resolve(UnitStore, Simulation) resolve()} applies all of
+ * the events at the end of the tick in the order they were appended. So the outcome of a tick doesn't depend on
+ * the order in which the phases visit the units, and the phases can be split over threads, each appending to its
+ * own queue, as long as the queues are {@link #append(CombatQueue) joined} in a fixed order. </p>
+ *
+ * <p> The events are kept in parallel primitive arrays that are reused every tick, so appending an event doesn't
+ * allocate once the arrays have grown to the busiest tick. The number of events of each type that were resolved
+ * on the last tick can be read with {@link #getCount(int) getCount()}. </p>
+ *
+ * @author Arman
+ */
+public class CombatQueue {
+
+	// Event types
+	/**
+	 * A unit attacked another unit. Its amount is the damage. If the damage takes the last of the target's health,
+	 * a {@link #KILL KILL} event is appended for the attacker. Damage to a target that has no health left already
+	 * doesn't append anything, so a unit is only killed once.
+	 */
+	public static final int DAMAGE = 0;
+	/**
+	 * A unit lost the last of its health. Its amount is the gold that the unit gives the player, and a
+	 * {@link #GOLD GOLD} event is appended for it, along with an {@link #XP XP} event for the killer. The unit
+	 * itself is marked as dead by the {@link UnitStore UnitStore} on the next update.
+	 */
+	public static final int KILL = 1;
+	/**
+	 * A unit gained experience. Its amount is the experience.
+	 */
+	public static final int XP = 2;
+	/**
+	 * The player gained gold. Its amount is the gold.
+	 */
+	public static final int GOLD = 3;
+	/**
+	 * The number of event types.
+	 */
+	public static final int NUM_TYPES = 4;
+
+	private int size;
+	private int[] types;
+	/**
+	 * The unit that caused each event (the attacker, or the unit that gains experience), or null for gold.
+	 */
+	private Unit[] units;
+	/**
+	 * The slot of the unit that each event happens to, or -1 if there is none.
+	 */
+	private int[] targets;
+	/**
+	 * The generation of each target's slot when the event was appended. An event whose target has left the game
+	 * since (see {@link Unit#isReleased() isReleased()}) is skipped.
+	 */
+	private int[] generations;
+	private int[] amounts;
+	/**
+	 * The experience that the target of a {@link #DAMAGE DAMAGE} or {@link #KILL KILL} event gives its killer.
+	 */
+	private int[] xpValues;
+	/**
+	 * The gold that the target of a {@link #DAMAGE DAMAGE} event gives the player when it runs out of health.
+	 * Only attackers give gold; a defender that is killed doesn't.
+	 */
+	private int[] goldValues;
+
+	/**
+	 * The number of events of each type that were resolved on the last tick.
+	 */
+	private int[] counts;
+
+	/**
+	 * <pre>public CombatQueue()</pre>
+	 *
+	 * <p> Constructs an empty queue. </p>
+	 */
+	public CombatQueue() {
+		this.types = new int[16];
+		this.units = new Unit[16];
+		this.targets = new int[16];
+		this.generations = new int[16];
+		this.amounts = new int[16];
+		this.xpValues = new int[16];
+		this.goldValues = new int[16];
+		this.counts = new int[NUM_TYPES];
+	}
+
+	/**
+	 * <pre>public void damage({@link Unit Unit} attacker, {@link Unit Unit} target, int amount)</pre>
+	 *
+	 * <p> Appends the damage of an attack. </p>
+	 *
+	 * @param attacker - The unit that attacked, or null if it has left the game
+	 * @param target - The unit that was attacked
+	 * @param amount - The damage
+	 */
+	public void damage(Unit attacker, Unit target, int amount) {
+		int goldValue = target.getRole() == UnitType.ATTACKER ? target.getGoldValue() : 0;
+		add(DAMAGE, attacker, target.getSlot(), target.getGeneration(), amount, target.getXPValue(), goldValue);
+	}
+
+	/**
+	 * <pre>public void gold(int amount)</pre>
+	 *
+	 * <p> Appends gold for the player. </p>
+	 *
+	 * @param amount - The gold
+	 */
+	public void gold(int amount) {
+		add(GOLD, null, -1, 0, amount, 0, 0);
+	}
+
+	private void add(int type, Unit unit, int target, int generation, int amount, int xpValue, int goldValue) {
+		if (this.size == this.types.length) {
+			int capacity = this.types.length * 2;
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.units = Arrays.copyOf(this.units, capacity);
+			this.targets = Arrays.copyOf(this.targets, capacity);
+			this.generations = Arrays.copyOf(this.generations, capacity);
+			this.amounts = Arrays.copyOf(this.amounts, capacity);
+			this.xpValues = Arrays.copyOf(this.xpValues, capacity);
+			this.goldValues = Arrays.copyOf(this.goldValues, capacity);
+		}
+		this.types[this.size] = type;
+		this.units[this.size] = unit;
+		this.targets[this.size] = target;
+		this.generations[this.size] = generation;
+		this.amounts[this.size] = amount;
+		this.xpValues[this.size] = xpValue;
+		this.goldValues[this.size] = goldValue;
+		this.size++;
+	}
+
+	/**
+	 * <pre>public void append({@link CombatQueue CombatQueue} other)</pre>
+	 *
+	 * <p> Moves the events of another queue to the end of this one, and empties the other queue. </p>
+	 *
+	 * @param other - The queue to take the events of
+	 */
+	public void append(CombatQueue other) {
+		for (int e = 0; e < other.size; e++) {
+			add(other.types[e], other.units[e], other.targets[e], other.generations[e], other.amounts[e], other.xpValues[e],
+					other.goldValues[e]);
+		}
+		other.clear();
+	}
+
+	/**
+	 * <pre>public void resolve({@link UnitStore UnitStore} store, {@link Simulation Simulation} sim)</pre>
+	 *
+	 * <p> Applies the events in the order they were appended, then empties this queue. Damage is taken from the
+	 * targets' health in the store, and the kills it causes are appended behind the other events. Each kill then
+	 * appends the target's gold and the killer's experience, so the rewards of a kill are given once, after all
+	 * the damage of the tick. Events for units that have left the game are
+	 * skipped, since their slots may belong to other units by now. </p>
+	 *
+	 * @param store - The store that holds the units' health
+	 * @param sim - The simulation that gold is given to
+	 */
+	public void resolve(UnitStore store, Simulation sim) {
+		Arrays.fill(this.counts, 0);
+		int[] health = store.health;
+		for (int e = 0; e < this.size; e++) {
+			this.counts[this.types[e]]++;
+			switch (this.types[e]) {
+				case DAMAGE:
+					int target = this.targets[e];
+					if (store.generation[target] != this.generations[e]) {
+						break;
+					}
+					boolean hadHealth = health[target] > 0;
+					health[target] -= this.amounts[e];
+					if (hadHealth && health[target] <= 0) {
+						add(KILL, this.units[e], target, this.generations[e], this.goldValues[e], this.xpValues[e], 0);
+					}
+					break;
+				case KILL:
+					if (this.amounts[e] > 0) {
+						add(GOLD, null, -1, 0, this.amounts[e], 0, 0);
+					}
+					Unit killer = this.units[e];
+					if (killer != null) {
+						add(XP, killer, killer.getSlot(), killer.getGeneration(), this.xpValues[e], 0, 0);
+					}
+					break;
+				case XP:
+					if (!this.units[e].isReleased()) {
+						this.units[e].addXP(this.amounts[e]);
+					}
+					break;
+				case GOLD:
+					sim.addGold(this.amounts[e]);
+					break;
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * <pre>public void clear()</pre>
+	 *
+	 * <p> Removes all events from this queue without resolving them. </p>
+	 */
+	public void clear() {
+		Arrays.fill(this.units, 0, this.size, null);
+		this.size = 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * <pre>public int getCount(int type)</pre>
+	 *
+	 * <p> Gets the number of events of a type that were resolved on the last tick. </p>
+	 *
+	 * @param type - The event type, such as {@link #DAMAGE DAMAGE}
+	 *
+	 * @return The number of events
+	 */
+	public int getCount(int type) {
+		return this.counts[type];
+	}
+}
@@ -1,15 +1,20 @@
 package com.rman.de.core;
 
 import java.awt.Font;
+import java.io.File;
+import java.io.IOException;
 
 import org.lwjgl.input.Keyboard;
+import org.lwjgl.input.Mouse;
 
 import com.rman.engine.Entity;
 import com.rman.engine.Game;
 import com.rman.engine.Log;
+import com.rman.engine.graphics.Camera;
 import com.rman.engine.graphics.Color;
 import com.rman.engine.graphics.Sound;
 import com.rman.engine.graphics.Texture;
+import com.rman.engine.graphics.TextureAtlas;
 import com.rman.engine.gui.Button;
 import com.rman.engine.gui.ComponentListener;
 import com.rman.engine.gui.TextBox;
@@ -29,6 +34,11 @@ public class DefenseEvolution extends Game {
 	private static final int PAUSE_MENU = 5;
 	private static final int OPTIONS_MENU = 6;
 
+	/**
+	 * The {@link TextureAtlas TextureAtlas} that holds the textures of the grid and the interface.
+	 */
+	private TextureAtlas atlas;
+	
 	private Texture infoPaneBackground;
 	
 	private int currentMenu;
@@ -43,7 +53,11 @@ public class DefenseEvolution extends Game {
 	
 	private Button[] instructionArrows;
 
-	private Button[][] playGridButtons;
+	/**
+	 * The button that covers the grid's viewport. The square that is clicked is found from the mouse's position
+	 * through the {@link #camera camera}.
+	 */
+	private Button playGridButton;
 	private Button exitCloseButton;
 
 	private Button mainMenuButton;
@@ -82,23 +96,13 @@ public class DefenseEvolution extends Game {
 	
 	/* ------------------------------ Game Variables ------------------------------*/
 	/**
-	 * Contains the waves in which the number of columns changes. This corresponds to <code>COLUMNS_OUTLINED</code>.
-	 */
-	public static final int[] COLUMNS_OUTLINED_AT = {5, 10, 15, 20, 25, 30};
-	/**
-	 * Contains the amount of columns allowed (how much right and left) at each wave specified in <code>COLUMNS_OUTLINED_AT</code>.
+	 * The width of the window (in pixels).
 	 */
-	public static final int[] COLUMNS_OUTLINED = 	{2, 3, 	5, 	6, 	7, 	8};
-	
-	/**
-	 * The amount of gold that the player starts out with.
-	 */
-	public static final int INIT_GOLD = 500;
-	
+	public static final int WINDOW_WIDTH = 800;
 	/**
-	 * The amount of health that the building starts out with.
+	 * The height of the window (in pixels).
 	 */
-	public static final int INIT_BUILDING_HEALTH = 100;
+	public static final int WINDOW_HEIGHT = 600;
 	
 	/**
 	 * The length (width) of the health bar (in pixels).
@@ -110,64 +114,108 @@ public class DefenseEvolution extends Game {
 	private static final int HEALTH_BAR_HEIGHT = 20;
 	
 	/**
-	 * The current number of allowed columns. See {@link COLUMNS_OUTLINED_AT COLUMNS_OUTLINED_AT} and
-	 * {@link COLUMNS_OUTLINED COLUMNS_OUTLINED} for more details.
+	 * The number of pixels the camera pans each frame that an arrow key is held down.
 	 */
-	private int allowedColumns;
-	
+	private static final int CAMERA_PAN_SPEED = 8;
 	/**
-	 * Indicates whether more columns have been allowed on the current wave, otherwise false.
+	 * The factor the camera zooms by for each step of the mouse wheel.
 	 */
-	private boolean justSwitchedColumns;
+	private static final float CAMERA_ZOOM_STEP = 1.25f;
 	
 	/**
-	 * The current amount of gold that the player has.
+	 * The unit ID of the unit that the player wants to buy (which unit the player selected in the buying sections).
 	 */
-	private int gold;
+	private int selectedBuyUnit;
 	/**
-	 * The current wave that the player is on.
+	 * The position of the unit that the player selected on the grid.
+	 * The first element is the x-coordinate and the second element is the y-coordinate.
+	 * If a unit is not currently selected, both elements are set to -1.
 	 */
-	private int wave;
+	private int[] selectedUnit;
 	
 	/**
-	 * The time that the current wave started. If there is no wave going on, this is set to -1.
-	 * Otherwise, it is set to the time a wave started using {@link System#nanoTime() System.nanoTime()}.
+	 * The {@link Simulation Simulation} that holds the state of the game being played.
 	 */
-	private long waveStartTime;
+	private Simulation sim;
+	
 	/**
-	 * The time that the pause menu was most recently entered.
+	 * The {@link Grid Grid} of the simulation.
 	 */
-	private long pauseStartTime;
+	private Grid grid;
+	
 	/**
-	 * A {@link WaveInfo WaveInfo} object that holds information about the current wave.
+	 * The {@link Camera Camera} that the grid is shown through, in the part of the window left of and above the
+	 * info pane. It is panned with the arrow keys and zoomed with the mouse wheel.
 	 */
-	private WaveInfo currentWaveInfo;
+	private Camera camera;
 	
 	/**
-	 * The unit ID of the unit that the player wants to buy (which unit the player selected in the buying sections).
+	 * The number of game updates per second.
 	 */
-	private int selectedBuyUnit;
+	public static final int TICK_RATE = 60;
+	
 	/**
-	 * The position of the unit that the player selected on the grid.
-	 * The first element is the x-coordinate and the second element is the y-coordinate.
-	 * If a unit is not currently selected, both elements are set to -1.
+	 * The file that the game is recorded to, or null if it isn't recorded.
 	 */
-	private int[] selectedUnit;
+	private static File recordFile;
 	
 	/**
-	 * The amount of health that the building has.
+	 * The file that the game is saved to when F5 is pressed.
+	 */
+	private static File saveFile = new File("defense-evolution.sav");
+	/**
+	 * Indicates whether the game starts from <code>saveFile</code> instead of a new game.
+	 */
+	private static boolean loadSaveFile;
+	/**
+	 * Indicates whether the game is played in endless mode (see {@link Simulation#setEndless(boolean) setEndless()}).
+	 */
+	private static boolean endless;
+	/**
+	 * Indicates whether the impacts of projectiles are scheduled when they are fired (see
+	 * {@link Simulation#setScheduledImpacts(boolean) setScheduledImpacts()}).
 	 */
-	private int buildingHealth;
+	private static boolean scheduledImpacts;
 	
 	/**
-	 * The {@link Grid Grid} object used for this game.
+	 * Indicates whether the save key was down on the last frame, so that holding it only saves once.
 	 */
-	private Grid grid;
+	private boolean saveKeyWasDown;
 	
 	public void init() {
-		this.grid = new Grid(this, this.window.getWidth() - INFO_PANE_WIDTH, this.window.getHeight() - INFO_PANE_HEIGHT);
+		setTickRate(TICK_RATE);
+		
+		this.atlas = new TextureAtlas("Game Atlas");
+		Grid.addTextures(this.atlas);
+		this.atlas.add("Interface Textures", this.getClass().getResource("res/interface.png"));
+		this.atlas.add("Info Pane Background", this.getClass().getResource("res/infoBackground.png"), 15, 20);
+		this.atlas.pack();
+		
+		if (loadSaveFile) {
+			try {
+				this.sim = SaveGame.load(saveFile, this.clock, this.getClass().getResource("res/waveinfo.de"));
+				Log.log("Loaded the game from " + saveFile);
+			} catch (IOException e) {
+				Log.logError("Error loading the saved game, starting a new game:", e);
+				loadSaveFile = false;
+			}
+		}
+		if (!loadSaveFile) {
+			this.sim = new Simulation(this.clock, WINDOW_WIDTH - INFO_PANE_WIDTH, WINDOW_HEIGHT - INFO_PANE_HEIGHT);
+			this.sim.loadWaves(this.getClass().getResource("res/waveinfo.de"));
+		}
+		this.grid = this.sim.getGrid();
+		this.grid.loadTextures(this.atlas);
 		
-		this.infoPaneBackground = new Texture("Info Pane Background", this.getClass().getResource("res/infoBackground.png"), 15, 20);
+		// Show the grid in the part of the window that the info pane leaves, and don't let it zoom out further
+		// than the whole grid
+		this.camera = new Camera(0, 0, WINDOW_WIDTH - INFO_PANE_WIDTH, WINDOW_HEIGHT - INFO_PANE_HEIGHT);
+		float gridWidth = this.grid.getNumColumns() * Grid.SQUARE_SIZE;
+		float gridHeight = this.grid.getNumRows() * Grid.SQUARE_SIZE;
+		this.camera.setZoomRange(Math.min(Math.min(this.camera.getViewportWidth() / gridWidth, this.camera.getViewportHeight() / gridHeight), 1.0f), 4.0f);
+		this.camera.setBounds(gridWidth, gridHeight);
+		
+		this.infoPaneBackground = this.atlas.getRegion("Info Pane Background");
 		
 		this.buttonClickSound = new Sound(this.getClass().getResource("res/button_click.wav"));
 		this.buttonClickSound.setLoop(false);
@@ -180,19 +228,24 @@ public class DefenseEvolution extends Game {
 		loadInterface();
 		updateUnitInfo();
 		
-		this.allowedColumns = COLUMNS_OUTLINED[0];
-		
-		this.gold = INIT_GOLD;
-		this.wave = 0;
-		this.waveStartTime = -1L;
 		this.selectedBuyUnit = -1;
 		this.selectedUnit = new int[] {-1, -1};
-		this.buildingHealth = INIT_BUILDING_HEALTH; 
 		
-		try {
-			WaveInfoReader.loadWaveInfoFile(this, this.getClass().getResource("res/waveinfo.de"));
-		} catch (Exception e) {
-			Log.logError("Error loading wave info:", e);
+		if (recordFile != null && loadSaveFile) {
+			Log.logError("A loaded game can't be recorded");
+		} else if (recordFile != null) {
+			try {
+				this.sim.startRecording(recordFile);
+				Log.log("Recording replay to " + recordFile + " (seed " + this.sim.getSeed() + ")");
+			} catch (IOException e) {
+				Log.logError("Error starting replay recording:", e);
+			}
+		}
+		if (endless) {
+			this.sim.setEndless(true);
+		}
+		if (scheduledImpacts) {
+			this.sim.setScheduledImpacts(true);
 		}
 	}
 	
@@ -209,7 +262,7 @@ public class DefenseEvolution extends Game {
 		this.goudy38 = new TrueTypeFont("Goudy Mediaeval Font (38)", this.getClass().getResource("res/Goudy Mediaeval Regular.ttf"), 38);
 		this.goudy96 = new TrueTypeFont("Goudy Mediaeval Font (96)", this.getClass().getResource("res/Goudy Mediaeval Regular.ttf"), 96);
 		
-		this.interfaceTextures = new Texture("Interface Textures", this.getClass().getResource("res/interface.png"));
+		this.interfaceTextures = this.atlas.getRegion("Interface Textures");
 		this.buttonTextures = new Texture[] {
 				this.interfaceTextures.getSubTexture(0, 0, 200, 50), this.interfaceTextures.getSubTexture(0, 50, 200, 50), this.interfaceTextures.getSubTexture(0, 100, 200, 50),
 				this.interfaceTextures.getSubTexture(0, 151, 35, 24), this.interfaceTextures.getSubTexture(36, 151, 34, 24), this.interfaceTextures.getSubTexture(71, 151, 34, 24), 
@@ -268,7 +321,7 @@ public class DefenseEvolution extends Game {
 		this.playStartWaveButton.addComponentListener(new ComponentListener() {
 			public void onMouseOver(WindowComponent e) {}
 			public void onPress(WindowComponent wc) {
-				if (buildingHealth == 0) return;
+				if (sim.isGameOver()) return;
 				onWaveStart();
 			}
 		});
@@ -278,34 +331,29 @@ public class DefenseEvolution extends Game {
 		this.optionsDoneButton.addComponentListener(getMenuListener(PAUSE_MENU));
 		
 		// Unit Select buttons
-		this.infoUnitShooterButton = new Button(this.window, "", this.window.getWidth() - INFO_PANE_WIDTH + 24, this.window.getHeight() - INFO_PANE_HEIGHT - 128, 32, 32, this.grid.shooterSpriteSheet.getSprite(0, 0));
-		this.infoUnitShooterButton.addComponentListener(getUnitListener(Shooter.ID));
+		this.infoUnitShooterButton = new Button(this.window, "", this.window.getWidth() - INFO_PANE_WIDTH + 24, this.window.getHeight() - INFO_PANE_HEIGHT - 128, 32, 32, this.grid.unitSpriteSheets[UnitType.SHOOTER].getSprite(0, 0));
+		this.infoUnitShooterButton.addComponentListener(getUnitListener(UnitType.SHOOTER));
 		
 		// Stat Upgrade buttons
 		this.infoUnitShooterUpgradeHealthButton = new Button(this.window, "", this.window.getWidth() - INFO_PANE_WIDTH - 170, this.window.getHeight() - INFO_PANE_HEIGHT + (INFO_PANE_HEIGHT - 64) / 2, 64, 64, this.interfaceTextures.getSubTexture(105, 200, 32, 32), this.interfaceTextures.getSubTexture(137, 200, 32, 32), this.interfaceTextures.getSubTexture(169, 200, 32, 32));
-		this.infoUnitShooterUpgradeHealthButton.addComponentListener(getUnitUpgradeListener(0));
+		this.infoUnitShooterUpgradeHealthButton.addComponentListener(getUnitUpgradeListener(Simulation.UPGRADE_HEALTH));
 		this.infoUnitShooterUpgradeStrengthButton = new Button(this.window, "", this.window.getWidth() - INFO_PANE_WIDTH - 95, this.window.getHeight() - INFO_PANE_HEIGHT + (INFO_PANE_HEIGHT - 64) / 2, 64, 64, this.interfaceTextures.getSubTexture(224, 128, 32, 32), this.interfaceTextures.getSubTexture(224, 160, 32, 32), this.interfaceTextures.getSubTexture(224, 192, 32, 32));
-		this.infoUnitShooterUpgradeStrengthButton.addComponentListener(getUnitUpgradeListener(1));
+		this.infoUnitShooterUpgradeStrengthButton.addComponentListener(getUnitUpgradeListener(Simulation.UPGRADE_STRENGTH));
 		
 		// Mouse Over boxes
 		this.infoUnitShooterMouseOverBox = new TextBox(this.window, this.mouseOverTextures[0], "Info Unit Shooter Mouse Over", "", this.window.getWidth() - INFO_PANE_WIDTH - 150 - TextBox.DEFAULT_PADDING, this.infoUnitShooterButton.getY(), 150, 100);
 		this.infoUnitShooterUpgradeHealthMouseOverBox = new TextBox(this.window, this.mouseOverTextures[0], "Info Unit Shooter Upgrade Health Mouse Over", "Upgrade health by: 50", this.infoUnitShooterUpgradeHealthButton.getX() - 35, this.window.getHeight() - INFO_PANE_HEIGHT - 20, 130, 12);
 		this.infoUnitShooterUpgradeStrengthMouseOverBox = new TextBox(this.window, this.mouseOverTextures[0], "Info Unit Shooter Upgrade Strength Mouse Over", "Upgrade strength by: 5", this.infoUnitShooterUpgradeStrengthButton.getX() - 35, this.window.getHeight() - INFO_PANE_HEIGHT - 20, 130, 12);
 		
-		// Buttons for each square on the grid
-		this.playGridButtons = new Button[this.grid.getNumRows()][this.grid.getNumColumns()];
-		for (int row = 0; row < this.playGridButtons.length; row++) {
-			for (int col = 0; col < this.playGridButtons[0].length; col++) {
-				this.playGridButtons[row][col] = new Button(this.window, col * Grid.SQUARE_SIZE, row * Grid.SQUARE_SIZE, Grid.SQUARE_SIZE, Grid.SQUARE_SIZE);
-				this.playGridButtons[row][col].setPlaySound(false);
-				this.playGridButtons[row][col].addComponentListener(new ComponentListener() {
-					public void onMouseOver(WindowComponent e) {}
-					public void onPress(WindowComponent wc) {
-						onSquareClicked(wc);
-					}
-				});
+		// Button for the squares on the grid
+		this.playGridButton = new Button(this.window, this.camera.getViewportX(), this.camera.getViewportY(), this.camera.getViewportWidth(), this.camera.getViewportHeight());
+		this.playGridButton.setPlaySound(false);
+		this.playGridButton.addComponentListener(new ComponentListener() {
+			public void onMouseOver(WindowComponent e) {}
+			public void onPress(WindowComponent wc) {
+				onSquareClicked();
 			}
-		}
+		});
 	}
 	
 	private ComponentListener getMenuListener(final int menu) {
@@ -323,7 +371,7 @@ public class DefenseEvolution extends Game {
 			public void onMouseOver(WindowComponent wc) {}
 			public void onPress(WindowComponent wc) {
 				currentMenu = menu;
-				waveStartTime += System.nanoTime() - pauseStartTime;
+				sim.resume();
 			}
 		};
 	}
@@ -343,7 +391,7 @@ public class DefenseEvolution extends Game {
 				displayMouseOverUnitInfo(id, true);
 			}
 			public void onPress(WindowComponent wc) {
-				if (buildingHealth == 0) return;
+				if (sim.isGameOver()) return;
 				
 				if (selectedBuyUnit == id) {
 					selectedBuyUnit = -1;
@@ -360,20 +408,9 @@ public class DefenseEvolution extends Game {
 				displayMouseOverUnitUpgradeInfo(skill, true);
 			}
 			public void onPress(WindowComponent wc) {
-				if (buildingHealth == 0) return;
+				if (sim.isGameOver()) return;
 				
-				Entity e = grid.getEntityAt(selectedUnit[0], selectedUnit[1]);
-				if (e instanceof Shooter) {
-					Shooter s = (Shooter) e;
-					if (skill == 0) {
-						s.upgradeBaseHealth(50);
-						s.refillHealth();
-					} else if (skill == 1) {
-						s.upgradeStrength(5);
-					}
-					s.finishLevelUp();
-					grid.setEntity(s, selectedUnit[0], selectedUnit[1]);
-				}
+				sim.upgradeUnit(selectedUnit[0], selectedUnit[1], skill);
 			}
 		};
 	}
@@ -393,74 +430,43 @@ public class DefenseEvolution extends Game {
 	private void displayMouseOverUnitInfo(int id, boolean shouldRender) {
 		this.renderer.setColor(Color.BLACK);
 		this.renderer.setFont(this.sanserif12);
-		if (id == Shooter.ID) {
+		if (id == UnitType.SHOOTER) {
 			this.infoUnitShooterMouseOverBox.setActive(shouldRender);
 			this.infoUnitShooterMouseOverBox.render(this.renderer);
 		}
 	}
 	
 	private void onWaveStart() {
-		if (this.buildingHealth == 0) return;
-		
-		if (this.grid.getEnemyCount() == 0) {
-			// Update wave info
-			this.waveStartTime = System.nanoTime();
-			this.currentWaveInfo = WaveInfoReader.getWaveInfo(++this.wave);
-			
-			// Update the number of columns outlined
-			for (int i = 0; i < COLUMNS_OUTLINED_AT.length; i++) {
-				if (this.wave == COLUMNS_OUTLINED_AT[i]) {
-					Enemy.boostHealth((i + 1) * 20);
-					Enemy.boostStrength((i + 1) * 5);
-				}
-			}
-			
+		int wave = this.sim.getWave();
+		this.sim.startWave();
+		if (this.sim.getWave() != wave) {
 			updateUnitInfo();
-			
-			this.allowedColumns = getAllowedColumns(this.wave);
-			this.justSwitchedColumns = false;
-		}
-	}
-	
-	private void onWaveEnd() {
-		if (this.grid.getEnemyCount() == 0) {
-			this.allowedColumns = getAllowedColumns(this.wave + 1);
-			if (getAllowedColumns(this.wave) != this.allowedColumns) {
-				this.justSwitchedColumns = true;
-			}
-			this.waveStartTime = -1L;
-		}
-	}
-	
-	public int getAllowedColumns(int wave) {
-		for (int i = 0; i < COLUMNS_OUTLINED_AT.length; i++) {
-			if (wave < COLUMNS_OUTLINED_AT[i]) {
-				return COLUMNS_OUTLINED[i];
-			}
 		}
-		return this.grid.getNumColumns() / 2;
 	}
 	
 	private void updateUnitInfo() {
+		UnitType shooter = UnitTypeRegistry.get(UnitType.SHOOTER);
+		UnitStats stats = this.sim.getUnitStats();
 		this.infoUnitShooterMouseOverBox.setText(String.format(
 				  "%s:\n"
 				+ "Fires arrows at enemies.\n \n"
 				+ "Health: %d\n"
 				+ "Strength: %d\n"
 				+ "Gold Cost: %d"
-				, Shooter.getCurrentName(), Shooter.getCurrentBaseHealth(), Shooter.getCurrentStrength(), Shooter.getCurrentGoldValue()
+				, shooter.getTitle(), stats.getBaseHealth(UnitType.SHOOTER), stats.getStrength(UnitType.SHOOTER), shooter.getGoldValue()
 		));
 	}
 	
-	private void onSquareClicked(WindowComponent wc) {
-		if (this.buildingHealth == 0) return;
+	private void onSquareClicked() {
+		if (this.sim.isGameOver()) return;
 		
-		int row = (int) wc.getY() / Grid.SQUARE_SIZE;
-		int column = (int) wc.getX() / Grid.SQUARE_SIZE;
-		if (row > 0 && this.selectedBuyUnit != -1 && this.grid.getEntityAt(row, column) == null && Math.abs(convertFromColumn(column)) <= this.allowedColumns) {
-			this.grid.addUnit(this.selectedBuyUnit, row, column);
+		// Find the square under the mouse in the camera's view
+		int row = (int) Math.floor(this.window.getMouseY(this.camera) / Grid.SQUARE_SIZE);
+		int column = (int) Math.floor(this.window.getMouseX(this.camera) / Grid.SQUARE_SIZE);
+		if (row < 0 || row >= this.grid.getNumRows() || column < 0 || column >= this.grid.getNumColumns()) {
+			this.selectedUnit[0] = -1; this.selectedUnit[1] = -1;
+		} else if (this.selectedBuyUnit != -1 && this.sim.placeUnit(this.selectedBuyUnit, row, column)) {
 			this.selectedBuyUnit = -1;
-			this.justSwitchedColumns = false;
 			this.selectedUnit[0] = -1; this.selectedUnit[1] = -1;
 		} else if (this.grid.getEntityAt(row, column) != null) {
 			if (this.selectedUnit[0] == row && this.selectedUnit[1] == column) {
@@ -475,58 +481,10 @@ public class DefenseEvolution extends Game {
 	
 	public void update(double delta) {
 		if (this.currentMenu == PLAY) {
-			this.grid.update(delta);
-			
-			// If a wave is going on, then spawn units
-			if (this.currentWaveInfo != null) {
-				if (this.currentWaveInfo.isDone()) {
-					onWaveEnd();
-				} else if (this.waveStartTime != -1L && this.currentTime - this.waveStartTime >= this.currentWaveInfo.nextTime() * 1000000000L) {
-					String[] positions = this.currentWaveInfo.extractNextSpawn();
-					for (int pos = 0; pos < positions.length; pos++) {
-						String sPos = positions[pos];
-						if (sPos.equalsIgnoreCase("e")) {
-							this.grid.addUnit(Enemy.ID, 0, (this.grid.getNumColumns() - positions.length) / 2 + pos);
-						}
-					}
-				}
-			}
-			
-			// If the building's health is less than or equal to 0, set it to 0 to indicate game over
-			if (this.buildingHealth <= 0) {
-				this.buildingHealth = 0;
-			}
+			this.sim.update(delta);
 		}
 	}
 	
-	private int convertFromColumn(int col) {
-		return col - this.grid.getNumColumns() / 2 + (col >= this.grid.getNumColumns() / 2 ? 1 : 0);
-	}
-	
-	public int getGold() {
-		return this.gold;
-	}
-	
-	public void addGold(int amount) {
-		this.gold += amount;
-	}
-	
-	public void removeGold(int amount) {
-		this.gold -= amount;
-	}
-	
-	public int getBuildingHealth() {
-		return this.buildingHealth;
-	}
-	
-	public void healBuilding(int amount) {
-		this.buildingHealth += amount;
-	}
-	
-	public void damageBuilding(int amount) {
-		this.buildingHealth -= amount;
-	}
-	
 	public void render() {
 		this.renderer.drawTexture(this.infoPaneBackground, 0, 0);
 		
@@ -544,10 +502,19 @@ public class DefenseEvolution extends Game {
 			} else {
 				if (Keyboard.isKeyDown(Keyboard.KEY_P) || Keyboard.isKeyDown(Keyboard.KEY_PAUSE)) {
 					this.currentMenu = PAUSE_MENU;
-					this.pauseStartTime = System.nanoTime();
+					this.sim.pause();
+				}
+				
+				// Save the game when F5 is pressed
+				boolean saveKeyDown = Keyboard.isKeyDown(Keyboard.KEY_F5);
+				if (saveKeyDown && !this.saveKeyWasDown) {
+					saveGame();
 				}
+				this.saveKeyWasDown = saveKeyDown;
+				
+				updateCamera();
 				renderGame();
-				if (this.buildingHealth == 0) {
+				if (this.sim.isGameOver()) {
 					renderGameOver();
 				}
 			}
@@ -556,13 +523,46 @@ public class DefenseEvolution extends Game {
 		}
 	}
 	
-	private void renderGame() {
-		this.grid.render(this.renderer, (this.selectedBuyUnit != -1 || this.justSwitchedColumns) ? this.allowedColumns : 0);
-		for (Button[] bs : this.playGridButtons) {
-			for (Button b : bs) {
-				b.render(this.renderer);
-			}
+	private void saveGame() {
+		try {
+			SaveGame.save(this.sim, saveFile);
+			Log.log("Saved the game to " + saveFile);
+		} catch (IOException e) {
+			Log.logError("Error saving the game:", e);
+		}
+	}
+	
+	/**
+	 * <pre>private void updateCamera()</pre>
+	 * 
+	 * <p> Pans the camera while the arrow keys are held down, and zooms it at the mouse pointer when the mouse
+	 * wheel is turned over the grid. </p>
+	 */
+	private void updateCamera() {
+		int dx = 0;
+		int dy = 0;
+		if (Keyboard.isKeyDown(Keyboard.KEY_LEFT)) dx -= CAMERA_PAN_SPEED;
+		if (Keyboard.isKeyDown(Keyboard.KEY_RIGHT)) dx += CAMERA_PAN_SPEED;
+		if (Keyboard.isKeyDown(Keyboard.KEY_UP)) dy -= CAMERA_PAN_SPEED;
+		if (Keyboard.isKeyDown(Keyboard.KEY_DOWN)) dy += CAMERA_PAN_SPEED;
+		if (dx != 0 || dy != 0) {
+			this.camera.pan(dx, dy);
+		}
+		
+		int wheel = Mouse.getDWheel();
+		int mouseX = this.window.getMouseX();
+		int mouseY = this.window.getMouseY();
+		if (wheel != 0 && this.camera.isInViewport(mouseX, mouseY)) {
+			float factor = wheel > 0 ? CAMERA_ZOOM_STEP : 1.0f / CAMERA_ZOOM_STEP;
+			this.camera.zoomAt(this.camera.getZoom() * factor, mouseX, mouseY);
 		}
+	}
+	
+	private void renderGame() {
+		this.renderer.setCamera(this.camera);
+		this.grid.render(this.renderer, (this.selectedBuyUnit != -1 || this.sim.hasJustSwitchedColumns()) ? this.sim.getAllowedColumns() : 0);
+		this.renderer.setCamera(null);
+		this.playGridButton.render(this.renderer);
 		renderInfoPane();
 	}
 	
@@ -573,7 +573,7 @@ public class DefenseEvolution extends Game {
 		this.infoUnitShooterButton.render(this.renderer);
 		
 		if (this.selectedBuyUnit != -1) {
-			if (this.selectedBuyUnit == Shooter.ID) {
+			if (this.selectedBuyUnit == UnitType.SHOOTER) {
 				// Draw the selection box over the infoUnitShooter button
 				this.renderer.drawTexture(this.buttonTextures[9], this.infoUnitShooterButton.getX(), this.infoUnitShooterButton.getY(), this.infoUnitShooterButton.getWidth(), this.infoUnitShooterButton.getHeight());
 			}
@@ -585,11 +585,13 @@ public class DefenseEvolution extends Game {
 		if (this.grid.getEntityAt(this.selectedUnit[0], this.selectedUnit[1]) != null) {
 			Entity e = this.grid.getEntityAt(this.selectedUnit[0], this.selectedUnit[1]);
 			
-			if (e instanceof Shooter) {
-				Shooter shooter = (Shooter) e;
+			if (e instanceof Unit && ((Unit) e).getRole() == UnitType.DEFENDER) {
+				Unit shooter = (Unit) e;
 				
 				// Draw the selection box over the selected shooter
+				this.renderer.setCamera(this.camera);
 				this.renderer.drawTexture(this.buttonTextures[9], shooter.getX(), shooter.getY(), shooter.getWidth(), shooter.getHeight());
+				this.renderer.setCamera(null);
 				
 				// Draw the shooter picture on the bottom
 				this.renderer.drawTexture(shooter.getCurrentTexture(), 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4, INFO_PANE_HEIGHT - 8, INFO_PANE_HEIGHT - 8);
@@ -597,7 +599,7 @@ public class DefenseEvolution extends Game {
 				// Draw the shooter's name
 				this.renderer.setFont(this.sanserif16);
 				this.renderer.setColor(Color.BLACK);
-				this.renderer.drawText(Shooter.getCurrentName(), INFO_PANE_WIDTH + 8, this.window.getHeight() - INFO_PANE_HEIGHT + 8);
+				this.renderer.drawText(shooter.getType().getTitle(), INFO_PANE_WIDTH + 8, this.window.getHeight() - INFO_PANE_HEIGHT + 8);
 				
 				// Draw the shooter's position
 				this.renderer.drawText(String.format("Position: (%d, %d)", shooter.getGridPos()[0] + 1, shooter.getGridPos()[1] + 1), INFO_PANE_WIDTH + 8, this.window.getHeight() - INFO_PANE_HEIGHT + 38);
@@ -636,29 +638,32 @@ public class DefenseEvolution extends Game {
 			this.renderer.setColor(Color.BLACK);
 			
 			// Draw the current era
-			if (this.wave < 10) {
+			int wave = this.sim.getWave();
+			if (wave < 10) {
 				this.renderer.drawText("Ancient Era", 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
-			} else if (this.wave < 20) {
+			} else if (wave < 20) {
 				this.renderer.drawText("Classical Era", 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
-			} else if (this.wave < 30) {
+			} else if (wave < 30) {
 				this.renderer.drawText("Renaissance\n        Era", 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
-			} else if (this.wave < 40) {
+			} else if (wave < 40) {
 				this.renderer.drawText("Industrial Era", 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
-			} else if (this.wave < 50) {
+			} else if (wave < 50) {
 				this.renderer.drawText("Modern Era", 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
 			} else {
 				this.renderer.drawText("Future era", 4, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
 			}
 			
-			this.renderer.drawText("Building Health: " + this.buildingHealth, (this.grid.getNumColumns() * Grid.SQUARE_SIZE - this.sanserif16.getWidth("Building Health: " + this.buildingHealth)) / 2, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
+			String healthText = "Building Health: " + this.sim.getBuildingHealth();
+			this.renderer.drawText(healthText, (this.grid.getNumColumns() * Grid.SQUARE_SIZE - this.sanserif16.getWidth(healthText)) / 2, this.window.getHeight() - INFO_PANE_HEIGHT + 4);
 		}
 		
 		// Draw gold and wave information
 		this.renderer.setColor(Color.BLACK);
 		this.renderer.setFont(this.sanserif16);
-		String goldText = "Gold: " + (this.gold > 10000000 ? (this.gold / 1000000) : (this.gold > 100000 ? (this.gold / 1000) + "K" : this.gold));
+		int gold = this.sim.getGold();
+		String goldText = "Gold: " + (gold > 10000000 ? (gold / 1000000) : (gold > 100000 ? (gold / 1000) + "K" : gold));
 		this.renderer.drawText(goldText, this.window.getWidth() - INFO_PANE_WIDTH + 4, 4);
-		this.renderer.drawText("Wave: " + this.wave, this.window.getWidth() - INFO_PANE_WIDTH + 4, 24);
+		this.renderer.drawText("Wave: " + this.sim.getWave(), this.window.getWidth() - INFO_PANE_WIDTH + 4, 24);
 		
 		// Draw the wave button. If a wave is still going on, does not update the button
 		if (this.grid.getEnemyCount() > 0) {
@@ -775,6 +780,9 @@ public class DefenseEvolution extends Game {
 	}
 
 	public void cleanUp() {
+		this.sim.stopRecording();
+		this.sim.setEndless(false);
+		
 		this.sanserif8.destroy();
 		this.sanserif12.destroy();
 		this.sanserif16.destroy();
@@ -786,16 +794,38 @@ public class DefenseEvolution extends Game {
 		this.buttonClickSound.destroy();
 		
 		this.grid.destroy();
-		this.interfaceTextures.delete();
-		this.infoPaneBackground.delete();
+		this.atlas.destroy();
 	}
 
 	public DefenseEvolution() {
-		super("Defense Evolution", 60, 800, 600);
+		super("Defense Evolution", 60, WINDOW_WIDTH, WINDOW_HEIGHT);
 		this.window.setResizable(false);
 	}
 
+	/**
+	 * <pre>public static void main({@link String String}[] args)</pre>
+	 * 
+	 * <p> Starts the game. The argument <code>--record=FILE</code> records the game to a {@link Replay Replay} file,
+	 * which can be played again with {@link ReplayPlayer ReplayPlayer}. The argument <code>--load=FILE</code>
+	 * continues a game that was saved with F5 (see {@link SaveGame SaveGame}), and F5 then saves to the same file.
+	 * The argument <code>--endless</code> plays generated waves after the last wave of the wave info file, and
+	 * <code>--scheduled-impacts</code> schedules the impacts of projectiles when they are fired. </p>
+	 * 
+	 * @param args - The command-line arguments
+	 */
 	public static void main(String[] args) {
+		for (String arg : args) {
+			if (arg.startsWith("--record=")) {
+				recordFile = new File(arg.substring("--record=".length()));
+			} else if (arg.startsWith("--load=")) {
+				saveFile = new File(arg.substring("--load=".length()));
+				loadSaveFile = true;
+			} else if (arg.equals("--endless")) {
+				endless = true;
+			} else if (arg.equals("--scheduled-impacts")) {
+				scheduledImpacts = true;
+			}
+		}
 		new DefenseEvolution();
 	}
 }
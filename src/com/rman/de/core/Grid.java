@@ -1,22 +1,32 @@
 package com.rman.de.core;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.lwjgl.util.Point;
 
 import com.rman.engine.Entity;
+import com.rman.engine.Log;
 import com.rman.engine.graphics.Animation;
+import com.rman.engine.graphics.Camera;
 import com.rman.engine.graphics.Color;
+import com.rman.engine.graphics.RenderTarget;
 import com.rman.engine.graphics.Renderer;
 import com.rman.engine.graphics.SpriteSheet;
 import com.rman.engine.graphics.Texture;
+import com.rman.engine.graphics.TextureAtlas;
 
 /**
  * <pre>public class Grid</pre>
  * 
- * <p> This class manages the different {@link Square Square} objects in the game, as well as the different
- * {@link Entity Entity} objects that they contain. </p>
+ * <p> This class manages the squares of the game and the different {@link Entity Entity} objects that they
+ * contain. The squares are stored in chunks of {@link ColumnIndex#CHUNK_SIZE CHUNK_SIZE} by
+ * <code>CHUNK_SIZE</code> squares, which are allocated when an entity is put in one of their squares and freed
+ * when their last entity is removed. The updates, queries, and rendering skip the columns of chunks that are
+ * empty, so a large map that is mostly empty costs about as much as its occupied area. </p>
  * 
  * @author Arman
  */
@@ -28,18 +38,25 @@ public class Grid {
 	public static final int SQUARE_SIZE = 40;
 	
 	/**
-	 * The {@link Texture Texture} for this grid's background.
+	 * The length of a tick of the simulation (in nanoseconds).
 	 */
-	public Texture background;
+	private static final long TICK_LENGTH = 1000000000L / DefenseEvolution.TICK_RATE;
 	
 	/**
-	 * The shooter entity's {@link SpriteSheet SpriteSheet} that contains all of its animations.
+	 * The color of the outlines of the allowed columns.
 	 */
-	public SpriteSheet shooterSpriteSheet;
+	private static final Color OUTLINE_COLOR = new Color(245, 245, 245);
+	
 	/**
-	 * The enemy entity's {@link SpriteSheet SpriteSheet} that contains all of its animations.
+	 * The {@link Texture Texture} for this grid's background.
 	 */
-	public SpriteSheet enemySpriteSheet;
+	public Texture background;
+	
+	/**
+	 * The {@link SpriteSheet SpriteSheet} that contains all of the animations of each unit type, indexed by
+	 * unit ID.
+	 */
+	public SpriteSheet[] unitSpriteSheets;
 	/**
 	 * A {@link Texture Texture} object that contains the textures for all projectiles.
 	 */
@@ -51,19 +68,86 @@ public class Grid {
 	public SpriteSheet effectsSpriteSheet;
 	
 	/**
-	 * The {@link Square Square} objects that make up this grid.
+	 * The background and the outlines of the allowed columns, which are drawn into this {@link RenderTarget
+	 * RenderTarget} once and then drawn as one texture each frame. It is null until it is first drawn, or if the
+	 * grid is drawn directly.
+	 */
+	private RenderTarget staticLayer;
+	/**
+	 * The number of outlined columns that the static layer was drawn with, or -1 if it needs to be redrawn.
+	 */
+	private int staticLayerOutlined = -1;
+	/**
+	 * Whether render targets couldn't be created, in which case the background is drawn directly every frame.
+	 */
+	private boolean staticLayerUnsupported;
+	
+	private int numRows;
+	private int numColumns;
+	
+	/**
+	 * The entities on this grid, in chunks that are indexed the same way as the chunks of the
+	 * {@link #occupied occupied} index. A chunk holds the entity of each of its squares (see
+	 * {@link ColumnIndex#getSquareIndex(int, int) getSquareIndex()}), and is null if it has no entities.
 	 */
-	private Square[][] squares;
+	private Entity[][] chunks;
 	
 	/**
-	 * A reference to the main {@link DefenseEvolution DefenseEvolution} game.
+	 * The {@link UnitStore UnitStore} that holds the simulation state of the units on this grid.
+	 */
+	private UnitStore units;
+	
+	/**
+	 * A reference to the {@link Simulation Simulation} that this grid belongs to.
+	 */
+	private Simulation sim;
+	
+	/**
+	 * The squares that hold an entity, indexed by column. Iterating over a column's rows visits its occupied
+	 * squares from top to bottom without looking at the empty squares, and its chunks decide which chunks of
+	 * entities are allocated.
+	 */
+	private ColumnIndex occupied;
+	
+	/**
+	 * The squares that hold an {@link UnitType#ATTACKER attacker}, indexed by column.
+	 */
+	private ColumnIndex enemyIndex;
+	/**
+	 * The squares that hold a {@link UnitType#DEFENDER defender}, indexed by column.
+	 */
+	private ColumnIndex shooterIndex;
+	/**
+	 * The index of the units of each role, indexed by role.
 	 */
-	private DefenseEvolution de;
+	private ColumnIndex[] roleIndexes;
 	
 	/**
-	 * A list of projectiles that are currently active on this grid.
+	 * The projectiles that are currently active on this grid, in the order they were fired. Only the first
+	 * <code>numProjectiles</code> elements are used.
+	 */
+	private Projectile[] projectiles;
+	/**
+	 * The number of projectiles that are currently active on this grid.
+	 */
+	private int numProjectiles;
+	/**
+	 * The pool that projectiles are taken from when they are fired and given back to when they are removed.
+	 */
+	private ProjectilePool projectilePool;
+	/**
+	 * Indicates whether the impacts of projectiles are scheduled when they are fired instead of the projectiles
+	 * being moved every tick. See {@link #setScheduledImpacts(boolean) setScheduledImpacts()}.
+	 */
+	private boolean scheduledImpacts;
+	/**
+	 * The time of the clock at the start of the last update.
+	 */
+	private long updateTime;
+	/**
+	 * The damage, kills, experience, and gold of the current tick, which are resolved at the end of the update.
 	 */
-	private LinkedList<Projectile> projectiles;
+	private CombatQueue combat;
 	
 	/**
 	 * The number of enemy units currently on this grid.
@@ -73,60 +157,112 @@ public class Grid {
 	private Animation upgradeEffect;
 	
 	/**
-	 * <pre>public Grid({@link DefenseEvolution DefenseEvolution} de, int gridWidth, int gridHeight)</pre>
+	 * The pool that updates the column strips in parallel, or null if this grid is updated on one thread.
+	 */
+	private ForkJoinPool pool;
+	/**
+	 * The column strips that this grid is split into. When there is no pool, there is one strip that covers
+	 * the whole grid.
+	 */
+	private Strip[] strips;
+	/**
+	 * The task that runs all strips on the pool.
+	 */
+	private RecursiveAction stripsTask;
+	
+	/**
+	 * The moves planned by all strips on the current tick, which are sorted and resolved together (see
+	 * {@link #resolveMoves() resolveMoves()}).
+	 */
+	private long[] moves;
+	/**
+	 * The units that are being moved by <code>resolveMoves()</code>, in the same order as the granted moves.
+	 */
+	private Entity[] movedEntities;
+	
+	/**
+	 * <pre>public Grid({@link Simulation Simulation} sim, int gridWidth, int gridHeight)</pre>
 	 * 
-	 * <p> Constructs a <code>Grid</code> object by initializing an array of {@link Square Square} objects
-	 * and loading the textures for the grid's background and all game units. </p>
+	 * <p> Constructs an empty <code>Grid</code> object. No chunks are allocated until entities are added. No
+	 * textures are loaded, so the grid can be simulated without a window; call
+	 * {@link #loadTextures(TextureAtlas) loadTextures()} before rendering it. </p>
 	 * 
-	 * @param de - A reference to the main game
+	 * @param sim - The simulation that this grid belongs to
 	 * @param gridWidth - The width of the grid (in pixels)
 	 * @param gridHeight - The height of the grid (in pixels)
 	 */
-	public Grid(DefenseEvolution de, int gridWidth, int gridHeight) {
-		this.de = de;
-		initTextures();
+	public Grid(Simulation sim, int gridWidth, int gridHeight) {
+		this.sim = sim;
 		
-		// Initialize the squares
-		int rowSize = gridWidth / SQUARE_SIZE;
-		int columnSize = gridHeight / SQUARE_SIZE;
-		this.squares = new Square[columnSize][rowSize];
-		for (int row = 0; row < columnSize; row++) {
-			for (int column = 0; column < rowSize; column++) {
-				this.squares[row][column] = new Square(null, column * SQUARE_SIZE, row * SQUARE_SIZE, SQUARE_SIZE, SQUARE_SIZE, row, column);
-			}
-		}
+		this.numRows = gridHeight / SQUARE_SIZE;
+		this.numColumns = gridWidth / SQUARE_SIZE;
 		
-		this.projectiles = new LinkedList<Projectile>();
+		this.units = new UnitStore();
+		this.occupied = new ColumnIndex(this.numRows, this.numColumns);
+		this.enemyIndex = new ColumnIndex(this.numRows, this.numColumns);
+		this.shooterIndex = new ColumnIndex(this.numRows, this.numColumns);
+		this.chunks = new Entity[this.occupied.getChunkIndex(this.numRows - 1, this.numColumns - 1) + 1][];
+		this.roleIndexes = new ColumnIndex[UnitType.NUM_ROLES];
+		this.roleIndexes[UnitType.DEFENDER] = this.shooterIndex;
+		this.roleIndexes[UnitType.ATTACKER] = this.enemyIndex;
 		
-		Point[] upgradeEffectPoints = new Point[16];
-		for (int i = 0; i < 8; i++) {
-			upgradeEffectPoints[i] = new Point(0, i);
-			upgradeEffectPoints[8 + i] = new Point(1, i);
+		this.projectiles = new Projectile[ProjectilePool.DEFAULT_CAPACITY];
+		this.projectilePool = new ProjectilePool();
+		this.combat = new CombatQueue();
+		
+		this.moves = new long[16];
+		this.movedEntities = new Entity[16];
+		
+		setParallelism(1);
+	}
+	
+	/**
+	 * <pre>public static void addTextures({@link TextureAtlas TextureAtlas} atlas)</pre>
+	 * 
+	 * <p> Adds the images for the background and all game units to the given atlas. </p>
+	 * 
+	 * @param atlas - The atlas to add the images to
+	 */
+	public static void addTextures(TextureAtlas atlas) {
+		atlas.add("Grid Background", Grid.class.getResource("res/background.png"));
+		for (int id = 0; id < UnitTypeRegistry.getNumTypes(); id++) {
+			UnitType type = UnitTypeRegistry.get(id);
+			atlas.add(type.getName() + " Texture", Grid.class.getResource("res/" + type.getSpriteSheet()));
 		}
-		this.upgradeEffect = new Animation("Unit Upgrade Effect", this.effectsSpriteSheet, 15.0, true, upgradeEffectPoints);
+		atlas.add("Projectiles Texture", Grid.class.getResource("res/projectiles.png"));
+		atlas.add("Effects Texture", Grid.class.getResource("res/effects.png"));
 	}
 	
 	/**
-	 * <pre>private void initTextures()</pre>
+	 * <pre>public void loadTextures({@link TextureAtlas TextureAtlas} atlas)</pre>
+	 * 
+	 * <p> Initializes the textures for the background and all game units from their regions in the atlas. The
+	 * images must have been added with {@link #addTextures(TextureAtlas) addTextures()} before the atlas
+	 * was packed. </p>
 	 * 
-	 * <p> Initializes the textures for the background and all game units. </p>
+	 * @param atlas - The packed atlas
 	 */
-	private void initTextures() {
-		this.background = new Texture("Grid Background", this.getClass().getResource("res/background.png"));
+	public void loadTextures(TextureAtlas atlas) {
+		this.background = atlas.getRegion("Grid Background");
 		
-		Texture shooterTexture = new Texture("Shooter Texture", this.getClass().getResource("res/shooter.png"));
-		this.shooterSpriteSheet = new SpriteSheet("Shooter SpriteSheet", shooterTexture, 32, 32);
-		Shooter.loadAnimations(this.shooterSpriteSheet);
-		
-		Texture enemyTexture = new Texture("Enemy Texture", this.getClass().getResource("res/enemy.png"));
-		this.enemySpriteSheet = new SpriteSheet("Enemy SpriteSheet", enemyTexture, 32, 32);
-		Enemy.loadAnimations(this.enemySpriteSheet);
+		this.unitSpriteSheets = new SpriteSheet[UnitTypeRegistry.getNumTypes()];
+		for (int id = 0; id < this.unitSpriteSheets.length; id++) {
+			UnitType type = UnitTypeRegistry.get(id);
+			this.unitSpriteSheets[id] = new SpriteSheet(type.getName() + " SpriteSheet", atlas.getRegion(type.getName() + " Texture"), 32, 32);
+			Unit.loadAnimations(type, this.unitSpriteSheets[id]);
+		}
 		
-		this.projectilesTexture = new Texture("Projectiles Texture", this.getClass().getResource("res/projectiles.png"));
+		this.projectilesTexture = atlas.getRegion("Projectiles Texture");
 		Projectile.loadTextures(this.projectilesTexture);
 		
-		Texture effectsTexture = new Texture("Effects Texture", this.getClass().getResource("res/effects.png"));
-		this.effectsSpriteSheet = new SpriteSheet("Effects SpriteSheet", effectsTexture, 32, 32);
+		this.effectsSpriteSheet = new SpriteSheet("Effects SpriteSheet", atlas.getRegion("Effects Texture"), 32, 32);
+		
+		Point[] upgradeEffectPoints = new Point[16];
+		for (int i = 0; i < 8; i++) {
+			upgradeEffectPoints[i] = new Point(0, i);
+			upgradeEffectPoints[8 + i] = new Point(1, i);
+		}
+		this.upgradeEffect = new Animation("Unit Upgrade Effect", this.effectsSpriteSheet, 15.0, true, upgradeEffectPoints);
 	}
 	
 	/**
@@ -139,7 +275,7 @@ public class Grid {
 	 * @param column - The square's column in the grid
 	 */
 	public void addEntity(Entity entity, int row, int column) {
-		if (this.squares[row][column].entity == null) {
+		if (entityAt(row, column) == null) {
 			setEntity(entity, row, column);
 		}
 	}
@@ -147,14 +283,42 @@ public class Grid {
 	/**
 	 * <pre>public void setEntity(Entity entity, int row, int column)</pre>
 	 * 
-	 * <p> Sets the specified square's <code>Entity</code> to the new one. </p>
+	 * <p> Sets the specified square's <code>Entity</code> to the new one. All changes to the squares go through
+	 * this method, so that the set of occupied squares and the {@link ColumnIndex indexes} of the units of each
+	 * role stay up to date, and so that chunks are allocated and freed. </p>
 	 * 
 	 * @param entity - The <code>Entity</code> to set
 	 * @param row - The square's row in the grid
 	 * @param column - The square's column in the grid
 	 */
 	public void setEntity(Entity entity, int row, int column) {
-		this.squares[row][column].entity = entity;
+		int chunkIndex = this.occupied.getChunkIndex(row, column);
+		Entity[] chunk = this.chunks[chunkIndex];
+		int square = ColumnIndex.getSquareIndex(row, column);
+		
+		Entity previous = chunk != null ? chunk[square] : null;
+		if (previous instanceof Unit) {
+			this.roleIndexes[((Unit) previous).getRole()].remove(row, column);
+		}
+		
+		if (entity != null) {
+			if (chunk == null) {
+				chunk = new Entity[ColumnIndex.CHUNK_SIZE * ColumnIndex.CHUNK_SIZE];
+				this.chunks[chunkIndex] = chunk;
+			}
+			chunk[square] = entity;
+			this.occupied.add(row, column);
+		} else if (chunk != null) {
+			chunk[square] = null;
+			this.occupied.remove(row, column);
+			if (!this.occupied.hasChunk(row, column)) {
+				this.chunks[chunkIndex] = null;
+			}
+		}
+		
+		if (entity instanceof Unit) {
+			this.roleIndexes[((Unit) entity).getRole()].add(row, column);
+		}
 	}
 	
 	/**
@@ -170,182 +334,1156 @@ public class Grid {
 	}
 	
 	public void addUnit(int unitID, int row, int column) {
-		Unit u = null;
-		if (unitID == Shooter.ID) {
-			u = new Shooter(this.squares[row][column], getNumRows(), getNumColumns());
-		} else if (unitID == Enemy.ID) {
-			u = new Enemy(this.squares[row][column], getNumRows(), getNumColumns());
-		}
+		UnitType type = UnitTypeRegistry.get(unitID);
+		Unit u = new Unit(type, row, column, getNumRows(), this.sim.getClock(), this.units, this.sim.getUnitStats());
 		
-		int goldValue = u.getGoldValue();
+		int goldValue = type.getGoldValue();
 		
 		// If the player can afford this unit, then add it to the game and remove the proper amount of gold
-		if (goldValue <= this.de.getGold()) {
+		if (goldValue <= this.sim.getGold()) {
 			addEntity(u, row, column);
-			if (!(u instanceof Enemy)) {
-				this.de.removeGold(goldValue);
+			if (type.getRole() != UnitType.ATTACKER) {
+				this.sim.removeGold(goldValue);
 			}
 		}
+		
+		// Free the unit's slot in the store if it wasn't added
+		if (entityAt(row, column) != u) {
+			this.units.release(u.getSlot());
+		}
 	}
 	
 	public void moveEntity(int fromRow, int fromColumn, int toRow, int toColumn) {
-		this.squares[toRow][toColumn].entity = this.squares[fromRow][fromColumn].entity;
-		this.squares[fromRow][fromColumn].entity = null;
+		Entity e = entityAt(fromRow, fromColumn);
+		removeEntity(fromRow, fromColumn);
+		setEntity(e, toRow, toColumn);
 	}
 	
 	public Entity getEntityAt(int row, int column) {
-		if (row < 0 || row > this.squares.length || column < 0 || column > this.squares[0].length) {
+		if (row < 0 || row >= this.numRows || column < 0 || column >= this.numColumns) {
 			return null;
 		}
-		return this.squares[row][column].entity;
+		return entityAt(row, column);
+	}
+	
+	/**
+	 * <pre>private {@link Entity Entity} entityAt(int row, int column)</pre>
+	 * 
+	 * <p> Gets the entity at a square that is on this grid. </p>
+	 * 
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 * 
+	 * @return The entity, or null if the square is empty
+	 */
+	private Entity entityAt(int row, int column) {
+		Entity[] chunk = this.chunks[this.occupied.getChunkIndex(row, column)];
+		return chunk != null ? chunk[ColumnIndex.getSquareIndex(row, column)] : null;
 	}
 	
 	public int getNumRows() {
-		return this.squares.length;
+		return this.numRows;
 	}
 	
 	public int getNumColumns() {
-		return this.squares[0].length;
+		return this.numColumns;
+	}
+	
+	/**
+	 * <pre>public {@link ColumnIndex ColumnIndex} getEnemyIndex()</pre>
+	 * 
+	 * <p> Gets the index of the squares that hold an enemy. It must not be changed. </p>
+	 * 
+	 * @return The enemy index
+	 */
+	public ColumnIndex getEnemyIndex() {
+		return this.enemyIndex;
+	}
+	
+	/**
+	 * <pre>public {@link ColumnIndex ColumnIndex} getShooterIndex()</pre>
+	 * 
+	 * <p> Gets the index of the squares that hold a shooter. It must not be changed. </p>
+	 * 
+	 * @return The shooter index
+	 */
+	public ColumnIndex getShooterIndex() {
+		return this.shooterIndex;
+	}
+	
+	/**
+	 * <pre>public int getEntityCount()</pre>
+	 * 
+	 * <p> Gets the number of squares on this grid that hold an entity. </p>
+	 * 
+	 * @return The number of entities
+	 */
+	public int getEntityCount() {
+		return this.occupied.count();
+	}
+	
+	/**
+	 * <pre>public int getNumChunks()</pre>
+	 * 
+	 * <p> Gets the number of chunks of squares that are allocated because they hold an entity. </p>
+	 * 
+	 * @return The number of allocated chunks
+	 */
+	public int getNumChunks() {
+		return this.occupied.getNumChunks();
+	}
+	
+	/**
+	 * <pre>public int getChunkCapacity()</pre>
+	 * 
+	 * <p> Gets the number of chunks that this grid is split into. </p>
+	 * 
+	 * @return The number of chunks
+	 */
+	public int getChunkCapacity() {
+		return this.chunks.length;
+	}
+	
+	/**
+	 * <pre>public {@link UnitStore UnitStore} getUnitStore()</pre>
+	 * 
+	 * <p> Gets the store that holds the simulation state of the units on this grid. </p>
+	 * 
+	 * @return The unit store
+	 */
+	public UnitStore getUnitStore() {
+		return this.units;
 	}
 	
 	public int getEnemyCount() {
 		return this.enemyCount;
 	}
 	
+	/**
+	 * <pre>public void setScheduledImpacts(boolean scheduledImpacts)</pre>
+	 * 
+	 * <p> Sets whether the impacts of projectiles are scheduled. A projectile flies in a straight line, so when it
+	 * is fired, the time it hits its target can be computed right away (see
+	 * {@link Projectile#scheduleImpact(long, long) scheduleImpact()}). With scheduled impacts, the impacts are kept
+	 * on a timer wheel by the {@link ProjectilePool ProjectilePool}, and each update only looks at the projectiles
+	 * whose impacts are due, so a flying projectile costs nothing. Projectiles are drawn where their flights have
+	 * taken them, and are removed as soon as they hit. </p>
+	 * 
+	 * <p> The impact is the same as when the projectile is moved every tick, unless the target stops or starts
+	 * moving during the flight, so the game can play out a little differently. Projectiles that are flying when
+	 * the mode is changed continue from where they are. </p>
+	 * 
+	 * @param scheduledImpacts - Whether impacts should be scheduled
+	 */
+	public void setScheduledImpacts(boolean scheduledImpacts) {
+		if (this.scheduledImpacts == scheduledImpacts) {
+			return;
+		}
+		this.scheduledImpacts = scheduledImpacts;
+		int numActive = 0;
+		for (int i = 0; i < this.numProjectiles; i++) {
+			Projectile proj = this.projectiles[i];
+			if (!proj.isActive()) {
+				// Only flying projectiles are kept while impacts are scheduled
+				this.projectilePool.release(proj);
+				continue;
+			}
+			if (scheduledImpacts) {
+				this.projectilePool.scheduleImpact(proj, this.updateTime);
+			} else {
+				this.projectilePool.cancelImpact(proj, this.updateTime);
+			}
+			proj.setIndex(numActive);
+			this.projectiles[numActive++] = proj;
+		}
+		for (int i = numActive; i < this.numProjectiles; i++) {
+			this.projectiles[i] = null;
+		}
+		this.numProjectiles = numActive;
+	}
+	
+	public boolean hasScheduledImpacts() {
+		return this.scheduledImpacts;
+	}
+	
+	/**
+	 * <pre>public {@link CombatQueue CombatQueue} getCombatQueue()</pre>
+	 * 
+	 * <p> Gets the queue that the combat of each tick is resolved through. Its counts are those of the last
+	 * update. </p>
+	 * 
+	 * @return The combat queue
+	 */
+	public CombatQueue getCombatQueue() {
+		return this.combat;
+	}
+	
+	/**
+	 * <pre>public void setParallelism(int threads)</pre>
+	 * 
+	 * <p> Sets how many threads this grid is updated with. With more than one thread, the grid is split into
+	 * strips of columns that are updated in parallel on a {@link ForkJoinPool ForkJoinPool}. Almost everything a
+	 * unit does stays within its column, so the strips don't share squares. The effects that reach outside a strip
+	 * (moves, damage to units and the building, enemy counts, fired projectiles, started cooldowns, and removed
+	 * units) are collected per strip and applied in column order after the strips finish. The squares are only
+	 * changed between the phases of the update, since two strips can share a chunk of squares. This makes the
+	 * result exactly the same as updating with one thread. </p>
+	 * 
+	 * @param threads - The number of threads, or 1 to update on the calling thread
+	 */
+	public void setParallelism(int threads) {
+		if (this.pool != null) {
+			this.pool.shutdown();
+			this.pool = null;
+		}
+		
+		int numColumns = getNumColumns();
+		int numStrips = 1;
+		if (threads > 1) {
+			this.pool = new ForkJoinPool(threads);
+			numStrips = Math.min(threads * 2, numColumns);
+			this.stripsTask = new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				protected void compute() {
+					ForkJoinTask.invokeAll(strips);
+				}
+			};
+		}
+		
+		this.strips = new Strip[numStrips];
+		for (int i = 0; i < numStrips; i++) {
+			this.strips[i] = new Strip(i * numColumns / numStrips, (i + 1) * numColumns / numStrips);
+		}
+	}
+	
+	public int getParallelism() {
+		return this.pool != null ? this.pool.getParallelism() : 1;
+	}
+	
+	/**
+	 * <pre>public void update(double delta)</pre>
+	 * 
+	 * <p> Updates the units and projectiles on this grid for one tick. The squares are double-buffered: each phase
+	 * of the update only reads the squares as they were when the phase started, and the changes it wants to make
+	 * are written as intents that are applied after the phase. This makes the result of a tick independent of the
+	 * order in which the squares are visited. The phases are: </p>
+	 * 
+	 * <ol>
+	 * <li> Inactive entities are removed. </li>
+	 * <li> The {@link UnitStore UnitStore} updates the cooldowns, deaths, and movement of all units. </li>
+	 * <li> Every unit decides which square it wants to move to (see {@link #planMoves(Strip) planMoves()}), and
+	 * the moves are {@link #resolveMoves() resolved}. </li>
+	 * <li> The units attack from their new squares; the projectiles fired, cooldowns started, units removed, and
+	 * damage done to the building are applied after all units have attacked. </li>
+	 * <li> The projectiles are updated, or their scheduled impacts are checked. </li>
+	 * <li> The damage done by the units and projectiles, and the experience and gold it earns, are resolved in
+	 * the order they happened (see {@link CombatQueue CombatQueue}). </li>
+	 * </ol>
+	 * 
+	 * @param delta - The time since the last update divided by the optimal time
+	 */
 	public void update(double delta) {
 		this.enemyCount = 0;
+		this.updateTime = this.sim.getClock().nanoTime();
 		
-		// Update entities
-		for (int i = 0; i < this.squares.length; i++) {
-			for (int j = 0; j < this.squares[i].length; j++) {
-				Entity e = this.squares[i][j].entity;
-				if (e != null) {
-					if (!e.isActive()) {
-						this.squares[i][j].entity = null;
-					} else {
-						e.update(delta);
-					}
+		// Remove inactive entities and update the entities that aren't units
+		runStrips(Strip.REMOVE_INACTIVE, delta);
+		int numColumns = getNumColumns();
+		boolean released = false;
+		for (Strip strip : this.strips) {
+			for (int i = 0; i < strip.numRemoved; i++) {
+				removeEntity(strip.removedSquares[i] / numColumns, strip.removedSquares[i] % numColumns);
+			}
+			for (int i = 0; i < strip.numReleased; i++) {
+				this.units.release(strip.releasedSlots[i]);
+				released = true;
+			}
+		}
+		if (released) {
+			detachReleasedUnits();
+		}
+		
+		// Update the cooldowns, deaths, and movement of all units at once
+		this.units.update(delta, this.sim.getClock().nanoTime());
+		
+		// Decide where the units move, then move them all at once
+		runStrips(Strip.PLAN_MOVES, delta);
+		resolveMoves();
+		
+		// Let the units attack
+		runStrips(Strip.ATTACK, delta);
+		released = false;
+		
+		// Merge the results of the strips in column order
+		int buildingDamage = 0;
+		for (Strip strip : this.strips) {
+			for (int i = 0; i < strip.numAttacked; i++) {
+				this.units.startCooldown(strip.attackedSlots[i]);
+			}
+			for (int i = 0; i < strip.numRemoved; i++) {
+				removeEntity(strip.removedSquares[i] / numColumns, strip.removedSquares[i] % numColumns);
+			}
+			for (int i = 0; i < strip.numReleased; i++) {
+				this.units.release(strip.releasedSlots[i]);
+				released = true;
+			}
+			for (int i = 0; i < strip.numFired; i++) {
+				Unit shooter = strip.firedBy[i];
+				Projectile proj = addProjectile(shooter.getProjectile(), shooter.getX() + shooter.getWidth() / 2 - 2, shooter.getY(), shooter, strip.firedAt[i], Unit.UP);
+				if (this.scheduledImpacts) {
+					// The projectile makes its first move on this tick
+					this.projectilePool.scheduleImpact(proj, this.updateTime - TICK_LENGTH);
+				}
+				strip.firedBy[i] = null;
+				strip.firedAt[i] = null;
+			}
+			buildingDamage += strip.buildingDamage;
+			this.enemyCount += strip.enemyCount;
+			this.combat.append(strip.combat);
+		}
+		if (released) {
+			detachReleasedUnits();
+		}
+		if (buildingDamage != 0) {
+			this.sim.damageBuilding(buildingDamage);
+		}
+		
+		updateProjectiles(delta, this.updateTime);
+		
+		this.combat.resolve(this.units, this.sim);
+	}
+	
+	private void runStrips(int phase, double delta) {
+		for (Strip strip : this.strips) {
+			strip.reset(phase, delta);
+		}
+		
+		if (this.pool == null) {
+			this.strips[0].compute();
+		} else {
+			this.stripsTask.reinitialize();
+			this.pool.invoke(this.stripsTask);
+		}
+	}
+	
+	/**
+	 * <pre>private void removeInactive({@link Strip Strip} strip)</pre>
+	 * 
+	 * <p> Removes the inactive entities in a strip and updates the entities that aren't units. The squares of the
+	 * removed entities are emptied, and the slots of removed units released, by {@link #update(double) update()}
+	 * after all strips finish. </p>
+	 * 
+	 * @param strip - The strip
+	 */
+	private void removeInactive(Strip strip) {
+		for (int j = this.occupied.nextColumn(strip.firstColumn); j >= 0 && j < strip.endColumn; j = this.occupied.nextColumn(j + 1)) {
+			for (int i = this.occupied.next(j, 0); i >= 0; i = this.occupied.next(j, i + 1)) {
+				Entity e = entityAt(i, j);
+				if (!e.isActive()) {
+					strip.despawn(e);
+					strip.remove(i, j);
+				} else if (!(e instanceof Unit)) {
+					e.storePreviousPosition();
+					e.update(strip.delta);
 				}
 			}
 		}
+	}
+	
+	/**
+	 * <pre>private void planMoves({@link Strip Strip} strip)</pre>
+	 * 
+	 * <p> Decides which square each unit in a strip moves to, without changing any squares. An enemy that isn't
+	 * moving wants to move down if the square below it is empty. A unit whose grid position was changed
+	 * elsewhere (so it isn't on the square it is in) wants to move to that square. The moves are recorded in the
+	 * strip as intents for {@link #resolveMoves() resolveMoves()}. </p>
+	 * 
+	 * @param strip - The strip
+	 */
+	private void planMoves(Strip strip) {
+		int numRows = getNumRows();
 		
-		// Check unit positions
-		for (int i = 0; i < this.squares.length; i++) {
-			for (int j = 0; j < this.squares[i].length; j++) {
-				Entity e = this.squares[i][j].entity;
-				if (e != null && e instanceof Unit) {
+		for (int j = this.occupied.nextColumn(strip.firstColumn); j >= 0 && j < strip.endColumn; j = this.occupied.nextColumn(j + 1)) {
+			for (int i = this.occupied.next(j, 0); i >= 0; i = this.occupied.next(j, i + 1)) {
+				Entity e = entityAt(i, j);
+				if (e instanceof Unit) {
 					Unit u = (Unit) e;
-					int[] unitPos = u.getGridPos();
-					if (i != unitPos[0] || j != unitPos[1]) {
-						moveEntity(i, j, unitPos[0], unitPos[1]);
-					}
+					u.update(strip.delta);
 					
-					if (u instanceof Enemy && i + 1 < getNumRows() && this.squares[i + 1][j].entity == null) {
-						u.moveDown(1);
+					int unitRow = u.getRow();
+					int unitColumn = u.getColumn();
+					if (i != unitRow || j != unitColumn) {
+						strip.move(i, j, unitRow, unitColumn);
+					} else if (u.getRole() == UnitType.ATTACKER && !u.isMoving() && i + 1 < numRows && entityAt(i + 1, j) == null) {
+						strip.move(i, j, i + 1, j);
 					}
 				}
 			}
 		}
+	}
+	
+	/**
+	 * <pre>private void resolveMoves()</pre>
+	 * 
+	 * <p> Applies the moves that the strips planned. A move is granted if its square was empty before any move is
+	 * made, so a unit can't move into a square that another unit is leaving on the same tick. If more than one
+	 * unit wants the same square, the unit closest to the building (the one in the lowest row, then the leftmost
+	 * column) gets it. The granted units are taken off their squares first and then put on their new squares, and
+	 * start moving towards them. A unit whose move isn't granted stays where it is. </p>
+	 */
+	private void resolveMoves() {
+		int numRows = getNumRows();
+		int numColumns = getNumColumns();
+		
+		// Collect the intents of all strips
+		int numMoves = 0;
+		for (Strip strip : this.strips) {
+			numMoves += strip.numMoves;
+		}
+		if (numMoves == 0) {
+			return;
+		}
+		if (this.moves.length < numMoves) {
+			this.moves = new long[Math.max(numMoves, this.moves.length * 2)];
+			this.movedEntities = new Entity[this.moves.length];
+		}
+		numMoves = 0;
+		for (Strip strip : this.strips) {
+			System.arraycopy(strip.moves, 0, this.moves, numMoves, strip.numMoves);
+			numMoves += strip.numMoves;
+		}
+		
+		// Sort by target square, then by priority, and grant the first move to each square that is empty
+		Arrays.sort(this.moves, 0, numMoves);
+		int numGranted = 0;
+		int lastTarget = -1;
+		for (int m = 0; m < numMoves; m++) {
+			long move = this.moves[m];
+			int target = (int) (move >>> 32);
+			int fromRow = numRows - 1 - (int) move / numColumns;
+			int fromColumn = (int) move % numColumns;
+			boolean granted = target != lastTarget && target < numRows * numColumns
+					&& entityAt(target / numColumns, target % numColumns) == null;
+			lastTarget = target;
+			
+			if (granted) {
+				this.moves[numGranted++] = move;
+			} else {
+				// Keep the unit where it is
+				Unit u = (Unit) entityAt(fromRow, fromColumn);
+				if (u.getRow() != fromRow || u.getColumn() != fromColumn) {
+					u.setGridPosition(fromRow, fromColumn);
+				}
+			}
+		}
+		
+		// Take the units off their squares, then put them on their new ones
+		for (int m = 0; m < numGranted; m++) {
+			int fromRow = numRows - 1 - (int) this.moves[m] / numColumns;
+			int fromColumn = (int) this.moves[m] % numColumns;
+			this.movedEntities[m] = entityAt(fromRow, fromColumn);
+			removeEntity(fromRow, fromColumn);
+		}
+		for (int m = 0; m < numGranted; m++) {
+			int target = (int) (this.moves[m] >>> 32);
+			int toRow = target / numColumns;
+			int toColumn = target % numColumns;
+			Unit u = (Unit) this.movedEntities[m];
+			setEntity(u, toRow, toColumn);
+			if (u.getRow() != toRow || u.getColumn() != toColumn) {
+				u.moveTo(toRow, toColumn);
+			}
+			this.movedEntities[m] = null;
+		}
+	}
+	
+	/**
+	 * <pre>private void attack({@link Strip Strip} strip)</pre>
+	 * 
+	 * <p> Makes the units in a strip attack, without changing any squares. Projectiles that are fired, cooldowns
+	 * that are started, damage done to the building, and units that are removed are recorded in the strip. </p>
+	 * 
+	 * @param strip - The strip
+	 */
+	private void attack(Strip strip) {
+		int numRows = getNumRows();
+		
+		UnitStats stats = this.sim.getUnitStats();
 		
-		// Post-movement update
-		for (int i = 0; i < this.squares.length; i++) {
-			for (int j = 0; j < this.squares[i].length; j++) {
-				Square s = this.squares[i][j];
-				Entity e = s.entity;
-				if (e != null) {
-					if (e instanceof Shooter) {
-						Shooter shooter = (Shooter) e;
-						
+		for (int j = this.occupied.nextColumn(strip.firstColumn); j >= 0 && j < strip.endColumn; j = this.occupied.nextColumn(j + 1)) {
+			for (int i = this.occupied.next(j, 0); i >= 0; i = this.occupied.next(j, i + 1)) {
+				Entity e = entityAt(i, j);
+				if (!(e instanceof Unit)) {
+					continue;
+				}
+				
+				Unit u = (Unit) e;
+				switch (u.getRole()) {
+					case UnitType.DEFENDER:
 						// Make the shooter shoot at enemies
-						if (shooter.canAttack()) {
-							int proj = shooter.getProjectile();
-							for (int k = 1; k <= i; k++) {
-								if (this.squares[i - k][j].entity instanceof Enemy) {
-									this.projectiles.add(new Projectile(proj, shooter.getX() + shooter.getWidth() / 2 - 2, shooter.getY(), shooter, (Enemy) this.squares[i - k][j].entity, Unit.UP));
-									shooter.hasJustAttacked();
-									break;
-								}
+						if (u.canAttack()) {
+							int targetRow = this.enemyIndex.nearestAbove(i, j);
+							if (targetRow != -1) {
+								strip.fire(u, (Unit) entityAt(targetRow, j));
+								u.hasJustAttacked();
+								strip.startCooldown(u);
 							}
 						}
-					} else if (e instanceof Enemy) {
-						Enemy enemy = (Enemy) e;
-						
-						if (!enemy.isMoving()) {
-							if (i == this.squares.length - 1) {
+						break;
+					case UnitType.ATTACKER:
+						if (!u.isMoving()) {
+							if (i == numRows - 1) {
 								// Make the enemy disappear and damage building if it's in the last row
-								this.de.damageBuilding(enemy.getStrength());
-								this.squares[i][j].entity = null;
-							} else if (this.squares[i + 1][j].entity instanceof Shooter && enemy.canAttack()) { 
+								strip.buildingDamage += stats.getStrength(u.getID());
+								strip.despawn(u);
+								strip.remove(i, j);
+							} else if (this.shooterIndex.contains(i + 1, j) && u.canAttack()) { 
 								// Make the enemy attack a shooter if it's in front of the enemy
-								enemy.attack((Shooter) this.squares[i + 1][j].entity);
-								enemy.hasJustAttacked();
+								strip.combat.damage(u, (Unit) entityAt(i + 1, j), this.units.strength[u.getSlot()]);
+								u.hasJustAttacked();
+								strip.startCooldown(u);
 							}
 						}
-						this.enemyCount++;
-					}
+						strip.enemyCount++;
+						break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <pre>private void detachReleasedUnits()</pre>
+	 * 
+	 * <p> Lets go of the units whose slots were just released, so that the projectiles in flight don't follow or
+	 * give experience to whichever units are given the slots next. A projectile whose shooter left keeps flying
+	 * with the shooter's strength, and an active projectile whose target left is cancelled. A cancelled projectile
+	 * whose impact is scheduled is removed right away, which also takes its impact off the wheel. </p>
+	 */
+	private void detachReleasedUnits() {
+		// Go backwards, since removing a projectile moves the last one into its place
+		for (int i = this.numProjectiles - 1; i >= 0; i--) {
+			Projectile proj = this.projectiles[i];
+			Unit shooter = proj.getShooter();
+			if (shooter != null && shooter.isReleased()) {
+				proj.detachShooter(this.units.strength[shooter.getSlot()]);
+			}
+			if (proj.isActive() && proj.getTarget().isReleased()) {
+				proj.cancel();
+				if (proj.isImpactScheduled()) {
+					removeProjectile(proj);
 				}
 			}
 		}
+	}
+	
+	/**
+	 * <pre>void updateProjectiles(double delta, long timeNow)</pre>
+	 * 
+	 * <p> Updates the projectiles on this grid and removes the ones that aren't active anymore. The damage of a
+	 * projectile that hits is added to the {@link #getCombatQueue() combat queue}, which gives the player the
+	 * target's gold if the damage kills it. Removed projectiles are released to the {@link ProjectilePool pool}.
+	 * </p>
+	 * 
+	 * <p> When impacts are scheduled, only the projectiles whose impacts are due on the wheel of the pool are
+	 * looked at. They hit their targets and are removed right away, by moving the last projectile into their
+	 * places. Otherwise, every projectile is moved, and the active ones are compacted in place, so they stay in
+	 * the order they were fired. </p>
+	 * 
+	 * @param delta - The time since the last update divided by the optimal time
+	 * @param timeNow - The current time (in nanoseconds)
+	 */
+	void updateProjectiles(double delta, long timeNow) {
+		int numDue = this.projectilePool.advanceImpacts(timeNow);
+		for (int i = 0; i < numDue; i++) {
+			Projectile proj = this.projectilePool.getDueImpact(i);
+			proj.impact();
+			addDamage(proj);
+			removeProjectile(proj);
+		}
+		if (this.scheduledImpacts) {
+			return;
+		}
 		
-		// Update the projectiles, and if they're not active, remove them
-		Iterator<Projectile> projIter = this.projectiles.iterator();
-		while (projIter.hasNext()) {
-			Projectile proj = projIter.next();
+		int numActive = 0;
+		for (int i = 0; i < this.numProjectiles; i++) {
+			Projectile proj = this.projectiles[i];
 			if (!proj.isActive()) {
-				if (proj.getTarget().isDead()) {
-					this.de.addGold(proj.getTarget().getGoldValue());
-				}
-				projIter.remove();
+				this.projectilePool.release(proj);
 			} else {
+				proj.storePreviousPosition();
 				proj.update(delta);
+				if (!proj.isActive()) {
+					addDamage(proj);
+				}
+				proj.setIndex(numActive);
+				this.projectiles[numActive++] = proj;
+			}
+		}
+		for (int i = numActive; i < this.numProjectiles; i++) {
+			this.projectiles[i] = null;
+		}
+		this.numProjectiles = numActive;
+	}
+	
+	private void addDamage(Projectile proj) {
+		Unit shooter = proj.getShooter();
+		int strength = shooter != null ? this.units.strength[shooter.getSlot()] : proj.getShooterStrength();
+		this.combat.damage(shooter, proj.getTarget(), strength);
+	}
+	
+	/**
+	 * <pre>private void removeProjectile({@link Projectile Projectile} proj)</pre>
+	 * 
+	 * <p> Removes a projectile from this grid right away by moving the last projectile into its place, and
+	 * releases it to the pool. </p>
+	 * 
+	 * @param proj - The projectile
+	 */
+	private void removeProjectile(Projectile proj) {
+		int index = proj.getIndex();
+		Projectile last = this.projectiles[--this.numProjectiles];
+		this.projectiles[index] = last;
+		last.setIndex(index);
+		this.projectiles[this.numProjectiles] = null;
+		this.projectilePool.release(proj);
+	}
+	
+	/**
+	 * <pre>public {@link Projectile Projectile} fireProjectile(int type, float x, float y, {@link Unit Unit} shooter,
+	 * {@link Unit Unit} target, int dir)</pre>
+	 * 
+	 * <p> Takes a projectile from the pool and adds it to this grid. If impacts are scheduled, the projectile's
+	 * impact is scheduled too, as if it was fired at the current time of the clock, so it makes its first move on
+	 * the next update. </p>
+	 * 
+	 * @param type - The kind of projectile
+	 * @param x - The x-coordinate of the projectile
+	 * @param y - The y-coordinate of the projectile
+	 * @param shooter - The unit that shot the projectile
+	 * @param target - The unit that the projectile is shot at
+	 * @param dir - The direction that the projectile moves in
+	 * 
+	 * @return The projectile
+	 */
+	public Projectile fireProjectile(int type, float x, float y, Unit shooter, Unit target, int dir) {
+		Projectile proj = addProjectile(type, x, y, shooter, target, dir);
+		if (this.scheduledImpacts) {
+			this.projectilePool.scheduleImpact(proj, this.sim.getClock().nanoTime());
+		}
+		return proj;
+	}
+	
+	private Projectile addProjectile(int type, float x, float y, Unit shooter, Unit target, int dir) {
+		if (this.numProjectiles == this.projectiles.length) {
+			Projectile[] newProjectiles = new Projectile[this.projectiles.length * 2];
+			System.arraycopy(this.projectiles, 0, newProjectiles, 0, this.numProjectiles);
+			this.projectiles = newProjectiles;
+		}
+		Projectile proj = this.projectilePool.obtain(type, x, y, shooter, target, dir);
+		proj.setIndex(this.numProjectiles);
+		this.projectiles[this.numProjectiles++] = proj;
+		return proj;
+	}
+	
+	public int getProjectileCount() {
+		return this.numProjectiles;
+	}
+	
+	/**
+	 * <pre>public {@link ProjectilePool ProjectilePool} getProjectilePool()</pre>
+	 * 
+	 * <p> Gets the pool that this grid's projectiles come from, so that its statistics can be read. </p>
+	 * 
+	 * @return The projectile pool
+	 */
+	public ProjectilePool getProjectilePool() {
+		return this.projectilePool;
+	}
+	
+	/**
+	 * <pre>long hashState(long hash)</pre>
+	 * 
+	 * <p> Adds the state of this grid to a state hash (see {@link Simulation#computeStateHash()
+	 * computeStateHash()}): every occupied square with its unit's attributes, in column order, and every
+	 * projectile's position and target, in the order they were fired. </p>
+	 * 
+	 * @param hash - The hash so far
+	 * 
+	 * @return The new hash
+	 */
+	long hashState(long hash) {
+		UnitStore s = this.units;
+		for (int column = this.occupied.nextColumn(0); column >= 0; column = this.occupied.nextColumn(column + 1)) {
+			for (int row = this.occupied.next(column, 0); row >= 0; row = this.occupied.next(column, row + 1)) {
+				Entity e = entityAt(row, column);
+				hash = Simulation.mix(hash, row * getNumColumns() + column);
+				if (e instanceof Unit) {
+					int slot = ((Unit) e).getSlot();
+					hash = Simulation.mix(hash, ((Unit) e).getID());
+					hash = Simulation.mix(hash, s.health[slot]);
+					hash = Simulation.mix(hash, s.baseHealth[slot]);
+					hash = Simulation.mix(hash, s.strength[slot]);
+					hash = Simulation.mix(hash, s.xp[slot]);
+					hash = Simulation.mix(hash, s.level[slot]);
+					hash = Simulation.mix(hash, s.row[slot] * getNumColumns() + s.column[slot]);
+					hash = Simulation.mix(hash, Float.floatToIntBits(s.x[slot]));
+					hash = Simulation.mix(hash, Float.floatToIntBits(s.y[slot]));
+					hash = Simulation.mix(hash, (s.moving[slot] ? 1 : 0) | (s.canAttack[slot] ? 2 : 0) | (s.dead[slot] ? 4 : 0));
+				}
+			}
+		}
+		
+		hash = Simulation.mix(hash, this.numProjectiles);
+		for (int i = 0; i < this.numProjectiles; i++) {
+			Projectile proj = this.projectiles[i];
+			hash = Simulation.mix(hash, Float.floatToIntBits(proj.getX()));
+			hash = Simulation.mix(hash, Float.floatToIntBits(proj.getY()));
+			hash = Simulation.mix(hash, proj.getTarget().getSlot());
+		}
+		return hash;
+	}
+	
+	/**
+	 * <pre>{@link ByteBuffer ByteBuffer} writeState(long timeNow)</pre>
+	 * 
+	 * <p> Writes the squares and projectiles of this grid for a {@link SaveGame SaveGame}. A unit is written as
+	 * its ID and its slot in the {@link UnitStore UnitStore}, since its attributes are written with the store.
+	 * A projectile refers to its shooter and target the same way, except that a shooter that has left the game
+	 * is written as the ID -1 followed by its strength. The flight of a projectile whose impact is
+	 * scheduled is written with times relative to the current time. </p>
+	 * 
+	 * @param timeNow - The current time (in nanoseconds)
+	 * 
+	 * @return A buffer that holds the written state, ready to be written to a channel
+	 */
+	ByteBuffer writeState(long timeNow) {
+		int numColumns = getNumColumns();
+		int numOccupied = this.occupied.count();
+		ByteBuffer out = ByteBuffer.allocateDirect(12 + numOccupied * 9 + this.numProjectiles * (29 + 24));
+		out.putInt(this.enemyCount);
+		
+		out.putInt(numOccupied);
+		for (int column = this.occupied.nextColumn(0); column >= 0; column = this.occupied.nextColumn(column + 1)) {
+			for (int row = this.occupied.next(column, 0); row >= 0; row = this.occupied.next(column, row + 1)) {
+				Entity e = entityAt(row, column);
+				out.putInt(row * numColumns + column);
+				if (e instanceof Unit) {
+					out.put((byte) ((Unit) e).getID());
+					out.putInt(((Unit) e).getSlot());
+				} else {
+					out.put((byte) -1);
+					out.putInt(-1);
+				}
+			}
+		}
+		
+		out.putInt(this.numProjectiles);
+		for (int i = 0; i < this.numProjectiles; i++) {
+			Projectile proj = this.projectiles[i];
+			out.put((byte) proj.getType());
+			out.put((byte) proj.getDirection());
+			out.put((byte) ((proj.isActive() ? 1 : 0) | (proj.isImpactScheduled() ? 2 : 0)));
+			out.putFloat(proj.getX());
+			out.putFloat(proj.getY());
+			out.putFloat(proj.getPreviousX());
+			out.putFloat(proj.getPreviousY());
+			if (proj.getShooter() != null) {
+				out.put((byte) proj.getShooter().getID());
+				out.putInt(proj.getShooter().getSlot());
+			} else {
+				// The shooter has left the game, so its strength is written instead of its slot
+				out.put((byte) -1);
+				out.putInt(proj.getShooterStrength());
+			}
+			out.put((byte) proj.getTarget().getID());
+			out.putInt(proj.getTarget().getSlot());
+			if (proj.isImpactScheduled()) {
+				out.putFloat(proj.getLaunchX());
+				out.putFloat(proj.getLaunchY());
+				out.putLong(timeNow - proj.getLaunchTime());
+				out.putLong(proj.getImpactTime() - timeNow);
+			}
+		}
+		
+		out.flip();
+		return out;
+	}
+	
+	/**
+	 * <pre>void readState({@link ByteBuffer ByteBuffer} in, long timeNow)</pre>
+	 * 
+	 * <p> Fills this grid with the squares and projectiles written by {@link #writeState(long) writeState()}. The
+	 * grid must be empty, and its unit store must already have been read. </p>
+	 * 
+	 * @param in - The buffer to read from
+	 * @param timeNow - The current time (in nanoseconds)
+	 */
+	void readState(ByteBuffer in, long timeNow) {
+		int numColumns = getNumColumns();
+		
+		// The units are created once for each ID and slot, so that squares and projectiles share them
+		Unit[][] views = new Unit[UnitTypeRegistry.getNumTypes()][this.units.getCapacity()];
+		this.enemyCount = in.getInt();
+		
+		int numOccupied = in.getInt();
+		for (int n = 0; n < numOccupied; n++) {
+			int square = in.getInt();
+			int id = in.get();
+			int slot = in.getInt();
+			if (id != -1) {
+				setEntity(getUnit(views, id, slot), square / numColumns, square % numColumns);
 			}
 		}
+		
+		int numProjectiles = in.getInt();
+		for (int i = 0; i < numProjectiles; i++) {
+			int type = in.get();
+			int dir = in.get();
+			int flags = in.get();
+			float x = in.getFloat();
+			float y = in.getFloat();
+			float previousX = in.getFloat();
+			float previousY = in.getFloat();
+			int shooterID = in.get();
+			int shooterSlot = in.getInt();
+			Unit shooter = shooterID != -1 ? getUnit(views, shooterID, shooterSlot) : null;
+			Unit target = getUnit(views, in.get(), in.getInt());
+			Projectile proj = addProjectile(type, previousX, previousY, shooter, target, dir);
+			proj.restore(x, y, previousX, previousY, (flags & 1) != 0);
+			if (shooter == null) {
+				proj.detachShooter(shooterSlot);
+			}
+			if ((flags & 2) != 0) {
+				this.projectilePool.restoreImpact(proj, in.getFloat(), in.getFloat(), timeNow - in.getLong(), timeNow + in.getLong());
+			}
+		}
+	}
+	
+	private Unit getUnit(Unit[][] views, int id, int slot) {
+		if (views[id][slot] == null) {
+			views[id][slot] = new Unit(UnitTypeRegistry.get(id), slot, this.sim.getClock(), this.units);
+		}
+		return views[id][slot];
 	}
 	
 	/**
 	 * <pre>public void render({@link Renderer Renderer} renderer, int numOutlined)</pre>
 	 * 
-	 * <p> Renders the entities on this grid. </p>
+	 * <p> Renders the entities on this grid. The background and the outlines of the allowed columns are drawn
+	 * first, from a static layer that is only redrawn when they change (see {@link #updateStaticLayer(Renderer,
+	 * int) updateStaticLayer()}), then the occupied squares are drawn without looking at the empty ones. The textures of the background, entities,
+	 * and projectiles are batched (see {@link Renderer#beginBatch() beginBatch()}). </p>
+	 * 
+	 * <p> If the renderer has a {@link Camera Camera}, only what is in the camera's view is drawn: the outlines
+	 * and squares of the visible rows and columns, skipping the chunks that are empty, and the projectiles that
+	 * are in the view. Units that are moving into a square are drawn from the square next to it, so one square
+	 * around the view is drawn as well. </p>
 	 * 
 	 * @param renderer - The <code>Renderer</code> to draw with
 	 * @param numOutlined - The number of columns outlined (from the origin)
 	 */
 	public void render(Renderer renderer, int numOutlined) {
-		renderer.drawTexture(this.background, 0, 0, SQUARE_SIZE * this.squares[0].length, SQUARE_SIZE * this.squares.length);
-		Texture currentUpgradeTexture = this.upgradeEffect.update();
-		
-		int y = 0;
-		for (Square[] row : squares) {
-			int x = 0;
-			int col = -(this.squares[0].length / 2);
-			for (Square square : row) {
-				if (col == 0) col++;
-				if (y > 0 && Math.abs(col) <= numOutlined) {
-					renderer.setColor(new Color(245, 245, 245));
-					renderer.drawRect(x, y, SQUARE_SIZE, SQUARE_SIZE);
+		int numRows = getNumRows();
+		int numColumns = getNumColumns();
+		
+		// Find the squares in the view
+		Camera camera = renderer.getCamera();
+		int firstRow = 0;
+		int lastRow = numRows - 1;
+		int firstColumn = 0;
+		int lastColumn = numColumns - 1;
+		if (camera != null) {
+			firstRow = Math.max((int) Math.floor(camera.getY() / SQUARE_SIZE) - 1, 0);
+			lastRow = Math.min((int) Math.floor((camera.getY() + camera.getViewHeight()) / SQUARE_SIZE) + 1, numRows - 1);
+			firstColumn = Math.max((int) Math.floor(camera.getX() / SQUARE_SIZE) - 1, 0);
+			lastColumn = Math.min((int) Math.floor((camera.getX() + camera.getViewWidth()) / SQUARE_SIZE) + 1, numColumns - 1);
+		}
+		
+		boolean cached = updateStaticLayer(renderer, numOutlined);
+		
+		renderer.beginBatch();
+		if (cached) {
+			renderer.drawTexture(this.staticLayer.getTexture(), 0, 0, this.staticLayer.getWidth(), this.staticLayer.getHeight());
+		} else {
+			renderStaticLayer(renderer, numOutlined, firstRow, lastRow, firstColumn, lastColumn);
+		}
+		Texture currentUpgradeTexture = this.upgradeEffect.update(renderer.getClock().nanoTime());
+		
+		for (int column = this.occupied.nextColumn(firstColumn); column >= 0 && column <= lastColumn; column = this.occupied.nextColumn(column + 1)) {
+			for (int row = this.occupied.next(column, firstRow); row >= 0 && row <= lastRow; row = this.occupied.next(column, row + 1)) {
+				Entity e = entityAt(row, column);
+				e.render(renderer);
+				if (e instanceof Unit && ((Unit) e).hasLeveledUp()) {
+					renderer.drawTexture(currentUpgradeTexture, column * SQUARE_SIZE, row * SQUARE_SIZE, SQUARE_SIZE, SQUARE_SIZE);
 				}
-				if (square.entity != null) {
-					square.entity.render(renderer);
-					if (square.entity instanceof Unit && ((Unit) square.entity).hasLeveledUp()) {
-						renderer.drawTexture(currentUpgradeTexture, x, y, SQUARE_SIZE, SQUARE_SIZE);
-					}
+			}
+		}
+		
+		double interpolation = renderer.getInterpolation();
+		for (int i = 0; i < this.numProjectiles; i++) {
+			Projectile proj = this.projectiles[i];
+			// A projectile whose impact is scheduled isn't moved, so it is drawn where its flight has taken it
+			float renderX;
+			float renderY;
+			if (proj.isImpactScheduled()) {
+				renderX = proj.getFlightRenderX(this.updateTime, TICK_LENGTH, interpolation);
+				renderY = proj.getFlightRenderY(this.updateTime, TICK_LENGTH, interpolation);
+			} else {
+				renderX = proj.getRenderX(interpolation);
+				renderY = proj.getRenderY(interpolation);
+			}
+			if (camera == null || camera.isVisible(renderX, renderY, proj.getWidth(), proj.getHeight())) {
+				proj.render(renderer, renderX, renderY);
+			}
+		}
+		renderer.endBatch();
+	}
+	
+	/**
+	 * <pre>private void renderStaticLayer({@link Renderer Renderer} renderer, int numOutlined, int firstRow, int
+	 * lastRow, int firstColumn, int lastColumn)</pre>
+	 * 
+	 * <p> Draws the background, and outlines the allowed columns (the columns within <code>numOutlined</code> of
+	 * the middle, skipping the first row) in the given rows and columns. </p>
+	 * 
+	 * @param renderer - The <code>Renderer</code> to draw with
+	 * @param numOutlined - The number of columns outlined (from the origin)
+	 * @param firstRow - The first row to outline
+	 * @param lastRow - The last row to outline (inclusive)
+	 * @param firstColumn - The first column to outline
+	 * @param lastColumn - The last column to outline (inclusive)
+	 */
+	private void renderStaticLayer(Renderer renderer, int numOutlined, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+		renderer.drawTexture(this.background, 0, 0, SQUARE_SIZE * this.numColumns, SQUARE_SIZE * this.numRows);
+		
+		if (numOutlined > 0) {
+			int firstOutlined = Math.max(this.numColumns / 2 - numOutlined, firstColumn);
+			int lastOutlined = Math.min(this.numColumns / 2 + numOutlined - 1, lastColumn);
+			renderer.setColor(OUTLINE_COLOR);
+			for (int row = Math.max(firstRow, 1); row <= lastRow; row++) {
+				for (int column = firstOutlined; column <= lastOutlined; column++) {
+					renderer.drawRect(column * SQUARE_SIZE, row * SQUARE_SIZE, SQUARE_SIZE, SQUARE_SIZE);
 				}
-				x += SQUARE_SIZE;
-				col++;
 			}
-			y += SQUARE_SIZE;
+		}
+	}
+	
+	/**
+	 * <pre>private boolean updateStaticLayer({@link Renderer Renderer} renderer, int numOutlined)</pre>
+	 * 
+	 * <p> Makes sure the static layer holds the background and the outlines of the allowed columns, and is sharp
+	 * at the scale the grid is drawn at. The layer is only redrawn when the number of outlined columns changes,
+	 * or when the window is resized or the camera zoomed, which changes the scale. If the whole grid at that
+	 * scale doesn't fit in a texture, or render targets aren't supported, nothing is drawn and the static layer
+	 * must be drawn directly. </p>
+	 * 
+	 * @param renderer - The <code>Renderer</code> to draw with
+	 * @param numOutlined - The number of columns outlined (from the origin)
+	 * 
+	 * @return Whether the static layer is up to date and can be drawn
+	 */
+	private boolean updateStaticLayer(Renderer renderer, int numOutlined) {
+		if (this.staticLayerUnsupported) {
+			return false;
+		}
+		
+		float width = SQUARE_SIZE * this.numColumns;
+		float height = SQUARE_SIZE * this.numRows;
+		float scale = renderer.getScale();
+		if (Math.max(width, height) * scale > RenderTarget.getMaxSize()) {
+			return false;
+		}
+		
+		if (this.staticLayer == null || this.staticLayer.getScale() != scale) {
+			if (this.staticLayer != null) {
+				this.staticLayer.delete();
+				this.staticLayer = null;
+			}
+			try {
+				this.staticLayer = new RenderTarget("Grid Static Layer", width, height, scale);
+			} catch (IllegalStateException e) {
+				Log.logError("Error creating the grid's static layer", e);
+				this.staticLayerUnsupported = true;
+				return false;
+			}
+			this.staticLayerOutlined = -1;
 		}
 		
-		for (Projectile proj : projectiles) {
-			proj.render(renderer);
+		if (numOutlined != this.staticLayerOutlined) {
+			renderer.setTarget(this.staticLayer);
+			this.staticLayer.clear();
+			renderStaticLayer(renderer, numOutlined, 0, this.numRows - 1, 0, this.numColumns - 1);
+			renderer.setTarget(null);
+			this.staticLayerOutlined = numOutlined;
 		}
+		return true;
 	}
 	
+	/**
+	 * <pre>public void destroy()</pre>
+	 * 
+	 * <p> Frees the static layer's render target. </p>
+	 */
 	public void destroy() {
-		this.background.delete();
-		this.shooterSpriteSheet.asTexture().delete();
-		this.enemySpriteSheet.asTexture().delete();
-		this.projectilesTexture.delete();
-		this.effectsSpriteSheet.asTexture().delete();
+		if (this.staticLayer != null) {
+			this.staticLayer.delete();
+			this.staticLayer = null;
+		}
+	}
+	
+	/**
+	 * <pre>private class Strip extends RecursiveAction</pre>
+	 * 
+	 * <p> A range of columns of this grid that is updated as one task, together with the effects of the update
+	 * that reach outside of the strip. </p>
+	 */
+	private class Strip extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		static final int REMOVE_INACTIVE = 0;
+		static final int PLAN_MOVES = 1;
+		static final int ATTACK = 2;
+		
+		/**
+		 * The first column of this strip.
+		 */
+		final int firstColumn;
+		/**
+		 * The column after the last column of this strip.
+		 */
+		final int endColumn;
+		
+		int phase;
+		double delta;
+		
+		int buildingDamage;
+		int enemyCount;
+		
+		/**
+		 * The slots of the units that were removed from the game, in the order they were removed.
+		 */
+		int[] releasedSlots = new int[16];
+		int numReleased;
+		
+		/**
+		 * The shooters that fired and the enemies they fired at, in the order they fired.
+		 */
+		Unit[] firedBy = new Unit[16];
+		Unit[] firedAt = new Unit[16];
+		int numFired;
+		
+		/**
+		 * The slots of the units that attacked, whose cooldowns are started after the strips finish.
+		 */
+		int[] attackedSlots = new int[16];
+		int numAttacked;
+		
+		/**
+		 * The moves that the units of this strip want to make. Each move is the index of the target square
+		 * (<code>row * numColumns + column</code>) in the upper 32 bits and the move's priority in the lower 32
+		 * bits, which also gives the square the unit is moving from (see {@link Grid#resolveMoves() resolveMoves()}).
+		 */
+		long[] moves = new long[16];
+		int numMoves;
+		
+		/**
+		 * The damage done by the units of this strip, which is resolved after the strips finish.
+		 */
+		final CombatQueue combat = new CombatQueue();
+		
+		/**
+		 * The squares whose entities are removed after the strips finish, as <code>row * numColumns + column</code>.
+		 */
+		int[] removedSquares = new int[16];
+		int numRemoved;
+		
+		Strip(int firstColumn, int endColumn) {
+			this.firstColumn = firstColumn;
+			this.endColumn = endColumn;
+		}
+		
+		void reset(int phase, double delta) {
+			reinitialize();
+			this.phase = phase;
+			this.delta = delta;
+			this.buildingDamage = 0;
+			this.enemyCount = 0;
+			this.numReleased = 0;
+			this.numFired = 0;
+			this.numAttacked = 0;
+			this.numMoves = 0;
+			this.numRemoved = 0;
+		}
+		
+		void despawn(Entity e) {
+			if (e instanceof Unit) {
+				if (this.numReleased == this.releasedSlots.length) {
+					int[] newSlots = new int[this.releasedSlots.length * 2];
+					System.arraycopy(this.releasedSlots, 0, newSlots, 0, this.numReleased);
+					this.releasedSlots = newSlots;
+				}
+				this.releasedSlots[this.numReleased++] = ((Unit) e).getSlot();
+			}
+		}
+		
+		void fire(Unit shooter, Unit target) {
+			if (this.numFired == this.firedBy.length) {
+				Unit[] newFiredBy = new Unit[this.firedBy.length * 2];
+				Unit[] newFiredAt = new Unit[this.firedAt.length * 2];
+				System.arraycopy(this.firedBy, 0, newFiredBy, 0, this.numFired);
+				System.arraycopy(this.firedAt, 0, newFiredAt, 0, this.numFired);
+				this.firedBy = newFiredBy;
+				this.firedAt = newFiredAt;
+			}
+			this.firedBy[this.numFired] = shooter;
+			this.firedAt[this.numFired] = target;
+			this.numFired++;
+		}
+		
+		void startCooldown(Unit unit) {
+			if (this.numAttacked == this.attackedSlots.length) {
+				int[] newSlots = new int[this.attackedSlots.length * 2];
+				System.arraycopy(this.attackedSlots, 0, newSlots, 0, this.numAttacked);
+				this.attackedSlots = newSlots;
+			}
+			this.attackedSlots[this.numAttacked++] = unit.getSlot();
+		}
+		
+		void move(int fromRow, int fromColumn, int toRow, int toColumn) {
+			int numRows = getNumRows();
+			int numColumns = getNumColumns();
+			if (this.numMoves == this.moves.length) {
+				long[] newMoves = new long[this.moves.length * 2];
+				System.arraycopy(this.moves, 0, newMoves, 0, this.numMoves);
+				this.moves = newMoves;
+			}
+			
+			// Squares outside of the grid are given an index past the last square, so the move is never granted
+			long target = (toRow >= 0 && toRow < numRows && toColumn >= 0 && toColumn < numColumns)
+					? toRow * numColumns + toColumn : numRows * numColumns;
+			int priority = (numRows - 1 - fromRow) * numColumns + fromColumn;
+			this.moves[this.numMoves++] = (target << 32) | priority;
+		}
+		
+		void remove(int row, int column) {
+			if (this.numRemoved == this.removedSquares.length) {
+				int[] newSquares = new int[this.removedSquares.length * 2];
+				System.arraycopy(this.removedSquares, 0, newSquares, 0, this.numRemoved);
+				this.removedSquares = newSquares;
+			}
+			this.removedSquares[this.numRemoved++] = row * getNumColumns() + column;
+		}
+		
+		protected void compute() {
+			if (this.phase == REMOVE_INACTIVE) {
+				removeInactive(this);
+			} else if (this.phase == PLAN_MOVES) {
+				planMoves(this);
+			} else {
+				attack(this);
+			}
+		}
 	}
 }
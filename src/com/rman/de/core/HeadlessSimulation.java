@@ -0,0 +1,170 @@
+package com.rman.de.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.rman.engine.Log;
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class HeadlessSimulation</pre>
+ *
+ * <p> Plays every wave of the wave info file without a window, as fast as possible. The {@link Simulation Simulation}
+ * is updated with a {@link TickClock TickClock} at {@link DefenseEvolution#TICK_RATE TICK_RATE} ticks per second,
+ * so the waves play out the same way they would in the game. This is used to measure how fast the simulation
+ * runs and to check changes to it. </p>
+ *
+ * <p> The arguments are the squares to place shooters on, each given as <code>row,column</code>. Before each wave,
+ * a shooter is bought for every one of these squares that is empty and allowed, if the player has enough gold.
+ * The argument <code>--threads=N</code> updates the grid with <code>N</code> threads (see
+ * {@link Grid#setParallelism(int) setParallelism()}), <code>--seed=N</code> sets the simulation's seed (which is
+ * random otherwise), and <code>--record=FILE</code> records the run to a {@link Replay Replay} file. </p>
+ *
+ * <p> <code>--load=FILE</code> starts the run from a {@link SaveGame saved game} instead of a new game,
+ * <code>--waves=N</code> stops the run after <code>N</code> waves, and <code>--save=FILE</code> saves the game
+ * at the end of the run. Together, they can make a saved game from late in a game to start benchmarks from. </p>
+ *
+ * <p> <code>--endless</code> turns on {@link Simulation#setEndless(boolean) endless mode}, so the run goes on
+ * after the last wave of the wave info file until the building is destroyed or <code>--waves=N</code> waves have
+ * been played. This makes soak runs with the unit counts of very late waves. </p>
+ *
+ * <p> <code>--scheduled-impacts</code> schedules the impacts of projectiles when they are fired (see
+ * {@link Grid#setScheduledImpacts(boolean) setScheduledImpacts()}), so no projectile is moved during the run. </p>
+ *
+ * @author Arman
+ */
+public class HeadlessSimulation {
+
+	/**
+	 * The maximum number of ticks a single wave may take before the run is stopped.
+	 */
+	private static final long MAX_TICKS_PER_WAVE = 60L * 60L * DefenseEvolution.TICK_RATE;
+
+	public static void main(String[] args) throws IOException {
+		List<int[]> placements = new ArrayList<int[]>();
+		int threads = 1;
+		long seed = new Random().nextLong();
+		File recordFile = null;
+		File loadFile = null;
+		File saveFile = null;
+		int maxWaves = Integer.MAX_VALUE;
+		boolean endless = false;
+		boolean scheduledImpacts = false;
+		for (String arg : args) {
+			if (arg.startsWith("--threads=")) {
+				threads = Integer.parseInt(arg.substring("--threads=".length()));
+				continue;
+			} else if (arg.startsWith("--seed=")) {
+				seed = Long.parseLong(arg.substring("--seed=".length()));
+				continue;
+			} else if (arg.startsWith("--record=")) {
+				recordFile = new File(arg.substring("--record=".length()));
+				continue;
+			} else if (arg.startsWith("--load=")) {
+				loadFile = new File(arg.substring("--load=".length()));
+				continue;
+			} else if (arg.startsWith("--save=")) {
+				saveFile = new File(arg.substring("--save=".length()));
+				continue;
+			} else if (arg.startsWith("--waves=")) {
+				maxWaves = Integer.parseInt(arg.substring("--waves=".length()));
+				continue;
+			} else if (arg.equals("--endless")) {
+				endless = true;
+				continue;
+			} else if (arg.equals("--scheduled-impacts")) {
+				scheduledImpacts = true;
+				continue;
+			}
+			String[] pos = arg.split(",");
+			placements.add(new int[] {Integer.parseInt(pos[0].trim()), Integer.parseInt(pos[1].trim())});
+		}
+
+		TickClock clock = new TickClock();
+		long tickLength = 1000000000L / DefenseEvolution.TICK_RATE;
+
+		URL waveFile = HeadlessSimulation.class.getResource("res/waveinfo.de");
+		Simulation sim;
+		if (loadFile != null) {
+			long loadStartTime = System.nanoTime();
+			sim = SaveGame.load(loadFile, clock, waveFile);
+			seed = sim.getSeed();
+			Log.log(String.format("Loaded %s (wave %d, %d units) in %.3f ms", loadFile, sim.getWave(),
+					sim.getGrid().getUnitStore().getNumUnits(), (System.nanoTime() - loadStartTime) / 1000000.0));
+		} else {
+			sim = new Simulation(clock, DefenseEvolution.WINDOW_WIDTH - DefenseEvolution.INFO_PANE_WIDTH,
+					DefenseEvolution.WINDOW_HEIGHT - DefenseEvolution.INFO_PANE_HEIGHT, seed);
+			sim.loadWaves(waveFile);
+		}
+		sim.getGrid().setParallelism(threads);
+		if (recordFile != null) {
+			sim.startRecording(recordFile);
+		}
+		if (endless) {
+			sim.setEndless(true);
+		}
+		if (scheduledImpacts) {
+			sim.setScheduledImpacts(true);
+		}
+		Log.log("Seed: " + seed);
+
+		long totalTicks = 0L;
+		long startTime = System.nanoTime();
+		CombatQueue combat = sim.getGrid().getCombatQueue();
+		long[] combatTotals = new long[CombatQueue.NUM_TYPES];
+		int maxCombatEvents = 0;
+
+		int numWaves = 0;
+		while (!sim.isGameOver() && (sim.isEndless() || sim.getWave() < sim.getNumWaves()) && numWaves++ < maxWaves) {
+			for (int[] pos : placements) {
+				sim.placeUnit(UnitType.SHOOTER, pos[0], pos[1]);
+			}
+
+			sim.startWave();
+			long ticks = 0L;
+			while (sim.isWaveInProgress() && !sim.isGameOver() && ticks < MAX_TICKS_PER_WAVE) {
+				clock.advance(tickLength);
+				sim.update(1.0);
+				ticks++;
+
+				int combatEvents = 0;
+				for (int type = 0; type < CombatQueue.NUM_TYPES; type++) {
+					combatTotals[type] += combat.getCount(type);
+					combatEvents += combat.getCount(type);
+				}
+				maxCombatEvents = Math.max(maxCombatEvents, combatEvents);
+			}
+			totalTicks += ticks;
+
+			Log.log(String.format("Wave %d: %d ticks, gold: %d, building health: %d", sim.getWave(), ticks, sim.getGold(), sim.getBuildingHealth()));
+			if (ticks == MAX_TICKS_PER_WAVE) {
+				Log.logError("Wave " + sim.getWave() + " did not end after " + ticks + " ticks");
+				break;
+			}
+		}
+
+		sim.stopRecording();
+		if (saveFile != null) {
+			SaveGame.save(sim, saveFile);
+			Log.log("Saved the game to " + saveFile);
+		}
+		
+		double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+		Log.log(String.format("Finished %d waves (%s): %d ticks in %.3f s (%.0f ticks/s)", sim.getWave(),
+				sim.isGameOver() ? "game over" : "survived", totalTicks, seconds, totalTicks / seconds));
+
+		ProjectilePool pool = sim.getGrid().getProjectilePool();
+		Log.log(String.format("Projectile pool: %d in use, high-water mark: %d, misses: %d", pool.getInUse(),
+				pool.getHighWaterMark(), pool.getMisses()));
+		Log.log(String.format("Grid: %d of %d chunks allocated for %d entities", sim.getGrid().getNumChunks(),
+				sim.getGrid().getChunkCapacity(), sim.getGrid().getEntityCount()));
+		Log.log(String.format("Combat: %d damage, %d kills, %d XP, %d gold events, at most %d events per tick",
+				combatTotals[CombatQueue.DAMAGE], combatTotals[CombatQueue.KILL], combatTotals[CombatQueue.XP],
+				combatTotals[CombatQueue.GOLD], maxCombatEvents));
+		Log.log(String.format("Final state hash: %016x", sim.computeStateHash()));
+	}
+}
@@ -9,42 +9,402 @@ public class Projectile extends Entity {
 	
 	public static final int ARROW = 0;
 	
-	private static Texture[] textures;
+	/**
+	 * The size {width, height} of each kind of projectile (in pixels).
+	 */
+	private static final int[][] SIZES = new int[][] {
+		{4, 21}
+	};
+	
+	private static Texture[] textures = new Texture[NUM_KINDS];
 	
 	public static void loadTextures(Texture texture) {
 		textures = new Texture[NUM_KINDS];
 		
-		textures[ARROW] = texture.getSubTexture(14, 5, 4, 21);
+		textures[ARROW] = texture.getSubTexture(14, 5, SIZES[ARROW][0], SIZES[ARROW][1]);
 	}
 	
 	private Unit shooter;
 	private Unit target;
 	private boolean hasHit = false;
+	/**
+	 * The strength that this projectile hits with if its shooter has left the game (see
+	 * {@link #detachShooter(int) detachShooter()}).
+	 */
+	private int shooterStrength;
 	
 	private int direction;
 	private int type;
 	
 	private int speed = 30;
 	
+	/**
+	 * The position of this projectile at <code>launchTime</code>, when its impact is scheduled.
+	 */
+	private float launchX;
+	private float launchY;
+	private long launchTime;
+	/**
+	 * The time that this projectile hits its target, or -1 if its impact isn't scheduled and it is moved every
+	 * tick instead. See {@link #scheduleImpact(long, long) scheduleImpact()}.
+	 */
+	private long impactTime = -1L;
+	/**
+	 * The handle of this projectile's impact on the wheel of its {@link ProjectilePool ProjectilePool}, or -1 if
+	 * it isn't on the wheel.
+	 */
+	private int impactTimer = -1;
+	/**
+	 * This projectile's slot in the pool that constructed it, or -1 if it wasn't constructed by a pool.
+	 */
+	private int poolSlot = -1;
+	/**
+	 * This projectile's position in the list of projectiles of the {@link Grid Grid} it was fired on.
+	 */
+	private int index;
+	
 	public Projectile(int type, Unit shooter, Unit target, int dir) {
 		this(type, shooter.getX(), shooter.getY(), shooter, target, dir);
 	}
 	
 	public Projectile(int type, float x, float y, Unit shooter, Unit target, int dir) {
-		super("Entity 'Projectile'", textures[type], x, y);
+		super("Entity 'Projectile'", textures[type], x, y, SIZES[type][0], SIZES[type][1]);
+		this.shooter = shooter;
+		this.target = target;
+		this.direction = dir;
+		this.type = type;
+	}
+	
+	/**
+	 * <pre>public void reset(int type, float x, float y, {@link Unit Unit} shooter, {@link Unit Unit} target, int dir)</pre>
+	 * 
+	 * <p> Reinitializes this projectile as if it had just been constructed with the given arguments. This is used
+	 * by the {@link ProjectilePool ProjectilePool} to reuse projectiles that have hit their targets. </p>
+	 * 
+	 * @param type - The kind of projectile
+	 * @param x - The x-coordinate of the projectile
+	 * @param y - The y-coordinate of the projectile
+	 * @param shooter - The unit that shot the projectile
+	 * @param target - The unit that the projectile is shot at
+	 * @param dir - The direction that the projectile moves in
+	 */
+	public void reset(int type, float x, float y, Unit shooter, Unit target, int dir) {
+		setTexture(textures[type]);
+		this.x = x;
+		this.y = y;
+		this.previousX = x;
+		this.previousY = y;
+		this.width = SIZES[type][0];
+		this.height = SIZES[type][1];
+		this.rot = 0.0f;
+		setActive(true);
+		
 		this.shooter = shooter;
 		this.target = target;
+		this.hasHit = false;
+		this.shooterStrength = 0;
 		this.direction = dir;
 		this.type = type;
+		this.impactTime = -1L;
 	}
 	
+	/**
+	 * <pre>public void clear()</pre>
+	 * 
+	 * <p> Drops this projectile's references to its shooter and target, so that a pooled projectile doesn't keep
+	 * units from being garbage collected. </p>
+	 */
+	public void clear() {
+		this.shooter = null;
+		this.target = null;
+	}
+	
+	/**
+	 * <pre>public {@link Unit Unit} getShooter()</pre>
+	 * 
+	 * <p> Gets the unit that shot this projectile. </p>
+	 * 
+	 * @return The shooter, or null if it has left the game
+	 */
 	public Unit getShooter() {
 		return this.shooter;
 	}
 	
+	public int getShooterStrength() {
+		return this.shooterStrength;
+	}
+	
+	/**
+	 * <pre>void detachShooter(int strength)</pre>
+	 * 
+	 * <p> Drops this projectile's shooter when the shooter leaves the game, before its slot can be given to
+	 * another unit. The projectile keeps flying and hits with the strength the shooter had. </p>
+	 * 
+	 * @param strength - The shooter's strength when it left
+	 */
+	void detachShooter(int strength) {
+		this.shooter = null;
+		this.shooterStrength = strength;
+	}
+	
+	/**
+	 * <pre>void cancel()</pre>
+	 * 
+	 * <p> Stops this projectile without hitting anything. This is used when its target leaves the game, before
+	 * the target's slot can be given to another unit. </p>
+	 */
+	void cancel() {
+		this.hasHit = false;
+		setActive(false);
+	}
+	
 	public Unit getTarget() {
 		return this.target;
 	}
+	
+	public int getType() {
+		return this.type;
+	}
+	
+	public int getDirection() {
+		return this.direction;
+	}
+	
+	public float getPreviousX() {
+		return this.previousX;
+	}
+	
+	public float getPreviousY() {
+		return this.previousY;
+	}
+	
+	public float getLaunchX() {
+		return this.launchX;
+	}
+	
+	public float getLaunchY() {
+		return this.launchY;
+	}
+	
+	public long getLaunchTime() {
+		return this.launchTime;
+	}
+	
+	public long getImpactTime() {
+		return this.impactTime;
+	}
+	
+	public boolean isImpactScheduled() {
+		return this.impactTime != -1L;
+	}
+	
+	int getImpactTimer() {
+		return this.impactTimer;
+	}
+	
+	void setImpactTimer(int impactTimer) {
+		this.impactTimer = impactTimer;
+	}
+	
+	int getPoolSlot() {
+		return this.poolSlot;
+	}
+	
+	void setPoolSlot(int poolSlot) {
+		this.poolSlot = poolSlot;
+	}
+	
+	int getIndex() {
+		return this.index;
+	}
+	
+	void setIndex(int index) {
+		this.index = index;
+	}
+	
+	/**
+	 * <pre>void restore(float x, float y, float previousX, float previousY, boolean active)</pre>
+	 * 
+	 * <p> Moves this projectile to a position it had in a saved game. </p>
+	 * 
+	 * @param x - The x-coordinate of the projectile
+	 * @param y - The y-coordinate of the projectile
+	 * @param previousX - The x-coordinate of the projectile at the end of the previous tick
+	 * @param previousY - The y-coordinate of the projectile at the end of the previous tick
+	 * @param active - Whether the projectile hasn't hit its target yet
+	 */
+	void restore(float x, float y, float previousX, float previousY, boolean active) {
+		this.x = x;
+		this.y = y;
+		this.previousX = previousX;
+		this.previousY = previousY;
+		setActive(active);
+	}
+	
+	/**
+	 * <pre>void restoreImpact(float launchX, float launchY, long launchTime, long impactTime)</pre>
+	 * 
+	 * <p> Schedules this projectile's impact the way it was scheduled in a saved game. </p>
+	 * 
+	 * @param launchX - The x-coordinate of the projectile at the launch time
+	 * @param launchY - The y-coordinate of the projectile at the launch time
+	 * @param launchTime - The time that the flight is measured from (in nanoseconds)
+	 * @param impactTime - The time that the projectile hits its target (in nanoseconds)
+	 */
+	void restoreImpact(float launchX, float launchY, long launchTime, long impactTime) {
+		this.launchX = launchX;
+		this.launchY = launchY;
+		this.launchTime = launchTime;
+		this.impactTime = impactTime;
+	}
+	
+	/**
+	 * <pre>void scheduleImpact(long time, long tickLength)</pre>
+	 * 
+	 * <p> Computes when this projectile hits its target if it flies in a straight line from where it is at the given
+	 * time, so that it doesn't have to be moved every tick. The {@link ProjectilePool ProjectilePool} puts the
+	 * impact on its wheel (see {@link ProjectilePool#scheduleImpact(Projectile, long) scheduleImpact()}), and
+	 * the projectile isn't looked at again until {@link #impact() impact()} is called on that tick. The
+	 * target is assumed to keep moving at its speed until it reaches the square it is moving to, and then to
+	 * stand still. The projectile hits on the first tick after the given time at which it would have touched the
+	 * target if it had been moved every tick. </p>
+	 * 
+	 * @param time - The time at which the projectile is at its current position (in nanoseconds)
+	 * @param tickLength - The length of a tick (in nanoseconds)
+	 */
+	void scheduleImpact(long time, long tickLength) {
+		this.launchX = this.x;
+		this.launchY = this.y;
+		this.launchTime = time;
+		this.impactTime = time + getTicksToImpact() * tickLength;
+	}
+	
+	/**
+	 * <pre>private long getTicksToImpact()</pre>
+	 * 
+	 * <p> Gets the number of ticks until this projectile touches its target, from its current position. </p>
+	 * 
+	 * @return The number of ticks, which is at least 1
+	 */
+	private long getTicksToImpact() {
+		// The gap between this projectile and the side of the target it hits, and how far the target moves
+		// towards this projectile before it reaches the square it is moving to
+		Unit t = this.target;
+		double gap;
+		double closing;
+		if (this.direction == Unit.UP) {
+			gap = this.y - (t.getY() + t.getHeight());
+			closing = t.getRow() * Grid.SQUARE_SIZE - t.getY();
+		} else if (this.direction == Unit.DOWN) {
+			gap = t.getY() - (this.y + this.height);
+			closing = t.getY() - t.getRow() * Grid.SQUARE_SIZE;
+		} else if (this.direction == Unit.LEFT) {
+			gap = this.x - (t.getX() + t.getWidth());
+			closing = t.getColumn() * Grid.SQUARE_SIZE - t.getX();
+		} else {
+			gap = t.getX() - (this.x + this.width);
+			closing = t.getX() - t.getColumn() * Grid.SQUARE_SIZE;
+		}
+		if (!t.isMoving()) {
+			closing = 0.0;
+		}
+		
+		// While the target is still moving, the gap closes from both sides
+		double targetSpeed = t.getSpeed();
+		if (closing > 0.0 && targetSpeed > 0.0) {
+			long ticks = (long) Math.ceil(gap / (this.speed + targetSpeed));
+			if (ticks * targetSpeed <= closing) {
+				return Math.max(ticks, 1L);
+			}
+		}
+		return Math.max((long) Math.ceil((gap - closing) / this.speed), 1L);
+	}
+	
+	/**
+	 * <pre>void impact()</pre>
+	 * 
+	 * <p> Makes a projectile whose impact is scheduled hit its target, when its impact time has come. The grid
+	 * adds the damage of the projectile to its {@link CombatQueue CombatQueue}. </p>
+	 */
+	void impact() {
+		this.hasHit = true;
+		setActive(false);
+	}
+	
+	/**
+	 * <pre>private double getFlightTicks(long time, long tickLength)</pre>
+	 * 
+	 * <p> Gets the number of ticks that a projectile whose impact is scheduled has flown at the given time. It
+	 * doesn't fly past the point of impact. </p>
+	 * 
+	 * @param time - The time of the last update (in nanoseconds)
+	 * @param tickLength - The length of a tick (in nanoseconds)
+	 * 
+	 * @return The number of ticks since the launch
+	 */
+	private double getFlightTicks(long time, long tickLength) {
+		return (double) (Math.min(time, this.impactTime) - this.launchTime) / tickLength;
+	}
+	
+	/**
+	 * <pre>public float getFlightRenderX(long time, long tickLength, double interpolation)</pre>
+	 * 
+	 * <p> Gets the x-coordinate a projectile whose impact is scheduled should be drawn at, between where it was one
+	 * tick before the given time and where it is at that time. The projectile itself isn't moved, so rendering
+	 * doesn't change the state of the simulation. </p>
+	 * 
+	 * @param time - The time of the last update (in nanoseconds)
+	 * @param tickLength - The length of a tick (in nanoseconds)
+	 * @param interpolation - How far (from 0 to 1) the frame is between the previous tick and the current one
+	 * 
+	 * @return The interpolated x-coordinate
+	 */
+	public float getFlightRenderX(long time, long tickLength, double interpolation) {
+		double dx = this.direction == Unit.LEFT ? -this.speed : this.direction == Unit.RIGHT ? this.speed : 0.0;
+		return (float) (this.launchX + dx * interpolateTicks(getFlightTicks(time, tickLength), interpolation));
+	}
+	
+	/**
+	 * <pre>public float getFlightRenderY(long time, long tickLength, double interpolation)</pre>
+	 * 
+	 * <p> Gets the y-coordinate a projectile whose impact is scheduled should be drawn at (see
+	 * {@link #getFlightRenderX(long, long, double) getFlightRenderX()}). </p>
+	 * 
+	 * @param time - The time of the last update (in nanoseconds)
+	 * @param tickLength - The length of a tick (in nanoseconds)
+	 * @param interpolation - How far (from 0 to 1) the frame is between the previous tick and the current one
+	 * 
+	 * @return The interpolated y-coordinate
+	 */
+	public float getFlightRenderY(long time, long tickLength, double interpolation) {
+		double dy = this.direction == Unit.UP ? -this.speed : this.direction == Unit.DOWN ? this.speed : 0.0;
+		return (float) (this.launchY + dy * interpolateTicks(getFlightTicks(time, tickLength), interpolation));
+	}
+	
+	private static double interpolateTicks(double ticks, double interpolation) {
+		double previousTicks = Math.max(ticks - 1.0, 0.0);
+		return previousTicks + (ticks - previousTicks) * interpolation;
+	}
+	
+	/**
+	 * <pre>void cancelImpact(long time, long tickLength)</pre>
+	 * 
+	 * <p> Moves a projectile whose impact is scheduled to where it is at the given time, and goes back to moving
+	 * it every tick. </p>
+	 * 
+	 * @param time - The time of the last update (in nanoseconds)
+	 * @param tickLength - The length of a tick (in nanoseconds)
+	 */
+	void cancelImpact(long time, long tickLength) {
+		double ticks = getFlightTicks(time, tickLength);
+		double dx = this.direction == Unit.LEFT ? -this.speed : this.direction == Unit.RIGHT ? this.speed : 0.0;
+		double dy = this.direction == Unit.UP ? -this.speed : this.direction == Unit.DOWN ? this.speed : 0.0;
+		this.x = (float) (this.launchX + dx * ticks);
+		this.y = (float) (this.launchY + dy * ticks);
+		this.previousX = (float) (this.launchX + dx * Math.max(ticks - 1.0, 0.0));
+		this.previousY = (float) (this.launchY + dy * Math.max(ticks - 1.0, 0.0));
+		this.impactTime = -1L;
+	}
 
 	public void update(double delta) {
 		if (this.direction == Unit.UP) {
@@ -71,7 +431,6 @@ public class Projectile extends Entity {
 		
 		if (this.hasHit || this.target.isDead()) {
 			setActive(false);
-			this.shooter.attack(this.target);
 		}
 	}
 	
@@ -0,0 +1,270 @@
+package com.rman.de.core;
+
+import java.util.Arrays;
+
+import com.rman.engine.TimerWheel;
+
+/**
+ * <pre>public class ProjectilePool</pre>
+ *
+ * <p> This class keeps {@link Projectile Projectile} objects that have hit their targets so that they can be
+ * reused for new shots instead of being garbage collected. A projectile is taken from the pool with
+ * {@link #obtain(int, float, float, Unit, Unit, int) obtain()} and given back with
+ * {@link #release(Projectile) release()}. A new projectile is only constructed when the pool is empty, which is
+ * counted as a miss. </p>
+ *
+ * <p> Every projectile that a pool constructs is given a slot in the pool, which it keeps for as long as it is
+ * reused. The pool also holds the impacts of projectiles whose impacts are scheduled (see
+ * {@link #scheduleImpact(Projectile, long) scheduleImpact()}) in a {@link TimerWheel TimerWheel} keyed by these
+ * slots, so a flying projectile costs nothing until the tick it hits its target on. </p>
+ *
+ * @author Arman
+ */
+public class ProjectilePool {
+
+	/**
+	 * The default number of projectiles created when a pool is constructed.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final long TICK_LENGTH = 1000000000L / DefenseEvolution.TICK_RATE;
+
+	/**
+	 * The projectiles that are free to be reused. Only the first <code>numFree</code> elements are used.
+	 */
+	private Projectile[] free;
+	/**
+	 * The number of projectiles that are free to be reused.
+	 */
+	private int numFree;
+	/**
+	 * Every projectile that this pool has constructed, by slot. Only the first <code>numCreated</code> elements
+	 * are used.
+	 */
+	private Projectile[] created;
+	private int numCreated;
+
+	/**
+	 * The scheduled impacts of the projectiles that are in use. The value of each timer is the projectile's slot.
+	 */
+	private TimerWheel impacts;
+
+	/**
+	 * The number of projectiles that have been obtained and not released yet.
+	 */
+	private int inUse;
+	/**
+	 * The highest number of projectiles that have been in use at the same time.
+	 */
+	private int highWaterMark;
+	/**
+	 * The number of times a projectile had to be constructed because the pool was empty.
+	 */
+	private int misses;
+
+	/**
+	 * <pre>public ProjectilePool()</pre>
+	 *
+	 * <p> Constructs a pool with the {@link #DEFAULT_CAPACITY default capacity}. </p>
+	 */
+	public ProjectilePool() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * <pre>public ProjectilePool(int capacity)</pre>
+	 *
+	 * <p> Constructs a pool that starts out with the given number of free projectiles. </p>
+	 *
+	 * @param capacity - The number of projectiles to create
+	 */
+	public ProjectilePool(int capacity) {
+		this.free = new Projectile[Math.max(capacity, 1)];
+		this.created = new Projectile[Math.max(capacity, 1)];
+		for (int i = 0; i < capacity; i++) {
+			this.free[this.numFree++] = create(Projectile.ARROW, 0.0f, 0.0f, null, null, Unit.UP);
+		}
+		this.impacts = new TimerWheel(TICK_LENGTH, Math.max(capacity, 1));
+	}
+
+	private Projectile create(int type, float x, float y, Unit shooter, Unit target, int dir) {
+		Projectile proj = new Projectile(type, x, y, shooter, target, dir);
+		if (this.numCreated == this.created.length) {
+			this.created = Arrays.copyOf(this.created, this.created.length * 2);
+		}
+		proj.setPoolSlot(this.numCreated);
+		this.created[this.numCreated++] = proj;
+		return proj;
+	}
+
+	/**
+	 * <pre>public {@link Projectile Projectile} obtain(int type, float x, float y, {@link Unit Unit} shooter,
+	 * {@link Unit Unit} target, int dir)</pre>
+	 *
+	 * <p> Takes a projectile from this pool and {@link Projectile#reset(int, float, float, Unit, Unit, int) resets}
+	 * it with the given arguments. If there are no free projectiles, a new one is constructed. </p>
+	 *
+	 * @param type - The kind of projectile
+	 * @param x - The x-coordinate of the projectile
+	 * @param y - The y-coordinate of the projectile
+	 * @param shooter - The unit that shot the projectile
+	 * @param target - The unit that the projectile is shot at
+	 * @param dir - The direction that the projectile moves in
+	 *
+	 * @return The projectile
+	 */
+	public Projectile obtain(int type, float x, float y, Unit shooter, Unit target, int dir) {
+		Projectile proj;
+		if (this.numFree > 0) {
+			proj = this.free[--this.numFree];
+			this.free[this.numFree] = null;
+			proj.reset(type, x, y, shooter, target, dir);
+		} else {
+			proj = create(type, x, y, shooter, target, dir);
+			this.misses++;
+		}
+
+		this.inUse++;
+		if (this.inUse > this.highWaterMark) {
+			this.highWaterMark = this.inUse;
+		}
+		return proj;
+	}
+
+	/**
+	 * <pre>public void release({@link Projectile Projectile} proj)</pre>
+	 *
+	 * <p> Gives a projectile back to this pool, and cancels its impact if it is scheduled. The projectile must not
+	 * be used after it is released. </p>
+	 *
+	 * @param proj - The projectile
+	 */
+	public void release(Projectile proj) {
+		cancelTimer(proj);
+		proj.clear();
+		if (this.numFree == this.free.length) {
+			Projectile[] newFree = new Projectile[this.free.length * 2];
+			System.arraycopy(this.free, 0, newFree, 0, this.numFree);
+			this.free = newFree;
+		}
+		this.free[this.numFree++] = proj;
+		this.inUse--;
+	}
+
+	/**
+	 * <pre>public int getInUse()</pre>
+	 *
+	 * <p> Gets the number of projectiles that have been obtained and not released yet. </p>
+	 *
+	 * @return The number of projectiles in use
+	 */
+	public int getInUse() {
+		return this.inUse;
+	}
+
+	/**
+	 * <pre>public int getHighWaterMark()</pre>
+	 *
+	 * <p> Gets the highest number of projectiles that have been in use at the same time. A pool constructed with
+	 * at least this capacity would not have missed. </p>
+	 *
+	 * @return The high-water mark
+	 */
+	public int getHighWaterMark() {
+		return this.highWaterMark;
+	}
+
+	/**
+	 * <pre>public int getMisses()</pre>
+	 *
+	 * <p> Gets the number of times a projectile had to be constructed because this pool was empty. Once the game
+	 * is running, this should stay the same; if it keeps going up, firing is allocating. </p>
+	 *
+	 * @return The number of misses
+	 */
+	public int getMisses() {
+		return this.misses;
+	}
+
+	public int getNumFree() {
+		return this.numFree;
+	}
+
+	/**
+	 * <pre>void scheduleImpact({@link Projectile Projectile} proj, long time)</pre>
+	 *
+	 * <p> {@link Projectile#scheduleImpact(long, long) Schedules the impact} of a projectile that was taken from
+	 * this pool, and puts it on the wheel of impacts, so that it is given back by
+	 * {@link #advanceImpacts(long) advanceImpacts()} on the tick it hits its target. </p>
+	 *
+	 * @param proj - The projectile
+	 * @param time - The time at which the projectile is at its current position (in nanoseconds)
+	 */
+	void scheduleImpact(Projectile proj, long time) {
+		proj.scheduleImpact(time, TICK_LENGTH);
+		proj.setImpactTimer(this.impacts.schedule(proj.getImpactTime(), proj.getPoolSlot()));
+	}
+
+	/**
+	 * <pre>void restoreImpact({@link Projectile Projectile} proj, float launchX, float launchY, long launchTime,
+	 * long impactTime)</pre>
+	 *
+	 * <p> Schedules the impact of a projectile the way it was scheduled in a saved game (see
+	 * {@link Projectile#restoreImpact(float, float, long, long) Projectile.restoreImpact()}). </p>
+	 *
+	 * @param proj - The projectile
+	 * @param launchX - The x-coordinate of the projectile at the launch time
+	 * @param launchY - The y-coordinate of the projectile at the launch time
+	 * @param launchTime - The time that the flight is measured from (in nanoseconds)
+	 * @param impactTime - The time that the projectile hits its target (in nanoseconds)
+	 */
+	void restoreImpact(Projectile proj, float launchX, float launchY, long launchTime, long impactTime) {
+		proj.restoreImpact(launchX, launchY, launchTime, impactTime);
+		proj.setImpactTimer(this.impacts.schedule(impactTime, proj.getPoolSlot()));
+	}
+
+	/**
+	 * <pre>void cancelImpact({@link Projectile Projectile} proj, long time)</pre>
+	 *
+	 * <p> Takes a projectile's impact off the wheel and {@link Projectile#cancelImpact(long, long) moves it} to
+	 * where it is at the given time, so that it can be moved every tick again. </p>
+	 *
+	 * @param proj - The projectile
+	 * @param time - The time of the last update (in nanoseconds)
+	 */
+	void cancelImpact(Projectile proj, long time) {
+		cancelTimer(proj);
+		proj.cancelImpact(time, TICK_LENGTH);
+	}
+
+	private void cancelTimer(Projectile proj) {
+		if (proj.getImpactTimer() != -1) {
+			this.impacts.cancel(proj.getImpactTimer());
+			proj.setImpactTimer(-1);
+		}
+	}
+
+	/**
+	 * <pre>int advanceImpacts(long timeNow)</pre>
+	 *
+	 * <p> Advances the wheel of impacts to the given time. The projectiles whose impacts came on the way can be
+	 * read with {@link #getDueImpact(int) getDueImpact()} until the wheel is advanced again. </p>
+	 *
+	 * @param timeNow - The current time (in nanoseconds)
+	 *
+	 * @return The number of projectiles whose impacts came
+	 */
+	int advanceImpacts(long timeNow) {
+		int numDue = this.impacts.advance(timeNow);
+		int[] due = this.impacts.getDue();
+		for (int i = 0; i < numDue; i++) {
+			// The timer is gone, and its handle may be given to another impact
+			this.created[due[i]].setImpactTimer(-1);
+		}
+		return numDue;
+	}
+
+	Projectile getDueImpact(int i) {
+		return this.created[this.impacts.getDue()[i]];
+	}
+}
@@ -0,0 +1,264 @@
+package com.rman.de.core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <pre>public class Replay</pre>
+ *
+ * <p> A recorded game of Defense Evolution. A replay holds everything needed to play the game again exactly: the
+ * seed of the {@link Simulation Simulation}, the checksum of the wave info file, the size of the grid, and the
+ * player's commands. Each command is stamped with the number of updates that happened before
+ * it and the time of the game's clock when it was given. The times of updates are only recorded when they don't
+ * follow the previous update by one tick (for example, after the game was paused), so a replay of a long game is
+ * still small. Replays are written by a {@link ReplayRecorder ReplayRecorder} and played by a
+ * {@link ReplayPlayer ReplayPlayer}. </p>
+ *
+ * <p> A replay file starts with a header: </p>
+ *
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * long   seed
+ * long   wave file checksum
+ * int    grid width (in pixels)
+ * int    grid height (in pixels)
+ * long   tick length (in nanoseconds)
+ * </pre>
+ *
+ * <p> The header is followed by the events. Each event is its type (one byte), the number of updates since the
+ * previous event and the time since the previous event (both as variable-length integers), and the event's
+ * arguments. The last event is {@link #END END}, whose tick is the number of updates in the game. </p>
+ *
+ * @author Arman
+ */
+public class Replay {
+
+	/**
+	 * The first four bytes of a replay file ("DERP").
+	 */
+	public static final int MAGIC = 0x44455250;
+	/**
+	 * The version of the replay format.
+	 */
+	public static final short VERSION = 1;
+
+	// Event types
+	/**
+	 * The end of the replay. It has no arguments.
+	 */
+	public static final int END = 0;
+	/**
+	 * {@link Simulation#startWave() startWave()}. It has no arguments.
+	 */
+	public static final int START_WAVE = 1;
+	/**
+	 * {@link Simulation#placeUnit(int, int, int) placeUnit()}. Its arguments are the unit ID, row, and column.
+	 */
+	public static final int PLACE_UNIT = 2;
+	/**
+	 * {@link Simulation#upgradeUnit(int, int, int) upgradeUnit()}. Its arguments are the row, column, and upgrade.
+	 */
+	public static final int UPGRADE_UNIT = 3;
+	/**
+	 * {@link Simulation#pause() pause()}. It has no arguments.
+	 */
+	public static final int PAUSE = 4;
+	/**
+	 * {@link Simulation#resume() resume()}. It has no arguments.
+	 */
+	public static final int RESUME = 5;
+	/**
+	 * An update that didn't happen one tick after the previous update. The event's time is the time of the update.
+	 * It has no arguments.
+	 */
+	public static final int UPDATE_TIME = 6;
+	/**
+	 * A change of the delta that the simulation is updated with. Its argument is the new delta, which is
+	 * 1.0 at the start of a replay.
+	 */
+	public static final int DELTA = 7;
+	/**
+	 * {@link Simulation#setEndless(boolean) setEndless()}. Its argument is 1 if endless mode was turned on and 0
+	 * if it was turned off.
+	 */
+	public static final int ENDLESS = 8;
+	/**
+	 * {@link Simulation#setScheduledImpacts(boolean) setScheduledImpacts()}. Its argument is 1 if impacts are
+	 * scheduled from then on and 0 if they aren't.
+	 */
+	public static final int SCHEDULED_IMPACTS = 9;
+
+	/**
+	 * The number of arguments each event can have.
+	 */
+	static final int MAX_ARGS = 3;
+
+	long seed;
+	long waveFileHash;
+	int gridWidth;
+	int gridHeight;
+	long tickLength;
+
+	// The events, in the order they happened
+	int numEvents;
+	int[] types;
+	/**
+	 * The number of updates that happened before each event.
+	 */
+	int[] ticks;
+	/**
+	 * The time of each event, measured from the start of the recording (in nanoseconds).
+	 */
+	long[] times;
+	/**
+	 * The arguments of each event, {@link #MAX_ARGS MAX_ARGS} per event.
+	 */
+	int[] args;
+	/**
+	 * The new deltas of the {@link #DELTA DELTA} events, at the same index as the event.
+	 */
+	double[] deltas;
+
+	Replay() {
+		this.types = new int[64];
+		this.ticks = new int[64];
+		this.times = new long[64];
+		this.args = new int[64 * MAX_ARGS];
+		this.deltas = new double[64];
+	}
+
+	/**
+	 * <pre>public static Replay read({@link File File} file)</pre>
+	 *
+	 * <p> Reads a replay file. </p>
+	 *
+	 * @param file - The replay file
+	 *
+	 * @return The replay
+	 *
+	 * @throws IOException If the file can't be read or isn't a replay of this version
+	 */
+	public static Replay read(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a replay file");
+			}
+			short version = in.readShort();
+			if (version != VERSION) {
+				throw new IOException("Unsupported replay version " + version + " (expected " + VERSION + ")");
+			}
+
+			Replay replay = new Replay();
+			replay.seed = in.readLong();
+			replay.waveFileHash = in.readLong();
+			replay.gridWidth = in.readInt();
+			replay.gridHeight = in.readInt();
+			replay.tickLength = in.readLong();
+
+			int tick = 0;
+			long time = 0L;
+			int type;
+			do {
+				type = in.readUnsignedByte();
+				tick += (int) readVarLong(in);
+				time += readVarLong(in);
+
+				int event = replay.add(type, tick, time);
+				if (type == PLACE_UNIT || type == UPGRADE_UNIT) {
+					for (int i = 0; i < MAX_ARGS; i++) {
+						replay.args[event * MAX_ARGS + i] = (int) readVarLong(in);
+					}
+				} else if (type == ENDLESS || type == SCHEDULED_IMPACTS) {
+					replay.args[event * MAX_ARGS] = (int) readVarLong(in);
+				} else if (type == DELTA) {
+					replay.deltas[event] = in.readDouble();
+				} else if (type > SCHEDULED_IMPACTS) {
+					throw new IOException("Unknown replay event " + type);
+				}
+			} while (type != END);
+			return replay;
+		} catch (EOFException e) {
+			throw new IOException(file + " ends before the end of the replay", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	int add(int type, int tick, long time) {
+		if (this.numEvents == this.types.length) {
+			int capacity = this.types.length * 2;
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.ticks = Arrays.copyOf(this.ticks, capacity);
+			this.times = Arrays.copyOf(this.times, capacity);
+			this.args = Arrays.copyOf(this.args, capacity * MAX_ARGS);
+			this.deltas = Arrays.copyOf(this.deltas, capacity);
+		}
+		this.types[this.numEvents] = type;
+		this.ticks[this.numEvents] = tick;
+		this.times[this.numEvents] = time;
+		return this.numEvents++;
+	}
+
+	/**
+	 * <pre>public int getNumTicks()</pre>
+	 *
+	 * <p> Gets the number of updates in the recorded game. </p>
+	 *
+	 * @return The tick of the {@link #END END} event
+	 */
+	public int getNumTicks() {
+		return this.ticks[this.numEvents - 1];
+	}
+
+	public int getNumEvents() {
+		return this.numEvents;
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	public long getWaveFileHash() {
+		return this.waveFileHash;
+	}
+
+	/**
+	 * <pre>static void writeVarLong({@link DataOutputStream DataOutputStream} out, long value)</pre>
+	 *
+	 * <p> Writes a number in as few bytes as it needs: seven bits per byte, with the highest bit set on every
+	 * byte but the last. The number is zigzag-encoded first so that small negative numbers are small too. </p>
+	 *
+	 * @param out - The stream to write to
+	 * @param value - The number
+	 *
+	 * @throws IOException If the number can't be written
+	 */
+	static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		long bits = (value << 1) ^ (value >> 63);
+		while ((bits & ~0x7FL) != 0) {
+			out.writeByte((int) ((bits & 0x7F) | 0x80));
+			bits >>>= 7;
+		}
+		out.writeByte((int) bits);
+	}
+
+	static long readVarLong(DataInputStream in) throws IOException {
+		long bits = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			bits |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (bits >>> 1) ^ -(bits & 1);
+			}
+		}
+		throw new IOException("Malformed variable-length number in replay");
+	}
+}
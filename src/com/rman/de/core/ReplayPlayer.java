@@ -0,0 +1,208 @@
+package com.rman.de.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+
+import com.rman.engine.Log;
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class ReplayPlayer</pre>
+ *
+ * <p> Plays a {@link Replay Replay} without a window, as fast as possible. The {@link Simulation Simulation} is
+ * created with the replay's seed and grid size, and a {@link TickClock TickClock} is moved to the recorded time of
+ * every command and update, so the game plays out exactly as it was recorded. After every update, the
+ * {@link Simulation#computeStateHash() state hash} is computed, so that two runs (or two builds of the game) can
+ * be checked for the first update where they differ. </p>
+ *
+ * <p> The first argument is the replay file. The other arguments are: </p>
+ *
+ * <ul>
+ * <li> <code>--waves=FILE</code>: the wave info file (by default, the game's wave info file) </li>
+ * <li> <code>--hashes=FILE</code>: writes the tick and state hash of every update to a file, one per line </li>
+ * <li> <code>--compare=FILE</code>: compares the hashes with a file written by <code>--hashes</code> and reports
+ * the first update where they differ </li>
+ * <li> <code>--threads=N</code>: updates the grid with <code>N</code> threads (see
+ * {@link Grid#setParallelism(int) setParallelism()}) </li>
+ * </ul>
+ *
+ * @author Arman
+ */
+public class ReplayPlayer {
+
+	private Replay replay;
+	private TickClock clock;
+	private Simulation sim;
+
+	/**
+	 * The next event of the replay to apply.
+	 */
+	private int event;
+	/**
+	 * The time of the last update, measured from the start of the replay.
+	 */
+	private long lastUpdateTime;
+	private double delta;
+
+	/**
+	 * <pre>public ReplayPlayer({@link Replay Replay} replay, {@link URL URL} waveFile)</pre>
+	 *
+	 * <p> Creates a simulation for a replay and loads its waves. If the wave info file isn't the one that the
+	 * replay was recorded with, an error is logged, since the replay will most likely play out differently. </p>
+	 *
+	 * @param replay - The replay to play
+	 * @param waveFile - The wave info file that the replay was recorded with
+	 */
+	public ReplayPlayer(Replay replay, URL waveFile) {
+		this.replay = replay;
+		this.clock = new TickClock();
+		this.sim = new Simulation(this.clock, replay.gridWidth, replay.gridHeight, replay.seed);
+		this.sim.loadWaves(waveFile);
+		if (this.sim.getWaveFileHash() != replay.waveFileHash) {
+			Log.logError(String.format("The wave info file (checksum %08x) is not the one the replay was recorded with (checksum %08x)",
+					this.sim.getWaveFileHash(), replay.waveFileHash));
+		}
+		this.delta = 1.0;
+	}
+
+	/**
+	 * <pre>public boolean step()</pre>
+	 *
+	 * <p> Applies the commands that were given before the next update, then updates the simulation once. </p>
+	 *
+	 * @return Whether there was an update left to play
+	 */
+	public boolean step() {
+		int tick = this.sim.getTick();
+		if (tick >= this.replay.getNumTicks()) {
+			return false;
+		}
+
+		long updateTime = this.lastUpdateTime + this.replay.tickLength;
+		for (; this.event < this.replay.numEvents && this.replay.ticks[this.event] == tick; this.event++) {
+			int type = this.replay.types[this.event];
+			if (type == Replay.UPDATE_TIME) {
+				updateTime = this.replay.times[this.event];
+			} else if (type == Replay.DELTA) {
+				this.delta = this.replay.deltas[this.event];
+			} else {
+				advanceTo(this.replay.times[this.event]);
+				apply(type, this.event);
+			}
+		}
+
+		advanceTo(updateTime);
+		this.lastUpdateTime = updateTime;
+		this.sim.update(this.delta);
+		return true;
+	}
+
+	private void advanceTo(long time) {
+		this.clock.advance(time - this.clock.nanoTime());
+	}
+
+	private void apply(int type, int event) {
+		int[] args = this.replay.args;
+		int a = event * Replay.MAX_ARGS;
+		switch (type) {
+			case Replay.START_WAVE:
+				this.sim.startWave();
+				break;
+			case Replay.PLACE_UNIT:
+				this.sim.placeUnit(args[a], args[a + 1], args[a + 2]);
+				break;
+			case Replay.UPGRADE_UNIT:
+				this.sim.upgradeUnit(args[a], args[a + 1], args[a + 2]);
+				break;
+			case Replay.PAUSE:
+				this.sim.pause();
+				break;
+			case Replay.RESUME:
+				this.sim.resume();
+				break;
+			case Replay.ENDLESS:
+				this.sim.setEndless(args[a] != 0);
+				break;
+			case Replay.SCHEDULED_IMPACTS:
+				this.sim.setScheduledImpacts(args[a] != 0);
+				break;
+		}
+	}
+
+	public Simulation getSimulation() {
+		return this.sim;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: ReplayPlayer <replay file> [--waves=FILE] [--hashes=FILE] [--compare=FILE] [--threads=N]");
+			System.exit(1);
+		}
+
+		URL waveFile = ReplayPlayer.class.getResource("res/waveinfo.de");
+		File hashFile = null;
+		File compareFile = null;
+		int threads = 1;
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.startsWith("--waves=")) {
+				waveFile = new File(arg.substring("--waves=".length())).toURI().toURL();
+			} else if (arg.startsWith("--hashes=")) {
+				hashFile = new File(arg.substring("--hashes=".length()));
+			} else if (arg.startsWith("--compare=")) {
+				compareFile = new File(arg.substring("--compare=".length()));
+			} else if (arg.startsWith("--threads=")) {
+				threads = Integer.parseInt(arg.substring("--threads=".length()));
+			}
+		}
+
+		Replay replay = Replay.read(new File(args[0]));
+		ReplayPlayer player = new ReplayPlayer(replay, waveFile);
+		Simulation sim = player.getSimulation();
+		sim.getGrid().setParallelism(threads);
+
+		PrintWriter hashes = hashFile != null ? new PrintWriter(hashFile) : null;
+		BufferedReader expected = compareFile != null ? new BufferedReader(new FileReader(compareFile)) : null;
+		int divergedAt = -1;
+		long combinedHash = 0L;
+
+		long startTime = System.nanoTime();
+		while (player.step()) {
+			long hash = sim.computeStateHash();
+			combinedHash = Simulation.mix(combinedHash, hash);
+			String line = String.format("%d %016x", sim.getTick(), hash);
+			if (hashes != null) {
+				hashes.println(line);
+			}
+			if (expected != null && divergedAt == -1 && !line.equals(expected.readLine())) {
+				divergedAt = sim.getTick();
+			}
+		}
+		double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+		if (hashes != null) {
+			hashes.close();
+		}
+		if (expected != null) {
+			expected.close();
+		}
+
+		Log.log(String.format("Replayed %d ticks and %d events in %.3f s (%.0f ticks/s)", sim.getTick(), replay.getNumEvents(),
+				seconds, sim.getTick() / seconds));
+		Log.log(String.format("Wave %d, gold: %d, building health: %d%s", sim.getWave(), sim.getGold(),
+				sim.getBuildingHealth(), sim.isGameOver() ? " (game over)" : ""));
+		Log.log(String.format("Final state hash: %016x, combined hash: %016x", sim.computeStateHash(), combinedHash));
+		if (compareFile != null) {
+			if (divergedAt == -1) {
+				Log.log("No divergence from " + compareFile);
+			} else {
+				Log.logError("Diverged from " + compareFile + " at tick " + divergedAt);
+				System.exit(2);
+			}
+		}
+	}
+}
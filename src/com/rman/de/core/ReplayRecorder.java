@@ -0,0 +1,171 @@
+package com.rman.de.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.rman.engine.Log;
+
+/**
+ * <pre>public class ReplayRecorder</pre>
+ *
+ * <p> Records the commands given to a {@link Simulation Simulation} into a {@link Replay Replay} file as they
+ * happen. A recorder is started with {@link Simulation#startRecording(File) startRecording()} after the waves are
+ * loaded, and the simulation tells it about every command and update. The file is complete once the recorder is
+ * {@link #close() closed}. </p>
+ *
+ * @author Arman
+ */
+public class ReplayRecorder {
+
+	private Simulation sim;
+	private DataOutputStream out;
+
+	/**
+	 * The time of the simulation's clock when recording started.
+	 */
+	private long origin;
+	private long tickLength;
+
+	/**
+	 * The tick and time of the last event that was written. Before the first event, they are the tick and time
+	 * when recording started.
+	 */
+	private int lastTick;
+	private long lastTime;
+	/**
+	 * The time of the last update, measured from <code>origin</code>.
+	 */
+	private long lastUpdateTime;
+	private double lastDelta;
+
+	/**
+	 * <pre>public ReplayRecorder({@link File File} file, {@link Simulation Simulation} sim)</pre>
+	 *
+	 * <p> Creates a replay file and writes its header. The simulation's ticks and clock are counted from now. </p>
+	 *
+	 * @param file - The file to record to
+	 * @param sim - The simulation to record
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	public ReplayRecorder(File file, Simulation sim) throws IOException {
+		this.sim = sim;
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		this.origin = sim.getClock().nanoTime();
+		this.lastTick = sim.getTick();
+		this.tickLength = 1000000000L / DefenseEvolution.TICK_RATE;
+		this.lastDelta = 1.0;
+
+		this.out.writeInt(Replay.MAGIC);
+		this.out.writeShort(Replay.VERSION);
+		this.out.writeLong(sim.getSeed());
+		this.out.writeLong(sim.getWaveFileHash());
+		this.out.writeInt(sim.getGrid().getNumColumns() * Grid.SQUARE_SIZE);
+		this.out.writeInt(sim.getGrid().getNumRows() * Grid.SQUARE_SIZE);
+		this.out.writeLong(this.tickLength);
+	}
+
+	/**
+	 * <pre>void record(int type, int arg0, int arg1, int arg2)</pre>
+	 *
+	 * <p> Records a command at the current tick and time. </p>
+	 *
+	 * @param type - The type of the command (see {@link Replay Replay})
+	 * @param arg0 - The first argument of the command, if it has one
+	 * @param arg1 - The second argument of the command, if it has one
+	 * @param arg2 - The third argument of the command, if it has one
+	 */
+	void record(int type, int arg0, int arg1, int arg2) {
+		if (this.out == null) {
+			return;
+		}
+		try {
+			writeEvent(type);
+			if (type == Replay.PLACE_UNIT || type == Replay.UPGRADE_UNIT) {
+				Replay.writeVarLong(this.out, arg0);
+				Replay.writeVarLong(this.out, arg1);
+				Replay.writeVarLong(this.out, arg2);
+			} else if (type == Replay.ENDLESS || type == Replay.SCHEDULED_IMPACTS) {
+				Replay.writeVarLong(this.out, arg0);
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * <pre>void recordUpdate(double delta)</pre>
+	 *
+	 * <p> Records an update, which is called before the simulation updates. Nothing is written unless the update's
+	 * time or delta isn't the same as expected. </p>
+	 *
+	 * @param delta - The delta that the simulation is updated with
+	 */
+	void recordUpdate(double delta) {
+		if (this.out == null) {
+			return;
+		}
+		try {
+			if (delta != this.lastDelta) {
+				writeEvent(Replay.DELTA);
+				this.out.writeDouble(delta);
+				this.lastDelta = delta;
+			}
+			long time = this.sim.getClock().nanoTime() - this.origin;
+			if (time != this.lastUpdateTime + this.tickLength) {
+				writeEvent(Replay.UPDATE_TIME);
+			}
+			this.lastUpdateTime = time;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * <pre>public void close()</pre>
+	 *
+	 * <p> Writes the end of the replay and closes the file. </p>
+	 */
+	public void close() {
+		if (this.out == null) {
+			return;
+		}
+		try {
+			writeEvent(Replay.END);
+			this.out.close();
+		} catch (IOException e) {
+			Log.logError("Error closing replay:", e);
+		}
+		this.out = null;
+	}
+
+	private void writeEvent(int type) throws IOException {
+		int tick = this.sim.getTick();
+		long time = this.sim.getClock().nanoTime() - this.origin;
+		this.out.writeByte(type);
+		Replay.writeVarLong(this.out, tick - this.lastTick);
+		Replay.writeVarLong(this.out, time - this.lastTime);
+		this.lastTick = tick;
+		this.lastTime = time;
+	}
+
+	/**
+	 * <pre>private void fail({@link IOException IOException} e)</pre>
+	 *
+	 * <p> Stops recording after the replay file couldn't be written. The game keeps running. </p>
+	 *
+	 * @param e - The error
+	 */
+	private void fail(IOException e) {
+		Log.logError("Error recording replay, recording stopped:", e);
+		try {
+			this.out.close();
+		} catch (IOException closeError) {
+			// The file is already broken
+		}
+		this.out = null;
+	}
+}
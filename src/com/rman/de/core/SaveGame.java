@@ -0,0 +1,150 @@
+package com.rman.de.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.rman.engine.GameClock;
+import com.rman.engine.Log;
+
+/**
+ * <pre>public class SaveGame</pre>
+ *
+ * <p> Saves the state of a {@link Simulation Simulation} to a binary file and loads it again. The file is written
+ * through a {@link FileChannel FileChannel} and loaded through a {@link MappedByteBuffer MappedByteBuffer}, and the
+ * parts of the game read their state straight from the mapped file: the {@link UnitStore UnitStore} copies each of
+ * its attribute arrays in one go, and the {@link Grid Grid} only creates the unit objects that are on it or are
+ * the shooters and targets of projectiles. So even a large board from late in a game loads almost instantly,
+ * which also makes saved games useful as starting points for benchmarks. </p>
+ *
+ * <p> A saved game starts with a header: </p>
+ *
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * long   seed
+ * long   wave file checksum
+ * int    grid width (in pixels)
+ * int    grid height (in pixels)
+ * </pre>
+ *
+ * <p> The header is followed by the state of the simulation (see {@link Simulation#writeState(long)
+ * Simulation.writeState()}), the slots of the unit store (see {@link UnitStore#writeState(long)
+ * UnitStore.writeState()}), and the squares and projectiles of the grid (see {@link Grid#writeState(long)
+ * Grid.writeState()}). All times are written relative to the time of the simulation's clock when the game was
+ * saved, so the game goes on the same way no matter when it is loaded. The waves are loaded again from the wave
+ * info file with the saved seed, which gives the same spawns as in the saved game. </p>
+ *
+ * @author Arman
+ */
+public class SaveGame {
+
+	/**
+	 * The first four bytes of a saved game ("DESV").
+	 */
+	public static final int MAGIC = 0x44455356;
+	/**
+	 * The version of the saved game format.
+	 */
+	public static final short VERSION = 1;
+
+	private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 4 + 4;
+
+	/**
+	 * <pre>public static void save({@link Simulation Simulation} sim, {@link File File} file)</pre>
+	 *
+	 * <p> Saves a game. This should be called between updates. </p>
+	 *
+	 * @param sim - The game to save
+	 * @param file - The file to save the game to
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	public static void save(Simulation sim, File file) throws IOException {
+		Grid grid = sim.getGrid();
+		long timeNow = sim.getClock().nanoTime();
+
+		ByteBuffer header = ByteBuffer.allocateDirect(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.putLong(sim.getSeed());
+		header.putLong(sim.getWaveFileHash());
+		header.putInt(grid.getNumColumns() * Grid.SQUARE_SIZE);
+		header.putInt(grid.getNumRows() * Grid.SQUARE_SIZE);
+		header.flip();
+
+		ByteBuffer[] parts = new ByteBuffer[] {header, sim.writeState(timeNow), grid.getUnitStore().writeState(timeNow),
+				grid.writeState(timeNow)};
+		long remaining = 0L;
+		for (ByteBuffer part : parts) {
+			remaining += part.remaining();
+		}
+
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (remaining > 0) {
+				remaining -= channel.write(parts);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * <pre>public static {@link Simulation Simulation} load({@link File File} file, {@link GameClock GameClock} clock,
+	 * {@link URL URL} waveFile)</pre>
+	 *
+	 * <p> Loads a saved game into a new simulation. If the wave info file isn't the one that the game was saved
+	 * with, an error is logged, since the waves will most likely be different. A loaded game can't be recorded,
+	 * since a {@link Replay Replay} always starts from a new game. </p>
+	 *
+	 * @param file - The saved game
+	 * @param clock - The clock that the new simulation's time is measured with
+	 * @param waveFile - The wave info file that the game was saved with
+	 *
+	 * @return The loaded game
+	 *
+	 * @throws IOException If the file can't be read or isn't a saved game of this version
+	 */
+	public static Simulation load(File file, GameClock clock, URL waveFile) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+			if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+				throw new IOException(file + " is not a saved game");
+			}
+			short version = in.getShort();
+			if (version != VERSION) {
+				throw new IOException("Unsupported saved game version " + version + " (expected " + VERSION + ")");
+			}
+
+			long seed = in.getLong();
+			long waveFileHash = in.getLong();
+			int gridWidth = in.getInt();
+			int gridHeight = in.getInt();
+
+			Simulation sim = new Simulation(clock, gridWidth, gridHeight, seed);
+			sim.loadWaves(waveFile);
+			if (sim.getWaveFileHash() != waveFileHash) {
+				Log.logError(String.format("The wave info file (checksum %08x) is not the one the game was saved with (checksum %08x)",
+						sim.getWaveFileHash(), waveFileHash));
+			}
+
+			long timeNow = clock.nanoTime();
+			sim.readState(in, timeNow);
+			sim.getGrid().getUnitStore().readState(in, timeNow);
+			sim.getGrid().readState(in, timeNow);
+			return sim;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(file + " ends before the end of the saved game", e);
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,701 @@
+package com.rman.de.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import com.rman.engine.Entity;
+import com.rman.engine.GameClock;
+import com.rman.engine.Log;
+import com.rman.engine.TimerWheel;
+
+/**
+ * <pre>public class Simulation</pre>
+ *
+ * <p> This class holds the state of a game of Defense Evolution: the {@link Grid Grid} and its units, the
+ * current wave and its spawns, the player's gold, and the building's health. It doesn't use OpenGL or OpenAL,
+ * so it can be run without a window (see {@link HeadlessSimulation HeadlessSimulation}). The
+ * {@link DefenseEvolution DefenseEvolution} game presents a <code>Simulation</code> and forwards the
+ * player's actions to it. </p>
+ *
+ * <p> Everything random in a game is worked out by {@link #mix(long, long) mixing} the game's
+ * {@link #getSeed() seed} with where it is needed (such as the number of the wave and spawn), and the simulation
+ * only reads time from its {@link GameClock GameClock}. So a game
+ * can be played again exactly from its seed, its wave info file, and the player's commands with the times they
+ * were given (see {@link #startRecording(File) startRecording()} and {@link ReplayPlayer ReplayPlayer}). A game
+ * can also be saved at any point and loaded again later (see {@link SaveGame SaveGame}). </p>
+ *
+ * @author Arman
+ */
+public class Simulation {
+
+	/**
+	 * Contains the waves in which the number of columns changes. This corresponds to <code>COLUMNS_OUTLINED</code>.
+	 */
+	public static final int[] COLUMNS_OUTLINED_AT = {5, 10, 15, 20, 25, 30};
+	/**
+	 * Contains the amount of columns allowed (how much right and left) at each wave specified in <code>COLUMNS_OUTLINED_AT</code>.
+	 */
+	public static final int[] COLUMNS_OUTLINED = 	{2, 3, 	5, 	6, 	7, 	8};
+
+	/**
+	 * The amount of gold that the player starts out with.
+	 */
+	public static final int INIT_GOLD = 500;
+
+	/**
+	 * The amount of health that the building starts out with.
+	 */
+	public static final int INIT_BUILDING_HEALTH = 100;
+
+	/**
+	 * The upgrades that the player can give a unit (see {@link #upgradeUnit(int, int, int) upgradeUnit()}).
+	 */
+	public static final int UPGRADE_HEALTH = 0;
+	public static final int UPGRADE_STRENGTH = 1;
+
+	/**
+	 * The clock that this simulation's time is measured with.
+	 */
+	private GameClock clock;
+
+	/**
+	 * The seed that everything random in this simulation is worked out from.
+	 */
+	private long seed;
+	/**
+	 * The checksum of the wave info file that was loaded.
+	 */
+	private long waveFileHash;
+
+	/**
+	 * The number of times this simulation has been updated.
+	 */
+	private int tick;
+
+	/**
+	 * The recorder that the player's commands are recorded with, or null if the game isn't being recorded.
+	 */
+	private ReplayRecorder recorder;
+
+	/**
+	 * The {@link Grid Grid} that the units are on.
+	 */
+	private Grid grid;
+	/**
+	 * The stats of each unit type in this game, with the boosts the enemies got in earlier waves.
+	 */
+	private UnitStats unitStats;
+
+	/**
+	 * The current number of allowed columns. See {@link COLUMNS_OUTLINED_AT COLUMNS_OUTLINED_AT} and
+	 * {@link COLUMNS_OUTLINED COLUMNS_OUTLINED} for more details.
+	 */
+	private int allowedColumns;
+
+	/**
+	 * Indicates whether more columns have been allowed on the current wave, otherwise false.
+	 */
+	private boolean justSwitchedColumns;
+
+	/**
+	 * The current amount of gold that the player has.
+	 */
+	private int gold;
+	/**
+	 * The current wave that the player is on.
+	 */
+	private int wave;
+
+	/**
+	 * The time that the current wave started. If there is no wave going on, this is set to -1.
+	 * Otherwise, it is set to the time a wave started using this simulation's {@link GameClock GameClock}.
+	 */
+	private long waveStartTime;
+	/**
+	 * The time that the simulation was most recently paused.
+	 */
+	private long pauseStartTime;
+	/**
+	 * The reader of the waves of the wave info file.
+	 */
+	private WaveInfoReader waves;
+	/**
+	 * The generator of the waves after the last wave of the wave info file in endless mode, or null if endless
+	 * mode is off.
+	 */
+	private WaveGenerator generator;
+	/**
+	 * A {@link WaveInfo WaveInfo} object that holds information about the current wave.
+	 */
+	private WaveInfo currentWaveInfo;
+
+	/**
+	 * The timers of this simulation. The only timer is the one for the current wave's next spawn.
+	 */
+	private TimerWheel timers;
+	/**
+	 * The timer of the current wave's next spawn, or -1 if no spawn is scheduled.
+	 */
+	private int spawnTimer;
+	/**
+	 * Indicates whether the timer of the next spawn has expired and the spawn hasn't happened yet.
+	 */
+	private boolean spawnDue;
+
+	/**
+	 * The amount of health that the building has.
+	 */
+	private int buildingHealth;
+
+	/**
+	 * <pre>public Simulation({@link GameClock GameClock} clock, int gridWidth, int gridHeight)</pre>
+	 *
+	 * <p> Constructs a new game with a grid of the given size and a seed taken from the system time. </p>
+	 *
+	 * @param clock - The clock that the simulation's time is measured with
+	 * @param gridWidth - The width of the grid (in pixels)
+	 * @param gridHeight - The height of the grid (in pixels)
+	 */
+	public Simulation(GameClock clock, int gridWidth, int gridHeight) {
+		this(clock, gridWidth, gridHeight, System.nanoTime());
+	}
+
+	/**
+	 * <pre>public Simulation({@link GameClock GameClock} clock, int gridWidth, int gridHeight, long seed)</pre>
+	 *
+	 * <p> Constructs a new game with a grid of the given size. Games with the same seed, wave info file, and
+	 * commands play out the same way. </p>
+	 *
+	 * @param clock - The clock that the simulation's time is measured with
+	 * @param gridWidth - The width of the grid (in pixels)
+	 * @param gridHeight - The height of the grid (in pixels)
+	 * @param seed - The seed that everything random in the game is worked out from
+	 */
+	public Simulation(GameClock clock, int gridWidth, int gridHeight, long seed) {
+		this.clock = clock;
+		this.seed = seed;
+		this.unitStats = new UnitStats();
+		this.grid = new Grid(this, gridWidth, gridHeight);
+
+		this.allowedColumns = COLUMNS_OUTLINED[0];
+
+		this.gold = INIT_GOLD;
+		this.wave = 0;
+		this.waveStartTime = -1L;
+		this.buildingHealth = INIT_BUILDING_HEALTH;
+
+		this.timers = new TimerWheel(1000000000L / DefenseEvolution.TICK_RATE);
+		this.spawnTimer = -1;
+	}
+
+	/**
+	 * <pre>public void loadWaves({@link URL URL} path)</pre>
+	 *
+	 * <p> Loads the waves of enemies from the given wave info file, which is either in the text format or compiled
+	 * (see {@link WaveCompiler WaveCompiler}). The waves are read from the file as they are started. </p>
+	 *
+	 * @param path - The location of the wave info file
+	 */
+	public void loadWaves(URL path) {
+		try {
+			this.waves = WaveInfoReader.open(path, this);
+			this.waveFileHash = this.waves.getChecksum();
+		} catch (Exception e) {
+			Log.logError("Error loading wave info:", e);
+		}
+	}
+
+	/**
+	 * <pre>public void update(double delta)</pre>
+	 *
+	 * <p> Updates the grid and spawns the units of the current wave that are due. The next spawn is a timer, so
+	 * nothing is checked while the wave waits for it. At most one spawn happens per update. </p>
+	 *
+	 * @param delta - The time since the last update divided by the optimal time
+	 */
+	public void update(double delta) {
+		if (this.recorder != null) {
+			this.recorder.recordUpdate(delta);
+		}
+		this.grid.update(delta);
+
+		if (this.timers.advance(this.clock.nanoTime()) > 0) {
+			this.spawnTimer = -1;
+			this.spawnDue = true;
+		}
+
+		// If a wave is going on, then spawn units
+		if (this.currentWaveInfo != null) {
+			if (this.currentWaveInfo.isDone()) {
+				onWaveEnd();
+			} else if (this.waveStartTime != -1L && this.spawnDue) {
+				this.spawnDue = false;
+				int[] positions = this.currentWaveInfo.extractNextSpawn();
+				for (int pos = 0; pos < positions.length; pos++) {
+					if (positions[pos] != -1) {
+						this.grid.addUnit(positions[pos], 0, (this.grid.getNumColumns() - positions.length) / 2 + pos);
+					}
+				}
+				scheduleNextSpawn();
+			}
+		}
+
+		// If the building's health is less than or equal to 0, set it to 0 to indicate game over
+		if (this.buildingHealth <= 0) {
+			this.buildingHealth = 0;
+		}
+		this.tick++;
+	}
+
+	/**
+	 * <pre>public void startWave()</pre>
+	 *
+	 * <p> Starts the next wave if the game isn't over and there are no enemies left from the last wave. </p>
+	 */
+	public void startWave() {
+		record(Replay.START_WAVE, 0, 0, 0);
+		if (this.buildingHealth == 0) return;
+
+		if (this.grid.getEnemyCount() == 0) {
+			// Update wave info
+			this.waveStartTime = this.clock.nanoTime();
+			this.currentWaveInfo = getWaveInfo(++this.wave);
+			cancelNextSpawn();
+			scheduleNextSpawn();
+
+			// Update the number of columns outlined
+			for (int i = 0; i < COLUMNS_OUTLINED_AT.length; i++) {
+				if (this.wave == COLUMNS_OUTLINED_AT[i]) {
+					boostEnemies(i);
+				}
+			}
+
+			// In endless mode, keep boosting the enemies as often as the last two boosts
+			int last = COLUMNS_OUTLINED_AT.length - 1;
+			int interval = COLUMNS_OUTLINED_AT[last] - COLUMNS_OUTLINED_AT[last - 1];
+			if (this.generator != null && this.wave > COLUMNS_OUTLINED_AT[last]
+					&& (this.wave - COLUMNS_OUTLINED_AT[last]) % interval == 0) {
+				boostEnemies(last + (this.wave - COLUMNS_OUTLINED_AT[last]) / interval);
+			}
+
+			this.allowedColumns = getAllowedColumns(this.wave);
+			this.justSwitchedColumns = false;
+		}
+	}
+
+	private void boostEnemies(int boost) {
+		this.unitStats.boost(UnitType.ENEMY, (boost + 1) * 20, (boost + 1) * 5, 0.0);
+	}
+
+	/**
+	 * <pre>private void scheduleNextSpawn()</pre>
+	 *
+	 * <p> Schedules the timer of the current wave's next spawn, if it has one left. </p>
+	 */
+	private void scheduleNextSpawn() {
+		if (this.currentWaveInfo != null && !this.currentWaveInfo.isDone()) {
+			this.spawnTimer = this.timers.schedule(this.waveStartTime + this.currentWaveInfo.nextSpawnTime(), 0);
+		}
+	}
+
+	private void cancelNextSpawn() {
+		if (this.spawnTimer != -1) {
+			this.timers.cancel(this.spawnTimer);
+			this.spawnTimer = -1;
+		}
+		this.spawnDue = false;
+	}
+
+	private void onWaveEnd() {
+		if (this.grid.getEnemyCount() == 0) {
+			this.allowedColumns = getAllowedColumns(this.wave + 1);
+			if (getAllowedColumns(this.wave) != this.allowedColumns) {
+				this.justSwitchedColumns = true;
+			}
+			this.waveStartTime = -1L;
+		}
+	}
+
+	/**
+	 * <pre>public void pause()</pre>
+	 *
+	 * <p> Pauses the simulation. The time until {@link #resume() resume()} is called doesn't count towards the
+	 * current wave's spawn times. </p>
+	 */
+	public void pause() {
+		record(Replay.PAUSE, 0, 0, 0);
+		this.pauseStartTime = this.clock.nanoTime();
+	}
+
+	/**
+	 * <pre>public void resume()</pre>
+	 *
+	 * <p> Resumes the simulation after it was {@link #pause() paused}. </p>
+	 */
+	public void resume() {
+		record(Replay.RESUME, 0, 0, 0);
+		if (this.waveStartTime != -1L) {
+			this.waveStartTime += this.clock.nanoTime() - this.pauseStartTime;
+		}
+
+		// The wave's spawns are later by the time it was paused for
+		if (this.spawnTimer != -1) {
+			cancelNextSpawn();
+			scheduleNextSpawn();
+		}
+	}
+
+	/**
+	 * <pre>public boolean placeUnit(int unitID, int row, int column)</pre>
+	 *
+	 * <p> Buys a unit for the player and places it on the given square if the game isn't over, the square is
+	 * empty, and the square is in the allowed columns. </p>
+	 *
+	 * @param unitID - The ID of the unit
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 *
+	 * @return Whether the square could be used (the unit is only added if the player can afford it)
+	 */
+	public boolean placeUnit(int unitID, int row, int column) {
+		record(Replay.PLACE_UNIT, unitID, row, column);
+		if (this.buildingHealth == 0) return false;
+
+		if (row > 0 && this.grid.getEntityAt(row, column) == null && Math.abs(convertFromColumn(column)) <= this.allowedColumns) {
+			this.grid.addUnit(unitID, row, column);
+			this.justSwitchedColumns = false;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <pre>public boolean upgradeUnit(int row, int column, int upgrade)</pre>
+	 *
+	 * <p> Upgrades the shooter on the given square, refills its health if its health was upgraded, and finishes
+	 * its level up. </p>
+	 *
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 * @param upgrade - {@link #UPGRADE_HEALTH UPGRADE_HEALTH} or {@link #UPGRADE_STRENGTH UPGRADE_STRENGTH}
+	 *
+	 * @return Whether there was a shooter to upgrade
+	 */
+	public boolean upgradeUnit(int row, int column, int upgrade) {
+		record(Replay.UPGRADE_UNIT, row, column, upgrade);
+		if (this.buildingHealth == 0) return false;
+
+		Entity e = this.grid.getEntityAt(row, column);
+		if (e instanceof Unit && ((Unit) e).getRole() == UnitType.DEFENDER) {
+			Unit s = (Unit) e;
+			if (upgrade == UPGRADE_HEALTH) {
+				s.upgradeBaseHealth(50);
+				s.refillHealth();
+			} else if (upgrade == UPGRADE_STRENGTH) {
+				s.upgradeStrength(5);
+			}
+			s.finishLevelUp();
+			this.grid.setEntity(s, row, column);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <pre>public void startRecording({@link File File} file)</pre>
+	 *
+	 * <p> Starts recording the player's commands to a {@link Replay Replay} file. This should be called after the
+	 * waves are loaded, before the first command. </p>
+	 *
+	 * @param file - The file to record to
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	public void startRecording(File file) throws IOException {
+		stopRecording();
+		this.recorder = new ReplayRecorder(file, this);
+	}
+
+	/**
+	 * <pre>public void stopRecording()</pre>
+	 *
+	 * <p> Finishes the replay file that is being recorded, if there is one. </p>
+	 */
+	public void stopRecording() {
+		if (this.recorder != null) {
+			this.recorder.close();
+			this.recorder = null;
+		}
+	}
+
+	/**
+	 * <pre>public void setEndless(boolean endless)</pre>
+	 *
+	 * <p> Turns endless mode on or off. In endless mode, the waves after the last wave of the wave info file are
+	 * generated by a {@link WaveGenerator WaveGenerator} on a background thread, and the enemies keep getting
+	 * boosted every few waves, so the game goes on until the building is destroyed. Turning it off stops the
+	 * background thread. </p>
+	 *
+	 * @param endless - Whether endless mode should be on
+	 */
+	public void setEndless(boolean endless) {
+		record(Replay.ENDLESS, endless ? 1 : 0, 0, 0);
+		applyEndless(endless);
+	}
+
+	private void applyEndless(boolean endless) {
+		if (endless && this.generator == null) {
+			this.generator = new WaveGenerator(this);
+			this.generator.prepare(Math.max(this.wave, getNumWaves()) + 1);
+		} else if (!endless && this.generator != null) {
+			this.generator.stop();
+			this.generator = null;
+		}
+	}
+
+	public boolean isEndless() {
+		return this.generator != null;
+	}
+
+	/**
+	 * <pre>public void setScheduledImpacts(boolean scheduledImpacts)</pre>
+	 *
+	 * <p> Sets whether the impacts of projectiles are scheduled when they are fired instead of the projectiles
+	 * being moved every tick (see {@link Grid#setScheduledImpacts(boolean) Grid.setScheduledImpacts()}). Since
+	 * this can change how the game plays out, it is recorded like a command. </p>
+	 *
+	 * @param scheduledImpacts - Whether impacts should be scheduled
+	 */
+	public void setScheduledImpacts(boolean scheduledImpacts) {
+		record(Replay.SCHEDULED_IMPACTS, scheduledImpacts ? 1 : 0, 0, 0);
+		this.grid.setScheduledImpacts(scheduledImpacts);
+	}
+
+	private void record(int type, int arg0, int arg1, int arg2) {
+		if (this.recorder != null) {
+			this.recorder.record(type, arg0, arg1, arg2);
+		}
+	}
+
+	/**
+	 * <pre>{@link ByteBuffer ByteBuffer} writeState(long timeNow)</pre>
+	 *
+	 * <p> Writes the state of this simulation outside of the grid for a {@link SaveGame SaveGame}: the tick, gold,
+	 * building health, wave, whether endless mode is on and impacts are scheduled, how far the current wave has
+	 * gotten, and the boosts of each unit type (see {@link UnitStats UnitStats}). Times are written relative to the current time. The spawns of the
+	 * current wave aren't written, only how many are left, since the waves are loaded again from the seed and the
+	 * wave info file. </p>
+	 *
+	 * @param timeNow - The current time (in nanoseconds)
+	 *
+	 * @return A buffer that holds the written state, ready to be written to a channel
+	 */
+	ByteBuffer writeState(long timeNow) {
+		ByteBuffer out = ByteBuffer.allocateDirect(5 * 4 + 1 + 3 * 8 + 4 + this.unitStats.getStateSize());
+		out.putInt(this.tick);
+		out.putInt(this.gold);
+		out.putInt(this.buildingHealth);
+		out.putInt(this.wave);
+		out.putInt(this.allowedColumns);
+		out.put((byte) ((this.justSwitchedColumns ? 1 : 0) | (this.spawnDue ? 2 : 0) | (this.spawnTimer != -1 ? 4 : 0)
+				| (this.generator != null ? 8 : 0) | (this.grid.hasScheduledImpacts() ? 16 : 0)));
+		out.putLong(this.waveStartTime != -1L ? timeNow - this.waveStartTime : -1L);
+		out.putLong(timeNow - this.pauseStartTime);
+		out.putLong(this.timers.getPhase(timeNow));
+		out.putInt(this.currentWaveInfo != null ? this.currentWaveInfo.getNumSpawnsLeft() : -1);
+		this.unitStats.writeState(out);
+		out.flip();
+		return out;
+	}
+
+	/**
+	 * <pre>void readState({@link ByteBuffer ByteBuffer} in, long timeNow)</pre>
+	 *
+	 * <p> Restores the state written by {@link #writeState(long) writeState()}. The waves must have been loaded
+	 * with the seed of the saved game, so that the current wave's spawns are the same. </p>
+	 *
+	 * @param in - The buffer to read from
+	 * @param timeNow - The current time (in nanoseconds)
+	 */
+	void readState(ByteBuffer in, long timeNow) {
+		this.tick = in.getInt();
+		this.gold = in.getInt();
+		this.buildingHealth = in.getInt();
+		this.wave = in.getInt();
+		this.allowedColumns = in.getInt();
+		int flags = in.get();
+		this.justSwitchedColumns = (flags & 1) != 0;
+		applyEndless((flags & 8) != 0);
+		this.grid.setScheduledImpacts((flags & 16) != 0);
+		long waveTime = in.getLong();
+		this.waveStartTime = waveTime != -1L ? timeNow - waveTime : -1L;
+		this.pauseStartTime = timeNow - in.getLong();
+		this.timers.setPhase(timeNow, in.getLong());
+
+		// Take the spawns that already happened out of the current wave
+		int spawnsLeft = in.getInt();
+		this.currentWaveInfo = spawnsLeft != -1 ? getWaveInfo(this.wave) : null;
+		while (this.currentWaveInfo != null && this.currentWaveInfo.getNumSpawnsLeft() > spawnsLeft) {
+			this.currentWaveInfo.extractNextSpawn();
+		}
+		cancelNextSpawn();
+		this.spawnDue = (flags & 2) != 0;
+		if ((flags & 4) != 0) {
+			scheduleNextSpawn();
+		}
+
+		this.unitStats.readState(in);
+	}
+
+	/**
+	 * <pre>public long computeStateHash()</pre>
+	 *
+	 * <p> Computes a hash of the state of this simulation: the player's gold, the building's health, the wave, the
+	 * units and their attributes, and the projectiles. Two games that play out the same way have the same hash
+	 * after every update, so comparing the hashes of two runs finds the first update where they differ. Times of
+	 * the clock aren't part of the hash, so it doesn't depend on when the game started. </p>
+	 *
+	 * @return The hash
+	 */
+	public long computeStateHash() {
+		long hash = mix(0L, this.tick);
+		hash = mix(hash, this.gold);
+		hash = mix(hash, this.buildingHealth);
+		hash = mix(hash, this.wave);
+		hash = mix(hash, this.allowedColumns);
+		hash = mix(hash, this.currentWaveInfo != null && !this.currentWaveInfo.isDone() ? this.currentWaveInfo.nextSpawnTime() : -1L);
+		return this.grid.hashState(hash);
+	}
+
+	/**
+	 * <pre>static long mix(long hash, long value)</pre>
+	 *
+	 * <p> Adds a value to a state hash. This is also how the random parts of a game are worked out: the seed is
+	 * mixed with values that say where a random number is needed, so the same seed always gives the same numbers
+	 * without a random number generator whose state would have to be saved. </p>
+	 *
+	 * @param hash - The hash so far
+	 * @param value - The value to add
+	 *
+	 * @return The new hash
+	 */
+	static long mix(long hash, long value) {
+		hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+		return hash ^ (hash >>> 32);
+	}
+
+	public int getAllowedColumns(int wave) {
+		for (int i = 0; i < COLUMNS_OUTLINED_AT.length; i++) {
+			if (wave < COLUMNS_OUTLINED_AT[i]) {
+				return COLUMNS_OUTLINED[i];
+			}
+		}
+		return this.grid.getNumColumns() / 2;
+	}
+
+	private int convertFromColumn(int col) {
+		return col - this.grid.getNumColumns() / 2 + (col >= this.grid.getNumColumns() / 2 ? 1 : 0);
+	}
+
+	public GameClock getClock() {
+		return this.clock;
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	public long getWaveFileHash() {
+		return this.waveFileHash;
+	}
+
+	/**
+	 * <pre>public int getTick()</pre>
+	 *
+	 * <p> Gets the number of times this simulation has been updated. </p>
+	 *
+	 * @return The number of updates
+	 */
+	public int getTick() {
+		return this.tick;
+	}
+
+	public Grid getGrid() {
+		return this.grid;
+	}
+
+	public UnitStats getUnitStats() {
+		return this.unitStats;
+	}
+
+	public int getAllowedColumns() {
+		return this.allowedColumns;
+	}
+
+	public boolean hasJustSwitchedColumns() {
+		return this.justSwitchedColumns;
+	}
+
+	public int getWave() {
+		return this.wave;
+	}
+
+	/**
+	 * <pre>public int getNumWaves()</pre>
+	 *
+	 * <p> Gets the number of waves in the wave info file. </p>
+	 *
+	 * @return The number of waves, or 0 if no waves have been loaded
+	 */
+	public int getNumWaves() {
+		return this.waves != null ? this.waves.getNumWaves() : 0;
+	}
+
+	private WaveInfo getWaveInfo(int wave) {
+		if (this.generator != null && wave > getNumWaves()) {
+			return this.generator.getWaveInfo(wave);
+		}
+		return this.waves != null ? this.waves.getWaveInfo(wave) : null;
+	}
+
+	/**
+	 * <pre>public boolean isWaveInProgress()</pre>
+	 *
+	 * <p> Gets whether a wave has started and hasn't ended yet. </p>
+	 *
+	 * @return Whether a wave is going on
+	 */
+	public boolean isWaveInProgress() {
+		return this.waveStartTime != -1L;
+	}
+
+	public boolean isGameOver() {
+		return this.buildingHealth == 0;
+	}
+
+	public int getGold() {
+		return this.gold;
+	}
+
+	public void addGold(int amount) {
+		this.gold += amount;
+	}
+
+	public void removeGold(int amount) {
+		this.gold -= amount;
+	}
+
+	public int getBuildingHealth() {
+		return this.buildingHealth;
+	}
+
+	public void healBuilding(int amount) {
+		this.buildingHealth += amount;
+	}
+
+	public void damageBuilding(int amount) {
+		this.buildingHealth -= amount;
+	}
+}
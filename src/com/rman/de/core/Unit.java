@@ -1,15 +1,23 @@
 package com.rman.de.core;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import org.lwjgl.util.Point;
 
 import com.rman.engine.Entity;
-import com.rman.engine.graphics.Animation;
+import com.rman.engine.GameClock;
+import com.rman.engine.graphics.AnimationClip;
+import com.rman.engine.graphics.SpriteSheet;
 import com.rman.engine.graphics.Texture;
 
-public abstract class Unit extends Entity {
-	
-	public static final int NUM_ENTITIES = 2;
+/**
+ * <pre>public class Unit extends {@link Entity Entity}</pre>
+ * 
+ * <p> A unit on the grid. A unit is a view of its slot in a {@link UnitStore UnitStore}, and everything that
+ * units of the same kind share (base stats, experience, projectile, and animations) comes from its
+ * {@link UnitType UnitType}. </p>
+ * 
+ * @author Arman
+ */
+public class Unit extends Entity {
 	
 	public static final int IDLE = 10;
 	public static final int MOVING = 20;
@@ -20,231 +28,448 @@ public abstract class Unit extends Entity {
 	public static final int RIGHT = 3;
 	public static final int LEFT = 4;
 	
-	protected static ArrayList<HashMap<Integer, Animation>> animations;
-	
-	static {
-		animations = new ArrayList<HashMap<Integer, Animation>>(NUM_ENTITIES);
-	}
+	public static final int NUM_STATES = 3;
+	public static final int NUM_DIRECTIONS = 4;
+	
+	/**
+	 * The animations of each unit type, indexed by unit ID and then by {@link #getAnimationIndex(int, int)
+	 * getAnimationIndex()}. A type's table is null until its animations are loaded.
+	 */
+	protected static AnimationClip[][] animations = new AnimationClip[UnitTypeRegistry.getNumTypes()][];
+	
+	/**
+	 * The type of this unit.
+	 */
+	protected final UnitType type;
+	
+	/**
+	 * The {@link UnitStore UnitStore} that holds this unit's simulation state.
+	 */
+	protected UnitStore store;
+	/**
+	 * This unit's slot in the store.
+	 */
+	protected int slot;
+	/**
+	 * The generation of the slot when this unit was given it (see {@link #isReleased() isReleased()}).
+	 */
+	protected int generation;
+	
+	/**
+	 * The clock that this unit's cooldowns are measured with.
+	 */
+	protected GameClock clock;
 	
-	protected int currentState = IDLE;
-	protected int currentDir = UP;
+	protected int id;
 	
-	protected int row;
-	protected int column;
-	protected int gridNumRows;
-	protected int gridNumColumns;
+	/**
+	 * The index of the animation this unit is showing, or -1 if it hasn't been given one yet.
+	 */
+	private int animationIndex = -1;
+
+	/**
+	 * <pre>public Unit({@link UnitType UnitType} type, int row, int column, int numRows, {@link GameClock GameClock} clock,
+	 * {@link UnitStore UnitStore} store, {@link UnitStats UnitStats} stats)</pre>
+	 * 
+	 * <p> Constructs a unit on a square and gives it a slot in the store, with the stats of its type in the
+	 * current game. </p>
+	 * 
+	 * @param type - The type of the unit
+	 * @param row - The row of the square the unit is on
+	 * @param column - The column of the square the unit is on
+	 * @param numRows - The number of rows of the grid
+	 * @param clock - The clock that this unit's cooldowns are measured with
+	 * @param store - The store that holds this unit's attributes
+	 * @param stats - The stats of the unit types in the current game
+	 */
+	public Unit(UnitType type, int row, int column, int numRows, GameClock clock, UnitStore store, UnitStats stats) {
+		super(type.getName(), column * Grid.SQUARE_SIZE, row * Grid.SQUARE_SIZE, Grid.SQUARE_SIZE, Grid.SQUARE_SIZE);
+		this.type = type;
+		this.clock = clock;
+		this.store = store;
+		this.slot = store.allocate();
+		this.generation = store.generation[this.slot];
+		
+		store.row[this.slot] = row;
+		store.column[this.slot] = column;
+		store.gridNumRows[this.slot] = numRows;
+		store.x[this.slot] = this.x;
+		store.y[this.slot] = this.y;
+		store.previousX[this.slot] = this.x;
+		store.previousY[this.slot] = this.y;
+		store.speed[this.slot] = stats.getSpeed(type.getID());
+		store.cooldown[this.slot] = (long) (type.getCooldown() * 1000000000L);
+		store.direction[this.slot] = type.getDirection();
+		
+		this.id = type.getID();
+		store.health[this.slot] = stats.getBaseHealth(this.id);
+		store.baseHealth[this.slot] = stats.getBaseHealth(this.id);
+		store.strength[this.slot] = stats.getStrength(this.id);
+		store.xp[this.slot] = 0;
+		store.level[this.slot] = 1;
+	}
 	
-	protected boolean moving;
-	protected boolean canAttack = true;
-	private long attackTime;
+	/**
+	 * <pre>Unit({@link UnitType UnitType} type, int slot, {@link GameClock GameClock} clock, {@link UnitStore UnitStore} store)</pre>
+	 * 
+	 * <p> Constructs a unit for a slot that is already in use, without changing the slot's attributes. This is
+	 * used when a saved game is loaded (see {@link SaveGame SaveGame}), where the store is read before the units
+	 * are created. </p>
+	 * 
+	 * @param type - The type of the unit
+	 * @param slot - The unit's slot in the store
+	 * @param clock - The clock that this unit's cooldowns are measured with
+	 * @param store - The store that holds this unit's attributes
+	 */
+	Unit(UnitType type, int slot, GameClock clock, UnitStore store) {
+		super(type.getName(), store.x[slot], store.y[slot], Grid.SQUARE_SIZE, Grid.SQUARE_SIZE);
+		this.type = type;
+		this.clock = clock;
+		this.store = store;
+		this.slot = slot;
+		this.generation = store.generation[slot];
+		this.id = type.getID();
+	}
 	
-	protected boolean isDead = false;
+	/**
+	 * <pre>public int getSlot()</pre>
+	 * 
+	 * <p> Gets this unit's slot in its {@link UnitStore UnitStore}. </p>
+	 * 
+	 * @return The slot
+	 */
+	public int getSlot() {
+		return this.slot;
+	}
 	
-	protected int id;
+	int getGeneration() {
+		return this.generation;
+	}
 	
-	protected int health;
-	protected int baseHealth;
-	protected int strength;
-	protected int xp;
-	protected int level;
-	private boolean hasLeveledUp;
-
-	public Unit(String name, Square square, int numRows, int numColumns) {
-		super(name, square.x, square.y, square.width, square.height);
-		this.row = square.row;
-		this.column = square.column;
-		this.gridNumRows = numRows;
-		this.gridNumColumns = numColumns;
-		
-		this.id = getID();
-		this.health = getBaseHealth();
-		this.baseHealth = getBaseHealth();
-		this.strength = getStrength();
-		this.xp = 0;
-		this.level = 1;
+	/**
+	 * <pre>public boolean isReleased()</pre>
+	 * 
+	 * <p> Gets whether this unit's slot has been released because the unit left the game. The slot may have been
+	 * given to another unit since, so the attributes of a released unit must not be read or changed. </p>
+	 * 
+	 * @return Whether this unit has left the game
+	 */
+	public boolean isReleased() {
+		return this.store.generation[this.slot] != this.generation;
 	}
 	
 	public Texture getCurrentTexture() {
-		return animations.get(getID()).get(IDLE + UP).getCurrentTexture();
+		return animations[this.id][getAnimationIndex(IDLE, UP)].getTexture(0);
 	}
 	
 	public void setDirection(int direction) {
-		this.currentDir = direction;
+		this.store.direction[this.slot] = direction;
 	}
 	
 	public void setState(int state) {
-		this.currentState = state;
+		this.store.state[this.slot] = state;
 	}
 	
 	public int[] getGridPos() {
-		return new int[] {this.row, this.column};
+		return new int[] {this.store.row[this.slot], this.store.column[this.slot]};
+	}
+	
+	public int getRow() {
+		return this.store.row[this.slot];
+	}
+	
+	public int getColumn() {
+		return this.store.column[this.slot];
 	}
 	
 	public void setGridPosition(int row, int column) {
-		this.row = row;
-		this.column = column;
+		this.store.row[this.slot] = row;
+		this.store.column[this.slot] = column;
+	}
+	
+	/**
+	 * <pre>void moveTo(int row, int column)</pre>
+	 * 
+	 * <p> Starts moving this unit to the given square. This is called by the {@link Grid Grid} once the unit has
+	 * been put on the square. </p>
+	 * 
+	 * @param row - The square's row in the grid
+	 * @param column - The square's column in the grid
+	 */
+	void moveTo(int row, int column) {
+		setGridPosition(row, column);
+		this.store.moving[this.slot] = true;
 	}
 	
 	public void moveUp(float step) {
-		if (this.row - step >= 0 && !this.moving) {
-			this.row -= step;
-			this.moving = true;
+		UnitStore s = this.store;
+		if (s.row[this.slot] - step >= 0 && !s.moving[this.slot]) {
+			s.row[this.slot] -= step;
+			s.moving[this.slot] = true;
 		}
 	}
 	
 	public void moveDown(float step) {
-		if (this.row < this.gridNumRows - step && !this.moving) {
-			this.row += step;
-			this.moving = true;
+		UnitStore s = this.store;
+		if (s.row[this.slot] < s.gridNumRows[this.slot] - step && !s.moving[this.slot]) {
+			s.row[this.slot] += step;
+			s.moving[this.slot] = true;
 		}
 	}
 	
 	public void moveRight(float step) {
-		if (this.column < this.gridNumRows - step && !this.moving) {
-			this.column += step;
-			this.moving = true;
+		UnitStore s = this.store;
+		if (s.column[this.slot] < s.gridNumRows[this.slot] - step && !s.moving[this.slot]) {
+			s.column[this.slot] += step;
+			s.moving[this.slot] = true;
 		}
 	}
 	
 	public void moveLeft(float step) {
-		if (this.column >= step && !this.moving) {
-			this.column -= step;
-			this.moving = true;
+		UnitStore s = this.store;
+		if (s.column[this.slot] >= step && !s.moving[this.slot]) {
+			s.column[this.slot] -= step;
+			s.moving[this.slot] = true;
 		}
 	}
 	
 	public boolean isDead() {
-		return this.isDead;
+		return this.store.dead[this.slot];
 	}
 	
-	public void attack(Unit target) {
-		target.damage(this.strength);
-		if (target.getHealth() <= 0) {
-			addXP(target.getXPValue());
-		}
+	/**
+	 * <pre>public boolean isActive()</pre>
+	 * 
+	 * <p> Gets whether this unit is active. A unit stops being active when it dies. </p>
+	 * 
+	 * @return Whether this unit is active
+	 */
+	public boolean isActive() {
+		return super.isActive() && !isDead();
 	}
 	
 	public boolean canAttack() {
-		return this.canAttack;
+		return this.store.canAttack[this.slot];
 	}
 	
+	/**
+	 * <pre>public void hasJustAttacked()</pre>
+	 * 
+	 * <p> Marks this unit as having just attacked, so that it can't attack until its cooldown passes. The
+	 * {@link Grid Grid} schedules the end of the cooldown (see {@link UnitStore#startCooldown(int)
+	 * startCooldown()}). </p>
+	 */
 	public void hasJustAttacked() {
-		this.attackTime = System.nanoTime();
-		this.currentState = ATTACKING;
-		this.canAttack = false;
+		this.store.attackTime[this.slot] = this.clock.nanoTime();
+		this.store.state[this.slot] = ATTACKING;
+		this.store.canAttack[this.slot] = false;
 	}
 	
 	public boolean isMoving() {
-		return this.moving;
+		return this.store.moving[this.slot];
 	}
 	
 	public int getHealth() {
-		return this.health;
+		return this.store.health[this.slot];
 	}
 	
 	public void refillHealth() {
-		this.health = getUpgradedBaseHealth();
+		this.store.health[this.slot] = getUpgradedBaseHealth();
 	}
 	
 	public int getUpgradedBaseHealth() {
-		return this.baseHealth;
+		return this.store.baseHealth[this.slot];
 	}
 	
 	public int getUpgradedStrength() {
-		return this.strength;
+		return this.store.strength[this.slot];
 	}
 	
 	public void upgradeBaseHealth(int amount) {
-		this.baseHealth += amount;
+		this.store.baseHealth[this.slot] += amount;
 	}
 	
 	public void upgradeStrength(int amount) {
-		this.strength += amount;
+		this.store.strength[this.slot] += amount;
 	}
 	
 	public void addXP(int amount) {
-		this.xp += amount;
-		if (getXPTable() != null && this.level <= getXPTable().length && this.xp >= getXPTable()[this.level - 1]) {
-			this.level++;
-			this.hasLeveledUp = true;
+		UnitStore s = this.store;
+		s.xp[this.slot] += amount;
+		if (s.level[this.slot] <= this.type.getNumLevels() && s.xp[this.slot] >= this.type.getXPToLevelUp(s.level[this.slot])) {
+			s.level[this.slot]++;
+			s.leveledUp[this.slot] = true;
 		}
 	}
 	
 	public boolean hasLeveledUp() {
-		return this.hasLeveledUp;
+		return this.store.leveledUp[this.slot];
 	}
 	
 	public void finishLevelUp() {
-		this.hasLeveledUp = false;
+		this.store.leveledUp[this.slot] = false;
 	}
 	
 	public int getCurrentXP() {
-		return this.xp;
+		return this.store.xp[this.slot];
 	}
 	
 	public int getLevel() {
-		return this.level;
+		return this.store.level[this.slot];
+	}
+	
+	public float getX() {
+		return this.store.x[this.slot];
+	}
+	
+	public float getY() {
+		return this.store.y[this.slot];
+	}
+	
+	public void setPosition(int x, int y) {
+		this.store.x[this.slot] = x;
+		this.store.y[this.slot] = y;
+	}
+	
+	public void setX(int x) {
+		this.store.x[this.slot] = x;
 	}
 	
-	public abstract int getID();
+	public void setY(int y) {
+		this.store.y[this.slot] = y;
+	}
+	
+	public void storePreviousPosition() {
+		this.store.previousX[this.slot] = this.store.x[this.slot];
+		this.store.previousY[this.slot] = this.store.y[this.slot];
+	}
+	
+	public float getRenderX(double interpolation) {
+		float previousX = this.store.previousX[this.slot];
+		return (float) (previousX + (this.store.x[this.slot] - previousX) * interpolation);
+	}
+	
+	public float getRenderY(double interpolation) {
+		float previousY = this.store.previousY[this.slot];
+		return (float) (previousY + (this.store.y[this.slot] - previousY) * interpolation);
+	}
 	
-	public abstract int getBaseHealth();
-	public abstract double getCooldown();
-	public abstract int getStrength();
-	public abstract double getSpeed();
+	public int getID() {
+		return this.id;
+	}
 	
-	public abstract int getGoldValue();
-	public abstract int getXPValue();
-	public abstract int[] getXPTable();
+	public UnitType getType() {
+		return this.type;
+	}
+	
+	/**
+	 * <pre>public int getRole()</pre>
+	 * 
+	 * <p> Gets what this unit does on the grid. </p>
+	 * 
+	 * @return {@link UnitType#DEFENDER DEFENDER} or {@link UnitType#ATTACKER ATTACKER}
+	 */
+	public int getRole() {
+		return this.type.getRole();
+	}
+	
+	public double getSpeed() {
+		return this.store.speed[this.slot];
+	}
+	
+	public int getProjectile() {
+		return this.type.getProjectile();
+	}
+	
+	public int getGoldValue() {
+		return this.type.getGoldValue();
+	}
+	
+	public int getXPValue() {
+		return this.type.getXPValue();
+	}
 	
 	public void damage(int amount) {
-		this.health -= amount;
+		this.store.health[this.slot] -= amount;
 	}
 	
+	/**
+	 * <pre>public void update(double delta)</pre>
+	 * 
+	 * <p> Updates this unit's animation to match its state and direction. The animation is only changed, and
+	 * played from its start, when the state or direction has changed. The rest of the unit's simulation state is updated for all units at once by
+	 * {@link UnitStore#update(double, long) UnitStore.update()}. </p>
+	 * 
+	 * @param delta - The time since the last update divided by the optimal time
+	 */
 	public void update(double delta) {
-		if (!this.canAttack && System.nanoTime() - this.attackTime > getCooldown() * 1000000000L) {
-			this.canAttack = true;
-			this.currentState = IDLE;
-		}
-		
-		if (this.health <= 0) {
-			this.isDead = true;
-			setActive(false);
+		AnimationClip[] table = animations[this.id];
+		if (table != null) {
+			int index = getAnimationIndex(this.store.state[this.slot], this.store.direction[this.slot]);
+			if (index != this.animationIndex) {
+				this.animationIndex = index;
+				setClip(table[index]);
+			}
 		}
+	}
+	
+	/**
+	 * <pre>public static int getAnimationIndex(int state, int direction)</pre>
+	 * 
+	 * <p> Gets the index of the animation for a state and direction in a unit type's animation table. </p>
+	 * 
+	 * @param state - {@link #IDLE IDLE}, {@link #MOVING MOVING}, or {@link #ATTACKING ATTACKING}
+	 * @param direction - {@link #UP UP}, {@link #DOWN DOWN}, {@link #RIGHT RIGHT}, or {@link #LEFT LEFT}
+	 * 
+	 * @return The index, from 0 to <code>NUM_STATES * NUM_DIRECTIONS - 1</code>
+	 */
+	public static int getAnimationIndex(int state, int direction) {
+		return (state / IDLE - 1) * NUM_DIRECTIONS + direction - 1;
+	}
+	
+	/**
+	 * <pre>public boolean hasAnimations()</pre>
+	 * 
+	 * <p> Gets whether the animations of this unit's type have been loaded. They are not loaded when the game is
+	 * simulated without a window. </p>
+	 * 
+	 * @return Whether this unit's animations are loaded
+	 */
+	public boolean hasAnimations() {
+		return animations[this.id] != null;
+	}
+	
+	/**
+	 * <pre>public static void loadAnimations({@link UnitType UnitType} type, {@link SpriteSheet SpriteSheet} spriteSheet)</pre>
+	 * 
+	 * <p> Loads the animations of a unit type from its sprite sheet into the type's animation table. The
+	 * {@link AnimationClip clips} are shared by every unit of the type, each of which plays them from its own
+	 * start time. Every
+	 * sprite sheet has the same layout: the first row holds the idle frames (up, down, right, left), and columns
+	 * 4 to 7 hold the walking frames in rows 0 to 3 and the attacking frames in rows 4 to 7, with one row per
+	 * direction. </p>
+	 * 
+	 * @param type - The unit type
+	 * @param spriteSheet - The type's sprite sheet
+	 */
+	public static void loadAnimations(UnitType type, SpriteSheet spriteSheet) {
+		AnimationClip[] table = new AnimationClip[NUM_STATES * NUM_DIRECTIONS];
+		String[] directionNames = {"Up", "Down", "Right", "Left"};
+		int[] directions = {UP, DOWN, RIGHT, LEFT};
 		
-		if (this.moving) {
-			if (this.x == this.column * Grid.SQUARE_SIZE && this.y == this.row * Grid.SQUARE_SIZE) {
-				this.moving = false;
-			} else {
-				this.currentState = MOVING;
-				if (this.x < this.column * Grid.SQUARE_SIZE) {
-					if (this.currentDir == LEFT) {
-						this.x = this.column * Grid.SQUARE_SIZE;
-					}
-					this.x += getSpeed();
-				} else if (this.x > this.column * Grid.SQUARE_SIZE) {
-					if (this.currentDir == RIGHT) {
-						this.x = this.column * Grid.SQUARE_SIZE;
-					}
-					this.x -= getSpeed();
-				}
-				
-				if (this.y < this.row * Grid.SQUARE_SIZE) {
-					if (this.currentDir == UP) {
-						this.y = this.row * Grid.SQUARE_SIZE;
-					}
-					this.y += getSpeed();
-				} else if (this.y > this.row * Grid.SQUARE_SIZE) {
-					if (this.currentDir == DOWN) {
-						this.y = this.row * Grid.SQUARE_SIZE;
-					}
-					this.y -= getSpeed();
-				}
-			}
-		} else {
-			this.currentState = IDLE;
+		for (int d = 0; d < directions.length; d++) {
+			String name = type.getName() + " %s " + directionNames[d];
+			table[getAnimationIndex(IDLE, directions[d])] = new AnimationClip(String.format(name, "Idle"), spriteSheet, 60, true, new Point[] {
+					new Point(d, 0)
+			});
+			table[getAnimationIndex(MOVING, directions[d])] = new AnimationClip(String.format(name, "Walking"), spriteSheet, 60, true, new Point[] {
+					new Point(4, d), new Point(5, d), new Point(6, d), new Point(7, d)
+			});
+			table[getAnimationIndex(ATTACKING, directions[d])] = new AnimationClip(String.format(name, "Attacking"), spriteSheet, type.getAttackFrameDuration(), false, new Point[] {
+					new Point(4, 4 + d), new Point(5, 4 + d), new Point(6, 4 + d), new Point(7, 4 + d)
+			});
 		}
 		
-		setAnimation(animations.get(getID()).get(this.currentState + this.currentDir));
+		animations[type.getID()] = table;
 	}
 }
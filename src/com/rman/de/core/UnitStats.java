@@ -0,0 +1,133 @@
+package com.rman.de.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>public class UnitStats</pre>
+ *
+ * <p> The stats of each {@link UnitType UnitType} in one game: the type's base stats plus the boosts that the game
+ * has given to all units of the type, such as the enemies getting stronger every few waves. The effective stats
+ * are computed when a boost changes them, so placing a unit only copies them, and they are kept per game instead
+ * of in static fields, so games don't share boosts. </p>
+ *
+ * @author Arman
+ */
+public class UnitStats {
+
+	/**
+	 * The number of bytes that each unit type takes up in a saved game.
+	 */
+	private static final int TYPE_STATE_SIZE = 4 + 4 + 8;
+
+	private int[] healthBoost;
+	private int[] strengthBoost;
+	private double[] speedBoost;
+
+	private int[] baseHealth;
+	private int[] strength;
+	private double[] speed;
+
+	/**
+	 * <pre>public UnitStats()</pre>
+	 *
+	 * <p> Constructs the stats of a new game, where no type is boosted. </p>
+	 */
+	public UnitStats() {
+		int numTypes = UnitTypeRegistry.getNumTypes();
+		this.healthBoost = new int[numTypes];
+		this.strengthBoost = new int[numTypes];
+		this.speedBoost = new double[numTypes];
+		this.baseHealth = new int[numTypes];
+		this.strength = new int[numTypes];
+		this.speed = new double[numTypes];
+		for (int id = 0; id < numTypes; id++) {
+			update(id);
+		}
+	}
+
+	/**
+	 * <pre>public void boost(int id, int health, int strength, double speed)</pre>
+	 *
+	 * <p> Boosts the stats of the units of a type that are placed or spawned from now on. </p>
+	 *
+	 * @param id - The unit ID of the type
+	 * @param health - The amount to add to the base health
+	 * @param strength - The amount to add to the strength
+	 * @param speed - The amount to add to the speed
+	 */
+	public void boost(int id, int health, int strength, double speed) {
+		this.healthBoost[id] += health;
+		this.strengthBoost[id] += strength;
+		this.speedBoost[id] += speed;
+		update(id);
+	}
+
+	private void update(int id) {
+		UnitType type = UnitTypeRegistry.get(id);
+		this.baseHealth[id] = type.getBaseHealth() + this.healthBoost[id];
+		this.strength[id] = type.getStrength() + this.strengthBoost[id];
+		this.speed[id] = type.getSpeed() + this.speedBoost[id];
+	}
+
+	public int getBaseHealth(int id) {
+		return this.baseHealth[id];
+	}
+
+	public int getStrength(int id) {
+		return this.strength[id];
+	}
+
+	public double getSpeed(int id) {
+		return this.speed[id];
+	}
+
+	/**
+	 * <pre>int getStateSize()</pre>
+	 *
+	 * <p> Gets the number of bytes that {@link #writeState(ByteBuffer) writeState()} writes. </p>
+	 *
+	 * @return The number of bytes
+	 */
+	int getStateSize() {
+		return 4 + this.baseHealth.length * TYPE_STATE_SIZE;
+	}
+
+	/**
+	 * <pre>void writeState({@link ByteBuffer ByteBuffer} out)</pre>
+	 *
+	 * <p> Writes the boosts of every type for a {@link SaveGame SaveGame}. </p>
+	 *
+	 * @param out - The buffer to write to
+	 */
+	void writeState(ByteBuffer out) {
+		out.putInt(this.baseHealth.length);
+		for (int id = 0; id < this.baseHealth.length; id++) {
+			out.putInt(this.healthBoost[id]);
+			out.putInt(this.strengthBoost[id]);
+			out.putDouble(this.speedBoost[id]);
+		}
+	}
+
+	/**
+	 * <pre>void readState({@link ByteBuffer ByteBuffer} in)</pre>
+	 *
+	 * <p> Replaces the boosts with the ones written by {@link #writeState(ByteBuffer) writeState()}. Types that
+	 * weren't in the saved game keep no boosts. </p>
+	 *
+	 * @param in - The buffer to read from
+	 */
+	void readState(ByteBuffer in) {
+		int numTypes = in.getInt();
+		for (int id = 0; id < numTypes; id++) {
+			int health = in.getInt();
+			int strength = in.getInt();
+			double speed = in.getDouble();
+			if (id < this.baseHealth.length) {
+				this.healthBoost[id] = health;
+				this.strengthBoost[id] = strength;
+				this.speedBoost[id] = speed;
+				update(id);
+			}
+		}
+	}
+}
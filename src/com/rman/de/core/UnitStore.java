@@ -0,0 +1,527 @@
+package com.rman.de.core;
+
+import java.nio.ByteBuffer;
+
+import com.rman.engine.TimerWheel;
+
+/**
+ * <pre>public class UnitStore</pre>
+ *
+ * <p> This class holds the simulation state of every {@link Unit Unit} on a {@link Grid Grid} in primitive arrays,
+ * with one array per attribute (health, position, cooldown, and so on). Each unit is given a slot when it is
+ * constructed, and its attributes are the elements at that slot. A <code>Unit</code> object only keeps its slot,
+ * so it is a view of the store that is used for rendering and the user interface. </p>
+ *
+ * <p> The per-tick work that doesn't depend on other units (cooldowns, deaths, and movement towards the target
+ * square) is done by {@link #update(double, long) update()} as loops over these arrays, instead of calling
+ * {@link Unit#update(double) update()} on each unit object. Cooldowns are timers in a {@link TimerWheel TimerWheel},
+ * so only the units whose cooldowns end on a tick are looked at. </p>
+ *
+ * @author Arman
+ */
+public class UnitStore {
+
+	/**
+	 * The default number of slots a store starts with.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+	
+	/**
+	 * The number of bytes that each slot takes up in a saved game (see {@link #writeState(long) writeState()}).
+	 */
+	private static final int SLOT_STATE_SIZE = 6 + 10 * 4 + 8 + 4 * 4 + 2 * 8;
+
+	/**
+	 * The number of slots in use, including released slots below the highest slot in use.
+	 */
+	private int size;
+	/**
+	 * The slots that have been released and can be given to new units. Only the first <code>numFree</code>
+	 * elements are used.
+	 */
+	private int[] free;
+	/**
+	 * The number of slots that have been released and can be given to new units.
+	 */
+	private int numFree;
+
+	/**
+	 * Indicates whether a slot belongs to a unit.
+	 */
+	boolean[] used;
+	/**
+	 * The number of times each slot has been released. A {@link Unit Unit} keeps the generation of its slot when
+	 * it is created, so a unit that has left the game can be told apart from the unit its slot was given to next
+	 * (see {@link Unit#isReleased() isReleased()}).
+	 */
+	int[] generation;
+
+	int[] health;
+	int[] baseHealth;
+	int[] strength;
+	int[] xp;
+	int[] level;
+	boolean[] leveledUp;
+
+	int[] row;
+	int[] column;
+	/**
+	 * The number of rows of the grid a unit is on, which limits how far it can move down.
+	 */
+	int[] gridNumRows;
+	boolean[] moving;
+	/**
+	 * The speed of a unit (in pixels per optimal frame).
+	 */
+	double[] speed;
+
+	float[] x;
+	float[] y;
+	float[] previousX;
+	float[] previousY;
+
+	int[] state;
+	int[] direction;
+
+	boolean[] canAttack;
+	/**
+	 * The time a unit last attacked (in nanoseconds).
+	 */
+	long[] attackTime;
+	/**
+	 * The time a unit has to wait between attacks (in nanoseconds).
+	 */
+	long[] cooldown;
+	/**
+	 * The timer of a unit's cooldown in the cooldown wheel, or -1 if the unit isn't cooling down.
+	 */
+	int[] cooldownTimer;
+	boolean[] dead;
+	
+	/**
+	 * The cooldowns of the units that have attacked, as timers that hold the units' slots.
+	 */
+	private TimerWheel cooldowns;
+
+	/**
+	 * <pre>public UnitStore()</pre>
+	 *
+	 * <p> Constructs an empty store with the {@link #DEFAULT_CAPACITY default capacity}. </p>
+	 */
+	public UnitStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * <pre>public UnitStore(int capacity)</pre>
+	 *
+	 * <p> Constructs an empty store. The store grows when more units are added than it has room for. </p>
+	 *
+	 * @param capacity - The initial number of slots
+	 */
+	public UnitStore(int capacity) {
+		resize(Math.max(capacity, 1));
+		this.free = new int[Math.max(capacity, 1)];
+		this.cooldowns = new TimerWheel(1000000000L / DefenseEvolution.TICK_RATE, Math.max(capacity, 1));
+	}
+
+	/**
+	 * <pre>int allocate()</pre>
+	 *
+	 * <p> Gives a slot to a new unit. The slot's attributes are cleared; the unit sets them after this. </p>
+	 *
+	 * @return The slot
+	 */
+	int allocate() {
+		int slot;
+		if (this.numFree > 0) {
+			slot = this.free[--this.numFree];
+		} else {
+			if (this.size == this.used.length) {
+				resize(this.used.length * 2);
+			}
+			slot = this.size++;
+		}
+
+		this.used[slot] = true;
+		this.health[slot] = 0;
+		this.baseHealth[slot] = 0;
+		this.strength[slot] = 0;
+		this.xp[slot] = 0;
+		this.level[slot] = 1;
+		this.leveledUp[slot] = false;
+		this.row[slot] = 0;
+		this.column[slot] = 0;
+		this.gridNumRows[slot] = 0;
+		this.moving[slot] = false;
+		this.speed[slot] = 0.0;
+		this.x[slot] = 0.0f;
+		this.y[slot] = 0.0f;
+		this.previousX[slot] = 0.0f;
+		this.previousY[slot] = 0.0f;
+		this.state[slot] = Unit.IDLE;
+		this.direction[slot] = Unit.UP;
+		this.canAttack[slot] = true;
+		this.attackTime[slot] = 0L;
+		this.cooldown[slot] = 0L;
+		this.cooldownTimer[slot] = -1;
+		this.dead[slot] = false;
+		return slot;
+	}
+
+	/**
+	 * <pre>void release(int slot)</pre>
+	 *
+	 * <p> Frees the slot of a unit that has left the grid, so that it is no longer updated and can be given to a
+	 * new unit. The slot's generation is increased, so the unit is {@link Unit#isReleased() released} from now
+	 * on. </p>
+	 *
+	 * @param slot - The slot
+	 */
+	void release(int slot) {
+		if (!this.used[slot]) {
+			return;
+		}
+		this.used[slot] = false;
+		this.generation[slot]++;
+		if (this.cooldownTimer[slot] != -1) {
+			this.cooldowns.cancel(this.cooldownTimer[slot]);
+			this.cooldownTimer[slot] = -1;
+		}
+		if (this.numFree == this.free.length) {
+			int[] newFree = new int[this.free.length * 2];
+			System.arraycopy(this.free, 0, newFree, 0, this.numFree);
+			this.free = newFree;
+		}
+		this.free[this.numFree++] = slot;
+	}
+
+	/**
+	 * <pre>void startCooldown(int slot)</pre>
+	 * 
+	 * <p> Schedules the end of the cooldown of a unit that has just attacked (see
+	 * {@link Unit#hasJustAttacked() hasJustAttacked()}). The unit can attack again on the first update after its
+	 * cooldown has passed. </p>
+	 * 
+	 * @param slot - The slot of the unit
+	 */
+	void startCooldown(int slot) {
+		if (this.cooldownTimer[slot] != -1) {
+			this.cooldowns.cancel(this.cooldownTimer[slot]);
+		}
+		this.cooldownTimer[slot] = this.cooldowns.schedule(this.attackTime[slot] + this.cooldown[slot] + 1L, slot);
+	}
+	
+	/**
+	 * <pre>public void update(double delta, long timeNow)</pre>
+	 *
+	 * <p> Updates every unit in this store. Each step is a separate loop over the slots: the current positions
+	 * are stored as the previous positions, the units whose cooldowns have passed are allowed to attack again
+	 * (as one batch from the cooldown wheel), units without health are marked as dead, and moving units are moved towards their target squares. </p>
+	 *
+	 * @param delta - The time since the last update divided by the optimal time
+	 * @param timeNow - The current time (in nanoseconds)
+	 */
+	public void update(double delta, long timeNow) {
+		int size = this.size;
+		boolean[] used = this.used;
+
+		// Store the previous positions for interpolation
+		float[] x = this.x;
+		float[] y = this.y;
+		for (int i = 0; i < size; i++) {
+			if (used[i]) {
+				this.previousX[i] = x[i];
+				this.previousY[i] = y[i];
+			}
+		}
+
+		// Cooldowns that have passed
+		int numDue = this.cooldowns.advance(timeNow);
+		int[] due = this.cooldowns.getDue();
+		for (int n = 0; n < numDue; n++) {
+			int i = due[n];
+			this.cooldownTimer[i] = -1;
+			this.canAttack[i] = true;
+			this.state[i] = Unit.IDLE;
+		}
+
+		// Deaths
+		int[] health = this.health;
+		boolean[] dead = this.dead;
+		for (int i = 0; i < size; i++) {
+			if (used[i] && health[i] <= 0) {
+				dead[i] = true;
+			}
+		}
+
+		// Movement towards the target square
+		boolean[] moving = this.moving;
+		for (int i = 0; i < size; i++) {
+			if (!used[i]) {
+				continue;
+			}
+			if (moving[i]) {
+				float targetX = this.column[i] * Grid.SQUARE_SIZE;
+				float targetY = this.row[i] * Grid.SQUARE_SIZE;
+				if (x[i] == targetX && y[i] == targetY) {
+					moving[i] = false;
+				} else {
+					this.state[i] = Unit.MOVING;
+					float step = (float) (this.speed[i] * delta);
+					x[i] = approach(x[i], targetX, step);
+					y[i] = approach(y[i], targetY, step);
+				}
+			} else {
+				this.state[i] = Unit.IDLE;
+			}
+		}
+	}
+
+	/**
+	 * <pre>public int getNumUnits()</pre>
+	 *
+	 * <p> Gets the number of units in this store. </p>
+	 *
+	 * @return The number of slots in use
+	 */
+	public int getNumUnits() {
+		return this.size - this.numFree;
+	}
+
+	public int getCapacity() {
+		return this.used.length;
+	}
+	
+	/**
+	 * <pre>{@link ByteBuffer ByteBuffer} writeState(long timeNow)</pre>
+	 * 
+	 * <p> Writes the slots of this store for a {@link SaveGame SaveGame}. The attributes are written one array
+	 * at a time, like they are kept in the store, so they can be read back with bulk copies. Released slots are
+	 * written too, so that the slots keep their numbers. The generations of the slots aren't written, since the
+	 * units of a loaded game are all created with the slots' current generations. Attack times are written relative to the current
+	 * time, and a cooldown timer is written as whether the unit is cooling down; the cooldowns are scheduled again
+	 * when the store is read, on a wheel with the same {@link TimerWheel#getPhase(long) phase}. </p>
+	 * 
+	 * @param timeNow - The current time (in nanoseconds)
+	 * 
+	 * @return A buffer that holds the written slots, ready to be written to a channel
+	 */
+	ByteBuffer writeState(long timeNow) {
+		int size = this.size;
+		ByteBuffer out = ByteBuffer.allocateDirect(16 + this.numFree * 4 + size * SLOT_STATE_SIZE);
+		out.putLong(this.cooldowns.getPhase(timeNow));
+		out.putInt(size);
+		out.putInt(this.numFree);
+		putInts(out, this.free, this.numFree);
+		
+		putBooleans(out, this.used, size);
+		putInts(out, this.health, size);
+		putInts(out, this.baseHealth, size);
+		putInts(out, this.strength, size);
+		putInts(out, this.xp, size);
+		putInts(out, this.level, size);
+		putBooleans(out, this.leveledUp, size);
+		putInts(out, this.row, size);
+		putInts(out, this.column, size);
+		putInts(out, this.gridNumRows, size);
+		putBooleans(out, this.moving, size);
+		out.asDoubleBuffer().put(this.speed, 0, size);
+		out.position(out.position() + size * 8);
+		putFloats(out, this.x, size);
+		putFloats(out, this.y, size);
+		putFloats(out, this.previousX, size);
+		putFloats(out, this.previousY, size);
+		putInts(out, this.state, size);
+		putInts(out, this.direction, size);
+		putBooleans(out, this.canAttack, size);
+		for (int i = 0; i < size; i++) {
+			out.putLong(this.attackTime[i] - timeNow);
+		}
+		out.asLongBuffer().put(this.cooldown, 0, size);
+		out.position(out.position() + size * 8);
+		for (int i = 0; i < size; i++) {
+			out.put((byte) (this.cooldownTimer[i] != -1 ? 1 : 0));
+		}
+		putBooleans(out, this.dead, size);
+		
+		out.flip();
+		return out;
+	}
+	
+	/**
+	 * <pre>void readState({@link ByteBuffer ByteBuffer} in, long timeNow)</pre>
+	 * 
+	 * <p> Replaces the slots of this store with the ones written by {@link #writeState(long) writeState()}, and
+	 * schedules the cooldowns of the units that were cooling down. </p>
+	 * 
+	 * @param in - The buffer to read from
+	 * @param timeNow - The current time (in nanoseconds)
+	 */
+	void readState(ByteBuffer in, long timeNow) {
+		this.cooldowns = new TimerWheel(1000000000L / DefenseEvolution.TICK_RATE, Math.max(in.getInt(in.position() + 8), 1));
+		this.cooldowns.setPhase(timeNow, in.getLong());
+		int size = in.getInt();
+		if (size > this.used.length) {
+			resize(size);
+		}
+		this.size = size;
+		this.numFree = in.getInt();
+		if (this.numFree > this.free.length) {
+			this.free = new int[this.numFree];
+		}
+		getInts(in, this.free, this.numFree);
+		
+		getBooleans(in, this.used, size);
+		getInts(in, this.health, size);
+		getInts(in, this.baseHealth, size);
+		getInts(in, this.strength, size);
+		getInts(in, this.xp, size);
+		getInts(in, this.level, size);
+		getBooleans(in, this.leveledUp, size);
+		getInts(in, this.row, size);
+		getInts(in, this.column, size);
+		getInts(in, this.gridNumRows, size);
+		getBooleans(in, this.moving, size);
+		in.asDoubleBuffer().get(this.speed, 0, size);
+		in.position(in.position() + size * 8);
+		getFloats(in, this.x, size);
+		getFloats(in, this.y, size);
+		getFloats(in, this.previousX, size);
+		getFloats(in, this.previousY, size);
+		getInts(in, this.state, size);
+		getInts(in, this.direction, size);
+		getBooleans(in, this.canAttack, size);
+		for (int i = 0; i < size; i++) {
+			this.attackTime[i] = in.getLong() + timeNow;
+		}
+		in.asLongBuffer().get(this.cooldown, 0, size);
+		in.position(in.position() + size * 8);
+		for (int i = 0; i < size; i++) {
+			this.cooldownTimer[i] = -1;
+			if (in.get() != 0) {
+				startCooldown(i);
+			}
+		}
+		getBooleans(in, this.dead, size);
+	}
+
+	private void resize(int capacity) {
+		this.used = copyOf(this.used, capacity);
+		this.generation = copyOf(this.generation, capacity);
+		this.health = copyOf(this.health, capacity);
+		this.baseHealth = copyOf(this.baseHealth, capacity);
+		this.strength = copyOf(this.strength, capacity);
+		this.xp = copyOf(this.xp, capacity);
+		this.level = copyOf(this.level, capacity);
+		this.leveledUp = copyOf(this.leveledUp, capacity);
+		this.row = copyOf(this.row, capacity);
+		this.column = copyOf(this.column, capacity);
+		this.gridNumRows = copyOf(this.gridNumRows, capacity);
+		this.moving = copyOf(this.moving, capacity);
+		this.speed = copyOf(this.speed, capacity);
+		this.x = copyOf(this.x, capacity);
+		this.y = copyOf(this.y, capacity);
+		this.previousX = copyOf(this.previousX, capacity);
+		this.previousY = copyOf(this.previousY, capacity);
+		this.state = copyOf(this.state, capacity);
+		this.direction = copyOf(this.direction, capacity);
+		this.canAttack = copyOf(this.canAttack, capacity);
+		this.attackTime = copyOf(this.attackTime, capacity);
+		this.cooldown = copyOf(this.cooldown, capacity);
+		this.cooldownTimer = copyOf(this.cooldownTimer, capacity);
+		this.dead = copyOf(this.dead, capacity);
+	}
+
+	private static void putInts(ByteBuffer out, int[] array, int length) {
+		out.asIntBuffer().put(array, 0, length);
+		out.position(out.position() + length * 4);
+	}
+	
+	private static void putFloats(ByteBuffer out, float[] array, int length) {
+		out.asFloatBuffer().put(array, 0, length);
+		out.position(out.position() + length * 4);
+	}
+	
+	private static void putBooleans(ByteBuffer out, boolean[] array, int length) {
+		for (int i = 0; i < length; i++) {
+			out.put((byte) (array[i] ? 1 : 0));
+		}
+	}
+	
+	private static void getInts(ByteBuffer in, int[] array, int length) {
+		in.asIntBuffer().get(array, 0, length);
+		in.position(in.position() + length * 4);
+	}
+	
+	private static void getFloats(ByteBuffer in, float[] array, int length) {
+		in.asFloatBuffer().get(array, 0, length);
+		in.position(in.position() + length * 4);
+	}
+	
+	private static void getBooleans(ByteBuffer in, boolean[] array, int length) {
+		for (int i = 0; i < length; i++) {
+			array[i] = in.get() != 0;
+		}
+	}
+	
+	private static int[] copyOf(int[] array, int length) {
+		int[] copy = new int[length];
+		if (array != null) {
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		}
+		return copy;
+	}
+
+	private static long[] copyOf(long[] array, int length) {
+		long[] copy = new long[length];
+		if (array != null) {
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		}
+		return copy;
+	}
+
+	private static double[] copyOf(double[] array, int length) {
+		double[] copy = new double[length];
+		if (array != null) {
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		}
+		return copy;
+	}
+
+	private static float[] copyOf(float[] array, int length) {
+		float[] copy = new float[length];
+		if (array != null) {
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		}
+		return copy;
+	}
+
+	private static boolean[] copyOf(boolean[] array, int length) {
+		boolean[] copy = new boolean[length];
+		if (array != null) {
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		}
+		return copy;
+	}
+
+	/**
+	 * <pre>private static float approach(float value, float target, float step)</pre>
+	 *
+	 * <p> Moves a value towards a target by a step without going past the target. </p>
+	 *
+	 * @param value - The current value
+	 * @param target - The target value
+	 * @param step - The amount to move by
+	 *
+	 * @return The new value
+	 */
+	private static float approach(float value, float target, float step) {
+		if (value < target) {
+			return Math.min(value + step, target);
+		} else if (value > target) {
+			return Math.max(value - step, target);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,266 @@
+package com.rman.de.core;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+/**
+ * <pre>public final class UnitType</pre>
+ *
+ * <p> The definition of a kind of unit: its base stats, cooldown, experience, projectile, and sprites. A unit type
+ * is a flyweight that is shared by all units of the type and never changes; the boosts that a game gives to all
+ * units of a type are kept per game by {@link UnitStats UnitStats}. The types are loaded by
+ * {@link UnitTypeRegistry UnitTypeRegistry} from a definition file. </p>
+ *
+ * <p> What a unit does on the grid is decided by its type's {@link #getRole() role}, so a new kind of unit only
+ * needs a new definition, not a new class. </p>
+ *
+ * @author Arman
+ */
+public final class UnitType {
+
+	// Roles
+	/**
+	 * A unit that the player places and that shoots at the attackers in its column.
+	 */
+	public static final int DEFENDER = 0;
+	/**
+	 * A unit that is spawned by the waves, walks down towards the building, and attacks the defender in front
+	 * of it.
+	 */
+	public static final int ATTACKER = 1;
+	/**
+	 * The number of roles.
+	 */
+	public static final int NUM_ROLES = 2;
+
+	// The IDs of the types that the game refers to; they must be the first types in the definition file
+	public static final int SHOOTER = 0;
+	public static final int ENEMY = 1;
+
+	private final int id;
+	private final String name;
+	/**
+	 * The name shown to the player.
+	 */
+	private final String title;
+	/**
+	 * The name of this type in wave info files, or null if it isn't spawned by waves.
+	 */
+	private final String code;
+	private final int role;
+	/**
+	 * The direction that units of this type face when they are placed.
+	 */
+	private final int direction;
+
+	private final int baseHealth;
+	private final int strength;
+	/**
+	 * The speed of a unit (in pixels per optimal frame).
+	 */
+	private final double speed;
+	/**
+	 * The time a unit has to wait between attacks (in seconds).
+	 */
+	private final double cooldown;
+	private final int goldValue;
+	private final int xpValue;
+	/**
+	 * The experience a unit needs to reach each level after the first.
+	 */
+	private final int[] xpTable;
+
+	/**
+	 * The kind of projectile that units of this type fire, or -1 if they don't fire any.
+	 */
+	private final int projectile;
+	/**
+	 * The image of this type's sprite sheet, relative to the game's resources.
+	 */
+	private final String spriteSheet;
+	/**
+	 * The duration of each frame of the attacking animations (in milliseconds).
+	 */
+	private final double attackFrameDuration;
+
+	/**
+	 * <pre>UnitType(int id, {@link String String} name, {@link Map Map}&lt;String, String&gt; properties)</pre>
+	 *
+	 * <p> Constructs a unit type from the properties of its definition (see {@link UnitTypeRegistry
+	 * UnitTypeRegistry}). </p>
+	 *
+	 * @param id - The type's ID
+	 * @param name - The type's name
+	 * @param properties - The type's properties
+	 *
+	 * @throws IOException If a property is missing or invalid
+	 */
+	UnitType(int id, String name, Map<String, String> properties) throws IOException {
+		this.id = id;
+		this.name = name;
+		this.title = properties.containsKey("title") ? properties.get("title") : name;
+		this.code = properties.get("code");
+
+		String role = get(properties, "role");
+		if (role.equals("defender")) {
+			this.role = DEFENDER;
+		} else if (role.equals("attacker")) {
+			this.role = ATTACKER;
+		} else {
+			throw new IOException(name + ": unknown role \"" + role + "\"");
+		}
+
+		String direction = get(properties, "direction");
+		if (direction.equals("up")) {
+			this.direction = Unit.UP;
+		} else if (direction.equals("down")) {
+			this.direction = Unit.DOWN;
+		} else if (direction.equals("right")) {
+			this.direction = Unit.RIGHT;
+		} else if (direction.equals("left")) {
+			this.direction = Unit.LEFT;
+		} else {
+			throw new IOException(name + ": unknown direction \"" + direction + "\"");
+		}
+
+		String projectile = properties.containsKey("projectile") ? properties.get("projectile") : "none";
+		if (projectile.equals("arrow")) {
+			this.projectile = Projectile.ARROW;
+		} else if (projectile.equals("none")) {
+			this.projectile = -1;
+		} else {
+			throw new IOException(name + ": unknown projectile \"" + projectile + "\"");
+		}
+
+		try {
+			this.baseHealth = Integer.parseInt(get(properties, "health"));
+			this.strength = Integer.parseInt(get(properties, "strength"));
+			this.speed = Double.parseDouble(get(properties, "speed"));
+			this.cooldown = Double.parseDouble(get(properties, "cooldown"));
+			this.goldValue = Integer.parseInt(get(properties, "gold"));
+			this.xpValue = Integer.parseInt(get(properties, "xp"));
+			this.attackFrameDuration = Double.parseDouble(get(properties, "attack frame duration"));
+
+			StringTokenizer levels = new StringTokenizer(properties.containsKey("levels") ? properties.get("levels") : "");
+			this.xpTable = new int[levels.countTokens()];
+			for (int i = 0; i < this.xpTable.length; i++) {
+				this.xpTable[i] = Integer.parseInt(levels.nextToken());
+			}
+		} catch (NumberFormatException e) {
+			throw new IOException(name + ": invalid number", e);
+		}
+		this.spriteSheet = get(properties, "sprites");
+	}
+
+	private static String get(Map<String, String> properties, String key) throws IOException {
+		String value = properties.get(key);
+		if (value == null) {
+			throw new IOException("Missing property \"" + key + "\"");
+		}
+		return value;
+	}
+
+	public int getID() {
+		return this.id;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public String getCode() {
+		return this.code;
+	}
+
+	/**
+	 * <pre>public int getRole()</pre>
+	 *
+	 * <p> Gets what units of this type do on the grid. </p>
+	 *
+	 * @return {@link #DEFENDER DEFENDER} or {@link #ATTACKER ATTACKER}
+	 */
+	public int getRole() {
+		return this.role;
+	}
+
+	public int getDirection() {
+		return this.direction;
+	}
+
+	/**
+	 * <pre>public int getBaseHealth()</pre>
+	 *
+	 * <p> Gets the health of a unit of this type without any boosts. See {@link UnitStats#getBaseHealth(int)
+	 * UnitStats.getBaseHealth()} for the health with the boosts of a game. </p>
+	 *
+	 * @return The base health
+	 */
+	public int getBaseHealth() {
+		return this.baseHealth;
+	}
+
+	public int getStrength() {
+		return this.strength;
+	}
+
+	public double getSpeed() {
+		return this.speed;
+	}
+
+	public double getCooldown() {
+		return this.cooldown;
+	}
+
+	public int getGoldValue() {
+		return this.goldValue;
+	}
+
+	public int getXPValue() {
+		return this.xpValue;
+	}
+
+	/**
+	 * <pre>public int getNumLevels()</pre>
+	 *
+	 * <p> Gets the number of levels that a unit of this type can gain after the first. </p>
+	 *
+	 * @return The number of levels
+	 */
+	public int getNumLevels() {
+		return this.xpTable.length;
+	}
+
+	/**
+	 * <pre>public int getXPToLevelUp(int level)</pre>
+	 *
+	 * <p> Gets the experience that a unit of this type needs to level up from a level. </p>
+	 *
+	 * @param level - The level, from 1 to {@link #getNumLevels() getNumLevels()}
+	 *
+	 * @return The experience
+	 */
+	public int getXPToLevelUp(int level) {
+		return this.xpTable[level - 1];
+	}
+
+	public int getProjectile() {
+		return this.projectile;
+	}
+
+	public String getSpriteSheet() {
+		return this.spriteSheet;
+	}
+
+	public double getAttackFrameDuration() {
+		return this.attackFrameDuration;
+	}
+
+	public String toString() {
+		return this.name + " (ID: " + this.id + ")";
+	}
+}
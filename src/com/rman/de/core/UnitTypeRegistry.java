@@ -0,0 +1,131 @@
+package com.rman.de.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>public class UnitTypeRegistry</pre>
+ *
+ * <p> Holds the {@link UnitType UnitType} of every unit ID. The types are loaded once from the definition file
+ * <code>res/unittypes.de</code>, where each type starts with its name in brackets on a line of its own, followed
+ * by lines of <code>property = value</code>. Empty lines and lines that start with <code>//</code> are skipped.
+ * The types are given IDs in the order they are defined, so the types that the game refers to by ID
+ * ({@link UnitType#SHOOTER SHOOTER} and {@link UnitType#ENEMY ENEMY}) must come first. </p>
+ *
+ * <p> A unit only keeps a reference to its type, so looking up a type is an array access, and adding types
+ * doesn't change the cost of updating the grid. </p>
+ *
+ * @author Arman
+ */
+public class UnitTypeRegistry {
+
+	private static final UnitType[] types;
+
+	static {
+		try {
+			types = load(UnitTypeRegistry.class.getResource("res/unittypes.de"));
+		} catch (IOException e) {
+			throw new IllegalStateException("The unit types could not be loaded", e);
+		}
+		if (types.length <= UnitType.ENEMY || !types[UnitType.SHOOTER].getName().equals("Shooter")
+				|| !types[UnitType.ENEMY].getName().equals("Enemy")) {
+			throw new IllegalStateException("The unit types must start with Shooter and Enemy");
+		}
+	}
+
+	/**
+	 * <pre>public static {@link UnitType UnitType} get(int id)</pre>
+	 *
+	 * <p> Gets the type of a unit ID. </p>
+	 *
+	 * @param id - The unit ID
+	 *
+	 * @return The unit type
+	 */
+	public static UnitType get(int id) {
+		return types[id];
+	}
+
+	public static int getNumTypes() {
+		return types.length;
+	}
+
+	/**
+	 * <pre>public static {@link UnitType UnitType} forCode({@link String String} code)</pre>
+	 *
+	 * <p> Gets the unit type with a name in wave info files (see {@link UnitType#getCode() getCode()}). The case
+	 * of the name is ignored. </p>
+	 *
+	 * @param code - The name in wave info files
+	 *
+	 * @return The unit type, or null if there is none with the name
+	 */
+	public static UnitType forCode(String code) {
+		for (UnitType type : types) {
+			if (type.getCode() != null && type.getCode().equalsIgnoreCase(code)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * <pre>static {@link UnitType UnitType}[] load({@link URL URL} file)</pre>
+	 *
+	 * <p> Loads the unit types of a definition file. </p>
+	 *
+	 * @param file - The location of the definition file
+	 *
+	 * @return The unit types, in the order of their IDs
+	 *
+	 * @throws IOException If the file can't be read or isn't a valid definition file
+	 */
+	static UnitType[] load(URL file) throws IOException {
+		if (file == null) {
+			throw new IOException("The definition file does not exist");
+		}
+
+		List<UnitType> loaded = new ArrayList<UnitType>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(file.openStream(), StandardCharsets.UTF_8));
+		try {
+			String name = null;
+			Map<String, String> properties = new HashMap<String, String>();
+			String line;
+			int lineNumber = 0;
+			while ((line = in.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+
+				if (line.startsWith("[") && line.endsWith("]")) {
+					if (name != null) {
+						loaded.add(new UnitType(loaded.size(), name, properties));
+					}
+					name = line.substring(1, line.length() - 1).trim();
+					properties = new HashMap<String, String>();
+				} else {
+					int equals = line.indexOf('=');
+					if (name == null || equals == -1) {
+						throw new IOException("Line " + lineNumber + ": expected a [type] or a property");
+					}
+					properties.put(line.substring(0, equals).trim(), line.substring(equals + 1).trim());
+				}
+			}
+			if (name != null) {
+				loaded.add(new UnitType(loaded.size(), name, properties));
+			}
+		} finally {
+			in.close();
+		}
+		return loaded.toArray(new UnitType[loaded.size()]);
+	}
+}
@@ -0,0 +1,193 @@
+package com.rman.de.core;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.zip.CRC32;
+
+/**
+ * <pre>public class WaveCompiler</pre>
+ *
+ * <p> Compiles a wave info file from its text format to the binary wave table that {@link WaveInfoReader
+ * WaveInfoReader} reads. In the text format, each wave starts with an empty line, lines that start with
+ * <code>//</code> are comments, and every other line is a spawn: its time after the start of the wave (in
+ * seconds), followed by groups of units such as <code>2e</code> (a count, which is 1 if it's left out, then a
+ * unit type). The compiler interns the unit types, expands the groups into one unit type per unit, and sorts each
+ * wave's spawns by time, so none of that is done while the game is running. A unit type that isn't known (see
+ * {@link UnitTypeRegistry#forCode(String) forCode()}) is an error. </p>
+ *
+ * <p> It can be run on its own to compile a file ahead of time: <code>WaveCompiler waveinfo.de waveinfo.dew</code>.
+ * </p>
+ *
+ * @author Arman
+ */
+public class WaveCompiler {
+
+	/**
+	 * <pre>public static {@link ByteBuffer ByteBuffer} compile({@link ByteBuffer ByteBuffer} source)</pre>
+	 *
+	 * <p> Compiles a wave info file. </p>
+	 *
+	 * @param source - The contents of the wave info file in the text format
+	 *
+	 * @return The compiled wave table
+	 *
+	 * @throws IOException If the file isn't a valid wave info file
+	 */
+	public static ByteBuffer compile(ByteBuffer source) throws IOException {
+		CRC32 checksum = new CRC32();
+		checksum.update(source.duplicate());
+		BufferedReader in = new BufferedReader(new StringReader(StandardCharsets.ISO_8859_1.decode(source.duplicate()).toString()));
+
+		List<String> unitTypes = new ArrayList<String>();
+		Map<String, Integer> unitTypeIndexes = new HashMap<String, Integer>();
+		List<List<Spawn>> waves = new ArrayList<List<Spawn>>();
+
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			if (line.length() <= 1) {
+				waves.add(new ArrayList<Spawn>());
+			} else if (!line.startsWith("//")) {
+				if (waves.isEmpty()) {
+					throw new IOException("Line " + lineNumber + ": a spawn must come after the empty line that starts a wave");
+				}
+				try {
+					StringTokenizer st = new StringTokenizer(line);
+					double time = Double.parseDouble(st.nextToken());
+					ByteArrayOutputStream units = new ByteArrayOutputStream();
+					while (st.hasMoreTokens()) {
+						String token = st.nextToken();
+						int digits = 0;
+						while (digits < token.length() - 1 && Character.isDigit(token.charAt(digits))) {
+							digits++;
+						}
+						int amount = digits > 0 ? Integer.parseInt(token.substring(0, digits)) : 1;
+						String unitType = token.substring(digits);
+
+						Integer index = unitTypeIndexes.get(unitType);
+						if (index == null) {
+							if (WaveInfoReader.getUnitID(unitType) == -1) {
+								throw new IOException("Line " + lineNumber + ": unknown unit type \"" + unitType + "\"");
+							}
+							if (unitTypes.size() == 255) {
+								throw new IOException("Line " + lineNumber + ": more than 255 unit types");
+							}
+							index = unitTypes.size();
+							unitTypes.add(unitType);
+							unitTypeIndexes.put(unitType, index);
+						}
+						for (int count = 0; count < amount; count++) {
+							units.write(index);
+						}
+					}
+					if (units.size() > 0xFFFF) {
+						throw new IOException("Line " + lineNumber + ": more than " + 0xFFFF + " units in one spawn");
+					}
+					waves.get(waves.size() - 1).add(new Spawn((long) Math.ceil(time * 1000000000L), units.toByteArray()));
+				} catch (RuntimeException e) {
+					throw new IOException("Line " + lineNumber + ": invalid spawn \"" + line + "\"", e);
+				}
+			}
+		}
+
+		// Header
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(WaveInfoReader.MAGIC);
+		out.writeShort(WaveInfoReader.VERSION);
+		out.writeLong(checksum.getValue());
+		out.writeByte(unitTypes.size());
+		for (String unitType : unitTypes) {
+			byte[] name = unitType.getBytes(StandardCharsets.UTF_8);
+			out.writeShort(name.length);
+			out.write(name);
+		}
+		out.writeInt(waves.size());
+
+		// The offsets of the waves, which start after the offsets
+		int offset = out.size() + waves.size() * 4;
+		for (List<Spawn> spawns : waves) {
+			out.writeInt(offset);
+			offset += 4;
+			for (Spawn spawn : spawns) {
+				offset += 8 + 2 + spawn.units.length;
+			}
+		}
+
+		// The spawns of each wave, sorted by time (spawns at the same time stay in the order they were written)
+		for (List<Spawn> spawns : waves) {
+			Collections.sort(spawns);
+			out.writeInt(spawns.size());
+			for (Spawn spawn : spawns) {
+				out.writeLong(spawn.time);
+				out.writeShort(spawn.units.length);
+				out.write(spawn.units);
+			}
+		}
+		out.close();
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: WaveCompiler <wave info file> <compiled file>");
+			System.exit(1);
+		}
+
+		write(compile(ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[0])))), Paths.get(args[1]));
+	}
+
+	/**
+	 * <pre>public static void write({@link ByteBuffer ByteBuffer} table, {@link Path Path} output)</pre>
+	 *
+	 * <p> Writes a compiled wave table to a file, replacing the file if it exists. </p>
+	 *
+	 * @param table - The compiled wave table
+	 * @param output - The file to write
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	public static void write(ByteBuffer table, Path output) throws IOException {
+		table = table.duplicate();
+		FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (table.hasRemaining()) {
+				channel.write(table);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static class Spawn implements Comparable<Spawn> {
+		final long time;
+		final byte[] units;
+
+		Spawn(long time, byte[] units) {
+			this.time = time;
+			this.units = units;
+		}
+
+		public int compareTo(Spawn other) {
+			return Long.compare(this.time, other.time);
+		}
+	}
+}
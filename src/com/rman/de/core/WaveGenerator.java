@@ -0,0 +1,225 @@
+package com.rman.de.core;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <pre>public class WaveGenerator</pre>
+ *
+ * <p> Generates the waves of endless mode, which come after the last wave of the wave info file. A wave is
+ * generated from a difficulty curve: the number of enemies grows with the wave, the spawns get larger and closer
+ * together, and the spawns are as wide as the allowed columns of the wave (see
+ * {@link Simulation#getAllowedColumns(int) getAllowedColumns()}). The enemies themselves get stronger every few
+ * waves through the boosts of the {@link Simulation Simulation}. </p>
+ *
+ * <p> The waves are generated on a background thread, which stays {@link #WAVES_AHEAD WAVES_AHEAD} waves ahead
+ * of the wave being played, so starting a wave never waits for one to be generated. A wave only depends on the
+ * simulation's seed and the wave's number, so it is the same no matter when or on which thread it is generated,
+ * and a game in endless mode can still be replayed and saved. </p>
+ *
+ * @author Arman
+ */
+public class WaveGenerator {
+
+	/**
+	 * The number of waves that are generated ahead of the wave being played.
+	 */
+	public static final int WAVES_AHEAD = 3;
+
+	/**
+	 * The unit ID of the only unit type in a generated wave.
+	 */
+	private static final int[] UNIT_IDS = {UnitType.ENEMY};
+
+	private Simulation sim;
+	private ExecutorService executor;
+	/**
+	 * The waves that have been handed to the background thread and haven't been played yet.
+	 */
+	private Map<Integer, Future<ByteBuffer>> pending;
+
+	/**
+	 * <pre>public WaveGenerator({@link Simulation Simulation} sim)</pre>
+	 *
+	 * <p> Constructs a generator for the waves of a simulation and starts its background thread. </p>
+	 *
+	 * @param sim - The simulation that the waves are for
+	 */
+	public WaveGenerator(Simulation sim) {
+		this.sim = sim;
+		this.pending = new HashMap<Integer, Future<ByteBuffer>>();
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Wave Generator");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * <pre>public void prepare(int wave)</pre>
+	 *
+	 * <p> Starts generating the given wave and the {@link #WAVES_AHEAD WAVES_AHEAD} waves after it on the
+	 * background thread, if they aren't being generated already. </p>
+	 *
+	 * @param wave - The first wave to generate
+	 */
+	public void prepare(int wave) {
+		for (int w = wave; w <= wave + WAVES_AHEAD; w++) {
+			if (!this.pending.containsKey(w)) {
+				final int generatedWave = w;
+				final long seed = this.sim.getSeed();
+				final int numPositions = this.sim.getAllowedColumns(w) * 2;
+				this.pending.put(w, this.executor.submit(new Callable<ByteBuffer>() {
+					public ByteBuffer call() {
+						return generate(seed, generatedWave, numPositions);
+					}
+				}));
+			}
+		}
+	}
+
+	/**
+	 * <pre>public {@link WaveInfo WaveInfo} getWaveInfo(int wave)</pre>
+	 *
+	 * <p> Gets a generated wave, and starts generating the waves after it. If the background thread hasn't
+	 * finished the wave yet, it is generated right away instead of waiting for the thread. </p>
+	 *
+	 * @param wave - The wave, starting at 1
+	 *
+	 * @return The wave
+	 */
+	public WaveInfo getWaveInfo(int wave) {
+		// Waves before this one won't be asked for again
+		Iterator<Map.Entry<Integer, Future<ByteBuffer>>> it = this.pending.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer, Future<ByteBuffer>> entry = it.next();
+			if (entry.getKey() < wave) {
+				entry.getValue().cancel(false);
+				it.remove();
+			}
+		}
+
+		int numPositions = this.sim.getAllowedColumns(wave) * 2;
+		Future<ByteBuffer> future = this.pending.remove(wave);
+		ByteBuffer table = null;
+		if (future != null && future.isDone()) {
+			try {
+				table = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// Generate it again below
+			}
+		} else if (future != null) {
+			future.cancel(false);
+		}
+		if (table == null) {
+			table = generate(this.sim.getSeed(), wave, numPositions);
+		}
+
+		prepare(wave + 1);
+		return new WaveInfo(table, 0, numPositions / 2, UNIT_IDS, Simulation.mix(this.sim.getSeed(), wave));
+	}
+
+	/**
+	 * <pre>public void stop()</pre>
+	 *
+	 * <p> Stops the background thread. The generator can't be used after this. </p>
+	 */
+	public void stop() {
+		this.executor.shutdownNow();
+		this.pending.clear();
+	}
+
+	/**
+	 * <pre>public static int getNumEnemies(int wave)</pre>
+	 *
+	 * <p> Gets the number of enemies in a generated wave. It grows a little faster than linearly, so late waves
+	 * fill the grid. </p>
+	 *
+	 * @param wave - The wave
+	 *
+	 * @return The number of enemies
+	 */
+	public static int getNumEnemies(int wave) {
+		return 3 * wave + wave * wave / 20;
+	}
+
+	/**
+	 * <pre>public static int getMaxSpawnSize(int wave, int numPositions)</pre>
+	 *
+	 * <p> Gets the largest number of enemies in one spawn of a generated wave. </p>
+	 *
+	 * @param wave - The wave
+	 * @param numPositions - The number of positions that enemies can spawn on
+	 *
+	 * @return The largest spawn
+	 */
+	public static int getMaxSpawnSize(int wave, int numPositions) {
+		return Math.max(1, Math.min(numPositions, 2 + wave / 5));
+	}
+
+	/**
+	 * <pre>public static long getSpawnInterval(int wave)</pre>
+	 *
+	 * <p> Gets the average time between the spawns of a generated wave, which goes down from 2 seconds to a
+	 * quarter of a second. </p>
+	 *
+	 * @param wave - The wave
+	 *
+	 * @return The average time between spawns (in nanoseconds)
+	 */
+	public static long getSpawnInterval(int wave) {
+		return Math.max(250000000L, 2000000000L - wave * 20000000L);
+	}
+
+	/**
+	 * <pre>static {@link ByteBuffer ByteBuffer} generate(long seed, int wave, int numPositions)</pre>
+	 *
+	 * <p> Generates a wave in the format of a wave in a compiled wave table (see {@link WaveInfoReader
+	 * WaveInfoReader}), with a single unit type. </p>
+	 *
+	 * @param seed - The seed of the simulation
+	 * @param wave - The wave
+	 * @param numPositions - The number of positions that enemies can spawn on
+	 *
+	 * @return The wave
+	 */
+	static ByteBuffer generate(long seed, int wave, int numPositions) {
+		int numEnemies = getNumEnemies(wave);
+		int maxSpawnSize = getMaxSpawnSize(wave, numPositions);
+		long interval = getSpawnInterval(wave);
+
+		ByteBuffer table = ByteBuffer.allocate(4 + numEnemies * (10 + maxSpawnSize));
+		table.putInt(0);
+		long random = Simulation.mix(Simulation.mix(seed, wave), -1L);
+		long time = 0L;
+		int numSpawns = 0;
+		for (int left = numEnemies; left > 0; numSpawns++) {
+			random = Simulation.mix(random, numSpawns);
+			int size = Math.min(left, 1 + (int) (((random >>> 32) * maxSpawnSize) >>> 32));
+			table.putLong(time);
+			table.putShort((short) size);
+			for (int i = 0; i < size; i++) {
+				table.put((byte) 0);
+			}
+			left -= size;
+
+			// The next spawn comes after half to one and a half of the average interval
+			time += interval / 2 + (random & 0xFFFFFFFFL) * interval / 0x100000000L;
+		}
+		table.putInt(0, numSpawns);
+		table.flip();
+		return table;
+	}
+}
@@ -1,76 +1,122 @@
 package com.rman.de.core;
 
-import java.util.Arrays;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.Random;
+import java.nio.ByteBuffer;
 
+/**
+ * <pre>public class WaveInfo</pre>
+ *
+ * <p> The spawns of one wave. The spawns are read from a compiled wave table (see {@link WaveInfoReader
+ * WaveInfoReader}) one at a time as they are taken out of the wave, so a wave doesn't hold more than one spawn in
+ * memory. </p>
+ *
+ * <p> The units of a spawn are placed on distinct positions with a random permutation of the positions. The
+ * permutation is seeded with the wave's seed and the number of the spawn in the wave, so the positions are the
+ * same every time the wave is read, no matter which waves were read before it. </p>
+ *
+ * @author Arman
+ */
 public class WaveInfo {
-	private Queue<Spawn> spawns;
-	private int numPositions;
-	
-	public WaveInfo(int numPositions) {
-		this.spawns = new PriorityQueue<Spawn>();
-		this.numPositions = numPositions;
-	}
-	
-	public void addSpawn(double time, Iterable<String> units) {
-		Spawn spawn = new Spawn(time, this.numPositions);
-		for (String unit : units) {
-			spawn.addSpawnPos(unit);
-		}
-		this.spawns.add(spawn);
+	private ByteBuffer table;
+	/**
+	 * The position of the next spawn in the table.
+	 */
+	private int nextSpawn;
+	private int numSpawnsLeft;
+	/**
+	 * The number of spawns that have been taken out of this wave.
+	 */
+	private int numExtracted;
+	/**
+	 * The unit ID of each unit type in the table.
+	 */
+	private int[] unitIDs;
+	private long seed;
+
+	/**
+	 * The unit IDs at the positions of the last spawn that was taken out, or -1 where there is no unit.
+	 */
+	private int[] positions;
+	/**
+	 * The permutation of the positions that the units of a spawn are placed on.
+	 */
+	private int[] order;
+
+	/**
+	 * <pre>WaveInfo({@link ByteBuffer ByteBuffer} table, int offset, int numPositions, int[] unitIDs, long seed)</pre>
+	 *
+	 * <p> Constructs a wave from its spawns in a compiled wave table. </p>
+	 *
+	 * @param table - The compiled wave table
+	 * @param offset - The position of the wave in the table
+	 * @param numPositions - The number of allowed columns on each side of the middle during this wave
+	 * @param unitIDs - The unit ID of each unit type in the table
+	 * @param seed - The seed of the permutations that place the units of each spawn
+	 */
+	WaveInfo(ByteBuffer table, int offset, int numPositions, int[] unitIDs, long seed) {
+		this.table = table;
+		this.numSpawnsLeft = table.getInt(offset);
+		this.nextSpawn = offset + 4;
+		this.unitIDs = unitIDs;
+		this.seed = seed;
+		this.positions = new int[numPositions * 2];
+		this.order = new int[numPositions * 2];
 	}
-	
+
 	public boolean isDone() {
-		return this.spawns.size() == 0;
+		return this.numSpawnsLeft == 0;
+	}
+
+	public int getNumSpawnsLeft() {
+		return this.numSpawnsLeft;
 	}
-	
-	public double nextTime() {
+
+	/**
+	 * <pre>public long nextSpawnTime()</pre>
+	 *
+	 * <p> Gets the time of the next spawn of this wave, measured from the start of the wave. </p>
+	 *
+	 * @return The time of the next spawn (in nanoseconds), or -1 if there are no spawns left
+	 */
+	public long nextSpawnTime() {
 		if (isDone())
-			return -1.0;
-		return this.spawns.peek().time;
+			return -1L;
+		return this.table.getLong(this.nextSpawn);
 	}
-	
-	public String[] extractNextSpawn() {
+
+	/**
+	 * <pre>public int[] extractNextSpawn()</pre>
+	 *
+	 * <p> Takes the next spawn out of this wave and places its units. The units are placed on the first positions
+	 * of a partial Fisher-Yates shuffle of the positions; if a spawn has more units than there are positions, the
+	 * rest aren't placed. The returned array is reused by the next call. </p>
+	 *
+	 * @return The unit ID at each position (-1 where there is no unit), or null if there are no spawns left
+	 */
+	public int[] extractNextSpawn() {
 		if (isDone())
 			return null;
-		return this.spawns.poll().positions;
-	}
-	
-	private static class Spawn implements Comparable<Spawn> {
-		double time;
-		String[] positions;
-		int numFilled;
-		Random rand;
-		
-		public Spawn(double time, int numPositions) {
-			this.time = time;
-			this.positions = new String[numPositions * 2];
-			Arrays.fill(this.positions, "");
-			this.numFilled = 0;
-			this.rand = new Random();
-		}
-		
-		public void addSpawnPos(String unitType) {
-			if (this.numFilled < this.positions.length) {
-				int pos = this.rand.nextInt(this.positions.length);
-				
-				while (this.positions[pos] != "") {
-					pos = (pos + 1) % this.positions.length;
-				}
-				this.positions[pos] = unitType;
-				this.numFilled++;
-			}
+
+		int numUnits = this.table.getShort(this.nextSpawn + 8) & 0xFFFF;
+		int unitsStart = this.nextSpawn + 10;
+		int numPositions = this.positions.length;
+		for (int i = 0; i < numPositions; i++) {
+			this.positions[i] = -1;
+			this.order[i] = i;
 		}
-		
-		public int compareTo(Spawn other) {
-			if (this.time < other.time) {
-				return -1;
-			} else if (this.time > other.time) {
-				return 1;
-			}
-			return 0;
+
+		long random = Simulation.mix(this.seed, this.numExtracted);
+		for (int i = 0; i < Math.min(numUnits, numPositions); i++) {
+			random = Simulation.mix(random, i);
+			int j = i + (int) (((random >>> 32) * (numPositions - i)) >>> 32);
+			int pos = this.order[j];
+			this.order[j] = this.order[i];
+			this.order[i] = pos;
+			this.positions[pos] = this.unitIDs[this.table.get(unitsStart + i) & 0xFF];
 		}
+
+		this.nextSpawn = unitsStart + numUnits;
+		this.numSpawnsLeft--;
+		this.numExtracted++;
+		return this.positions;
 	}
 }
@@ -1,52 +1,204 @@
 package com.rman.de.core;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.StringTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
+/**
+ * <pre>public class WaveInfoReader</pre>
+ *
+ * <p> Reads the waves of a {@link Simulation Simulation} from a compiled wave table (see
+ * {@link WaveCompiler WaveCompiler}). The table is memory-mapped, and a wave is only decoded when it is asked for
+ * with {@link #getWaveInfo(int) getWaveInfo()}, so a very long or generated campaign is loaded in constant memory.
+ * A wave info file in the text format, like the game's own, is compiled when it is opened, and the compiled table
+ * is written to a temporary file that is mapped in the same way. </p>
+ *
+ * <p> A compiled wave table starts with a header: </p>
+ *
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * long   checksum of the text file it was compiled from (CRC-32)
+ * byte   number of unit types
+ *        the name of each unit type (a short length, then the name in UTF-8)
+ * int    number of waves
+ * int    the offset of each wave from the start of the table
+ * </pre>
+ *
+ * <p> Each wave is its number of spawns, then the spawns sorted by time. A spawn is its time after the start of
+ * the wave (a long, in nanoseconds), its number of units (an unsigned short), and the unit type of each unit (one
+ * byte each, an index into the unit type names). </p>
+ *
+ * @author Arman
+ */
 public class WaveInfoReader {
-	
-	private static List<WaveInfo> waves;
-	
-	public static void loadWaveInfoFile(DefenseEvolution de, URL path) throws IOException, URISyntaxException {
-		BufferedReader in = new BufferedReader(new InputStreamReader(path.openStream()));
-		
-		waves = new ArrayList<WaveInfo>();
-		int index = -1;
-		String line = "";
-		while ((line = in.readLine()) != null) {
-			if (line.length() <= 1) {
-				index++;
-				waves.add(new WaveInfo(de.getAllowedColumns(index + 1)));
-			} else if (!line.startsWith("//")) {
-				StringTokenizer st = new StringTokenizer(line);
-				double time = Double.parseDouble(st.nextToken());
-				List<String> units = new LinkedList<String>();
-				while (st.hasMoreTokens()) {
-					String token = st.nextToken();
-					int amount = Integer.parseInt(token.substring(0, 1));
-					String unitType = token.substring(1);
-					for (int count = 0; count < amount; count++) {
-						units.add(unitType);
-					}
+
+	/**
+	 * The first four bytes of a compiled wave table ("DEWV").
+	 */
+	public static final int MAGIC = 0x44455756;
+	/**
+	 * The version of the compiled wave table format.
+	 */
+	public static final short VERSION = 1;
+
+	private ByteBuffer table;
+	private Simulation sim;
+
+	/**
+	 * The CRC-32 checksum of the wave info file that the table was compiled from.
+	 */
+	private long checksum;
+	/**
+	 * The unit ID of each unit type in the table.
+	 */
+	private int[] unitIDs;
+	private int numWaves;
+	/**
+	 * The position of the offset of the first wave in the table.
+	 */
+	private int offsetsStart;
+
+	/**
+	 * <pre>public WaveInfoReader({@link ByteBuffer ByteBuffer} table, {@link Simulation Simulation} sim)</pre>
+	 *
+	 * <p> Reads the header of a compiled wave table. </p>
+	 *
+	 * @param table - The compiled wave table
+	 * @param sim - The simulation that the waves are for
+	 *
+	 * @throws IOException If the table isn't a compiled wave table of this version, or has a unit type that isn't
+	 *         known
+	 */
+	public WaveInfoReader(ByteBuffer table, Simulation sim) throws IOException {
+		this.table = table;
+		this.sim = sim;
+
+		ByteBuffer in = table.duplicate();
+		if (in.remaining() < 4 || in.getInt() != MAGIC) {
+			throw new IOException("Not a compiled wave table");
+		}
+		short version = in.getShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported wave table version " + version + " (expected " + VERSION + ")");
+		}
+		this.checksum = in.getLong();
+
+		this.unitIDs = new int[in.get() & 0xFF];
+		for (int i = 0; i < this.unitIDs.length; i++) {
+			byte[] name = new byte[in.getShort() & 0xFFFF];
+			in.get(name);
+			String unitType = new String(name, StandardCharsets.UTF_8);
+			this.unitIDs[i] = getUnitID(unitType);
+			if (this.unitIDs[i] == -1) {
+				throw new IOException("Unknown unit type \"" + unitType + "\" in wave table");
+			}
+		}
+
+		this.numWaves = in.getInt();
+		this.offsetsStart = in.position();
+	}
+
+	/**
+	 * <pre>public static WaveInfoReader open({@link URL URL} path, {@link Simulation Simulation} sim)</pre>
+	 *
+	 * <p> Opens a wave info file. A compiled file on disk is memory-mapped. Any other file is read, and compiled if
+	 * it is in the text format; the compiled table is then written to a temporary file, which is deleted when the
+	 * program exits, and mapped, so the waves don't stay on the heap. </p>
+	 *
+	 * @param path - The location of the wave info file
+	 * @param sim - The simulation that the waves are for
+	 *
+	 * @return The reader of the file's waves
+	 *
+	 * @throws IOException If the file can't be read or compiled
+	 * @throws URISyntaxException
+	 */
+	public static WaveInfoReader open(URL path, Simulation sim) throws IOException, URISyntaxException {
+		ByteBuffer file;
+		if ("file".equals(path.getProtocol())) {
+			file = map(Paths.get(path.toURI()));
+		} else {
+			InputStream in = path.openStream();
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int length;
+				while ((length = in.read(buffer)) != -1) {
+					bytes.write(buffer, 0, length);
 				}
-				waves.get(index).addSpawn(time, units);
+				file = ByteBuffer.wrap(bytes.toByteArray());
+			} finally {
+				in.close();
 			}
 		}
-		
-		in.close();
+
+		if (file.remaining() < 4 || file.getInt(0) != MAGIC) {
+			Path compiled = Files.createTempFile("waveinfo", ".dew");
+			compiled.toFile().deleteOnExit();
+			WaveCompiler.write(WaveCompiler.compile(file), compiled);
+			file = map(compiled);
+		}
+		return new WaveInfoReader(file, sim);
+	}
+
+	private static ByteBuffer map(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * <pre>public static int getUnitID(String unitType)</pre>
+	 *
+	 * <p> Gets the unit ID of a unit type in a wave info file. </p>
+	 *
+	 * @param unitType - The name of the unit type
+	 *
+	 * @return The unit ID, or -1 if the unit type isn't known
+	 */
+	public static int getUnitID(String unitType) {
+		UnitType type = UnitTypeRegistry.forCode(unitType);
+		return type != null ? type.getID() : -1;
+	}
+
+	public long getChecksum() {
+		return this.checksum;
 	}
-	
-	public static WaveInfo getWaveInfo(int wave) {
-		if (wave <= waves.size()) {
-			return waves.get(wave - 1);
+
+	public int getNumWaves() {
+		return this.numWaves;
+	}
+
+	/**
+	 * <pre>public {@link WaveInfo WaveInfo} getWaveInfo(int wave)</pre>
+	 *
+	 * <p> Gets a wave from the start. The wave's spawns are read from the table as they are taken out of it, and
+	 * the positions of their units are chosen with a permutation that only depends on the simulation's
+	 * {@link Simulation#getSeed() seed} and the wave, so a wave is the same every time it is read. </p>
+	 *
+	 * @param wave - The wave, starting at 1
+	 *
+	 * @return The wave, or null if there is no such wave
+	 */
+	public WaveInfo getWaveInfo(int wave) {
+		if (wave < 1 || wave > this.numWaves) {
+			return null;
 		}
-		return null;
+		int offset = this.table.getInt(this.offsetsStart + (wave - 1) * 4);
+		return new WaveInfo(this.table, offset, this.sim.getAllowedColumns(wave), this.unitIDs,
+				Simulation.mix(this.sim.getSeed(), wave));
 	}
 }
@@ -1,6 +1,7 @@
 package com.rman.engine;
 
 import com.rman.engine.graphics.Animation;
+import com.rman.engine.graphics.AnimationClip;
 import com.rman.engine.graphics.Color;
 import com.rman.engine.graphics.Renderer;
 import com.rman.engine.graphics.Texture;
@@ -33,6 +34,17 @@ public abstract class Entity {
 	 * textures will be scaled appropriately.
 	 */
 	private Animation animation;
+	/**
+	 * The {@link AnimationClip AnimationClip} that this entity is playing, which is
+	 * rendered instead of the animation and texture. The clip can be shared with
+	 * other entities; only the time this entity started playing it is kept here.
+	 */
+	private AnimationClip clip;
+	/**
+	 * The time (in nanoseconds of the renderer's clock) that this entity started
+	 * playing its clip, or -1 if the clip hasn't been rendered yet.
+	 */
+	private long clipStartTime = -1L;
 	
 	/**
 	 * The x-coordinate of this entity.
@@ -43,6 +55,16 @@ public abstract class Entity {
 	 */
 	protected float y;
 	
+	/**
+	 * The x-coordinate of this entity at the end of the previous tick. See
+	 * {@link #storePreviousPosition() storePreviousPosition()}.
+	 */
+	protected float previousX;
+	/**
+	 * The y-coordinate of this entity at the end of the previous tick.
+	 */
+	protected float previousY;
+	
 	/**
 	 * The width (in pixels) of this entity.
 	 */
@@ -76,6 +98,8 @@ public abstract class Entity {
 		this.name = name;
 		this.x = x;
 		this.y = y;
+		this.previousX = x;
+		this.previousY = y;
 		this.width = width;
 		this.height = height;
 		this.texture = texture;
@@ -101,6 +125,42 @@ public abstract class Entity {
 	public void setAnimation(Animation newAnimation) {
 		this.animation = newAnimation;
 	}
+	
+	public AnimationClip getClip() {
+		return this.clip;
+	}
+	
+	/**
+	 * <pre>public void setClip({@link AnimationClip AnimationClip} newClip)</pre>
+	 * 
+	 * <p> Sets the clip this entity plays. If the clip is different from the current one, it is played from its
+	 * first frame the next time this entity is rendered; otherwise it keeps playing where it is. </p>
+	 * 
+	 * @param newClip - The clip to play, or null to render the animation or texture instead
+	 */
+	public void setClip(AnimationClip newClip) {
+		if (newClip != this.clip) {
+			this.clip = newClip;
+			this.clipStartTime = -1L;
+		}
+	}
+	
+	/**
+	 * <pre>public {@link Texture Texture} getClipFrame(long timeNow)</pre>
+	 * 
+	 * <p> Gets the frame of this entity's clip at a time. The first call after the clip is set marks the time
+	 * the clip started. </p>
+	 * 
+	 * @param timeNow - The current time (in nanoseconds) of the clock that drives the clip
+	 * 
+	 * @return The frame's texture
+	 */
+	public Texture getClipFrame(long timeNow) {
+		if (this.clipStartTime == -1L) {
+			this.clipStartTime = timeNow;
+		}
+		return this.clip.getFrame(timeNow - this.clipStartTime);
+	}
 
 	public float getWidth() {
 		return this.width;
@@ -147,6 +207,44 @@ public abstract class Entity {
 		return this.rot;
 	}
 	
+	/**
+	 * <pre>public void storePreviousPosition()</pre>
+	 * 
+	 * <p> Stores this entity's current position as its previous position. This should be called right before
+	 * each tick's {@link #update(double) update()}, so that {@link #render(Renderer) render()} can draw the
+	 * entity between its previous and current positions. </p>
+	 */
+	public void storePreviousPosition() {
+		this.previousX = this.x;
+		this.previousY = this.y;
+	}
+	
+	/**
+	 * <pre>public float getRenderX(double interpolation)</pre>
+	 * 
+	 * <p> Gets the x-coordinate this entity should be drawn at, between its previous and current positions. </p>
+	 * 
+	 * @param interpolation - How far (from 0 to 1) the frame is between the previous tick and the current one
+	 * 
+	 * @return The interpolated x-coordinate
+	 */
+	public float getRenderX(double interpolation) {
+		return (float) (this.previousX + (this.x - this.previousX) * interpolation);
+	}
+	
+	/**
+	 * <pre>public float getRenderY(double interpolation)</pre>
+	 * 
+	 * <p> Gets the y-coordinate this entity should be drawn at, between its previous and current positions. </p>
+	 * 
+	 * @param interpolation - How far (from 0 to 1) the frame is between the previous tick and the current one
+	 * 
+	 * @return The interpolated y-coordinate
+	 */
+	public float getRenderY(double interpolation) {
+		return (float) (this.previousY + (this.y - this.previousY) * interpolation);
+	}
+	
 	public void moveUp(float amount) {
 		this.y -= amount;
 	}
@@ -165,15 +263,41 @@ public abstract class Entity {
 
 	public abstract void update(double delta);
 
+	/**
+	 * <pre>public void render({@link Renderer Renderer} renderer)</pre>
+	 * 
+	 * <p> Renders this entity if it's active, between its previous and current positions (see
+	 * {@link Renderer#getInterpolation() getInterpolation()}). If the renderer is batching (see
+	 * {@link Renderer#beginBatch() beginBatch()}), the entity's texture, animation frame, or clip frame is added to
+	 * the renderer's {@link com.rman.engine.graphics.SpriteBatch SpriteBatch}. </p>
+	 * 
+	 * @param renderer - The <code>Renderer</code> to draw with
+	 */
 	public void render(Renderer renderer) {
+		render(renderer, getRenderX(renderer.getInterpolation()), getRenderY(renderer.getInterpolation()));
+	}
+	
+	/**
+	 * <pre>public void render({@link Renderer Renderer} renderer, float renderX, float renderY)</pre>
+	 * 
+	 * <p> Renders this entity if it's active, at the given position instead of its interpolated one. This is for
+	 * entities whose drawn position is worked out by their owner, and doesn't change the entity's position. </p>
+	 * 
+	 * @param renderer - The <code>Renderer</code> to draw with
+	 * @param renderX - The x-coordinate to draw this entity at
+	 * @param renderY - The y-coordinate to draw this entity at
+	 */
+	public void render(Renderer renderer, float renderX, float renderY) {
 		if (isActive()) {
-			if (this.animation != null) {
-				renderer.drawAnimation(this.animation, this.x, this.y, this.width, this.height, this.rot);
+			if (this.clip != null) {
+				renderer.drawTexture(getClipFrame(renderer.getClock().nanoTime()), renderX, renderY, this.width, this.height, this.rot);
+			} else if (this.animation != null) {
+				renderer.drawAnimation(this.animation, renderX, renderY, this.width, this.height, this.rot);
 			} else if (this.texture != null) {
-				renderer.drawTexture(this.texture, this.x, this.y, this.width, this.height, this.rot);
+				renderer.drawTexture(this.texture, renderX, renderY, this.width, this.height, this.rot);
 			} else {
 				renderer.setColor(Color.WHITE);
-				renderer.fillRect(this.x, this.y, this.width, this.height, this.rot);
+				renderer.fillRect(renderX, renderY, this.width, this.height, this.rot);
 			}
 		}
 	}
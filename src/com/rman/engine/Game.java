@@ -54,10 +54,34 @@ public abstract class Game {
 	protected Mouse mouse;
 	
 	/**
-	 * The current time. This variable is updated on each iteration of the main game loop in {@link #run() run()}.
-	 * @see {@link System#nanoTime() System.nanoTime()}
+	 * The current time. This variable is updated before each call to {@link #update(double) update()} in the main
+	 * game loop in {@link #run() run()}.
+	 * @see {@link GameClock#nanoTime() GameClock.nanoTime()}
 	 */
 	protected long currentTime;
+	
+	/**
+	 * The clock that this game reads the time from. This is {@link GameClock#SYSTEM GameClock.SYSTEM} unless
+	 * a {@link #setTickRate(int) fixed tick rate} is set.
+	 */
+	protected GameClock clock = GameClock.SYSTEM;
+	
+	/**
+	 * The length of a tick (in nanoseconds) if this game uses a fixed tick rate, otherwise 0.
+	 */
+	private long tickLength;
+	
+	/**
+	 * How far (from 0 to 1) the current frame is between the last tick and the next tick. This is always 1 if
+	 * this game doesn't use a fixed tick rate.
+	 */
+	protected double interpolation = 1.0;
+	
+	/**
+	 * The longest amount of time (in nanoseconds) that is simulated in one frame when using a fixed tick rate.
+	 * This keeps the game from falling further and further behind if updating takes longer than a tick.
+	 */
+	private static final long MAX_FRAME_TIME = 250000000L;
 
 	/**
 	 * <pre>public Game({@link String String} title, int targetFPS)</pre>
@@ -98,6 +122,61 @@ public abstract class Game {
 		run();
 	}
 
+	/**
+	 * <pre>public void setTickRate(int ticksPerSecond)</pre>
+	 * 
+	 * <p> Makes this game update at a fixed rate instead of once per frame. Time is then read from a
+	 * {@link TickClock TickClock} that advances by exactly one tick before each call to
+	 * {@link #update(double) update()}, so the game's speed doesn't depend on the frame rate. Rendering
+	 * happens once per frame, and {@link #getInterpolation() getInterpolation()} tells how far the frame is
+	 * between two ticks. </p>
+	 * 
+	 * <p> This should be called at the start of {@link #init() init()}, before anything reads the clock. </p>
+	 * 
+	 * @param ticksPerSecond - The number of updates per second
+	 */
+	public void setTickRate(int ticksPerSecond) {
+		if (ticksPerSecond <= 0) {
+			throw new IllegalArgumentException("Tick rate must be greater than 0");
+		}
+		this.tickLength = 1000000000L / ticksPerSecond;
+		this.clock = new TickClock();
+		this.renderer.setClock(this.clock);
+	}
+	
+	/**
+	 * <pre>public boolean isFixedTick()</pre>
+	 * 
+	 * <p> Gets whether this game updates at a fixed tick rate. </p>
+	 * 
+	 * @return Whether a fixed tick rate is set
+	 */
+	public boolean isFixedTick() {
+		return this.tickLength > 0;
+	}
+	
+	/**
+	 * <pre>public {@link GameClock GameClock} getClock()</pre>
+	 * 
+	 * <p> Gets the clock that this game reads the time from. </p>
+	 * 
+	 * @return The clock
+	 */
+	public GameClock getClock() {
+		return this.clock;
+	}
+	
+	/**
+	 * <pre>public double getInterpolation()</pre>
+	 * 
+	 * <p> Gets how far (from 0 to 1) the current frame is between the last tick and the next tick. </p>
+	 * 
+	 * @return The interpolation factor
+	 */
+	public double getInterpolation() {
+		return this.interpolation;
+	}
+
 	/**
 	 * <pre>public void init()</pre>
 	 * 
@@ -138,7 +217,14 @@ public abstract class Game {
 	 * <p> During the loop, the time since the last update divided by the optimal 
 	 * time (delta) is calculated. Then, the {@link #update(double) update()} and
 	 * {@link #render() render()} methods are called, and the <code>Window</code>
-	 * is updated.
+	 * is updated. Textures drawn in <code>render()</code> are batched by the
+	 * <code>Renderer</code>.
+	 * 
+	 * <p> If a {@link #setTickRate(int) fixed tick rate} is set, the time of each
+	 * frame is added to an accumulator instead, and <code>update()</code> is called
+	 * once for every whole tick in the accumulator (with a constant delta). The rest
+	 * of the accumulator becomes the {@link #getInterpolation() interpolation} used
+	 * for rendering. </p>
 	 * 
 	 * <p> If an exception is thrown while the game is running, this method uses 
 	 * the {@link Log Log} class to print the error. </p>
@@ -149,22 +235,41 @@ public abstract class Game {
 	 */
 	private void run() {
 		long lastLoopTime = System.nanoTime();
+		long accumulator = 0L;
 		final long OPTIMAL_TIME = 1000000000L / this.window.getTargetFPS();
 
 		this.running = true;
 		try {
 			while (this.running) {
-				// Calculate delta
-				this.currentTime = System.nanoTime();
-				long updateTimeLength = this.currentTime - lastLoopTime;
-				lastLoopTime = this.currentTime;
-				double delta = updateTimeLength / ((double) OPTIMAL_TIME);
+				long now = System.nanoTime();
+				long updateTimeLength = now - lastLoopTime;
+				lastLoopTime = now;
 				
 				// Update the game
 				this.window.clear();
 				
-				update(delta);
+				if (isFixedTick()) {
+					accumulator += Math.min(updateTimeLength, MAX_FRAME_TIME);
+					double delta = this.tickLength / ((double) OPTIMAL_TIME);
+					while (accumulator >= this.tickLength) {
+						((TickClock) this.clock).advance(this.tickLength);
+						this.currentTime = this.clock.nanoTime();
+						update(delta);
+						accumulator -= this.tickLength;
+					}
+					this.interpolation = accumulator / ((double) this.tickLength);
+				} else {
+					// Calculate delta
+					this.currentTime = now;
+					double delta = updateTimeLength / ((double) OPTIMAL_TIME);
+					update(delta);
+				}
+				
+				this.renderer.setInterpolation(this.interpolation);
+				this.renderer.beginBatch();
 				render();
+				this.renderer.endBatch();
+				this.renderer.endFrame();
 	
 				this.window.updateWindow(this.renderer);
 	
@@ -0,0 +1,32 @@
+package com.rman.engine;
+
+/**
+ * <pre>public interface GameClock</pre>
+ * 
+ * <p> A source of time for the game. Game code should read the time from a <code>GameClock</code> instead of
+ * calling {@link System#nanoTime() System.nanoTime()} directly, so that the game can be run with a
+ * {@link TickClock TickClock} (for example, at a fixed tick rate or faster than real time). </p>
+ * 
+ * @author Arman
+ */
+public interface GameClock {
+	
+	/**
+	 * A clock that reads the system's time (see {@link System#nanoTime() System.nanoTime()}).
+	 */
+	public static final GameClock SYSTEM = new GameClock() {
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+	};
+	
+	/**
+	 * <pre>public long nanoTime()</pre>
+	 * 
+	 * <p> Gets the current time of this clock in nanoseconds. Like {@link System#nanoTime() System.nanoTime()},
+	 * the value is only meaningful when compared with other values from the same clock. </p>
+	 * 
+	 * @return The current time (in nanoseconds)
+	 */
+	public long nanoTime();
+}
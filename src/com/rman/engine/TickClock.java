@@ -0,0 +1,33 @@
+package com.rman.engine;
+
+/**
+ * <pre>public class TickClock implements GameClock</pre>
+ * 
+ * <p> A {@link GameClock GameClock} whose time only changes when it is {@link #advance(long) advanced}. The
+ * time starts at 0. This is used for fixed-tick simulation, where the clock is advanced by one tick before
+ * each update, and for running the game without a window. </p>
+ * 
+ * @author Arman
+ */
+public class TickClock implements GameClock {
+	
+	/**
+	 * The current time (in nanoseconds).
+	 */
+	private long time;
+	
+	public long nanoTime() {
+		return this.time;
+	}
+	
+	/**
+	 * <pre>public void advance(long nanos)</pre>
+	 * 
+	 * <p> Advances this clock by the given amount of time. </p>
+	 * 
+	 * @param nanos - The amount of time (in nanoseconds)
+	 */
+	public void advance(long nanos) {
+		this.time += nanos;
+	}
+}
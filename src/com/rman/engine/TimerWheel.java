@@ -0,0 +1,366 @@
+package com.rman.engine;
+
+import java.util.Arrays;
+
+/**
+ * <pre>public class TimerWheel</pre>
+ *
+ * <p> A hierarchical timing wheel that holds timers which expire at a time of a {@link GameClock GameClock}. Time
+ * is divided into ticks of a fixed length, and a timer is kept in one of {@link #LEVELS LEVELS} wheels of
+ * {@link #SLOTS SLOTS} slots each: the first wheel has a slot for each of the next <code>SLOTS</code> ticks, the
+ * second one has a slot for each of the next <code>SLOTS</code> groups of <code>SLOTS</code> ticks, and so on. When
+ * the first wheel goes around once, the timers in the next slot of the second wheel are moved down into the first
+ * wheel (and the same happens between the higher wheels). Scheduling and canceling a timer take constant time, and
+ * {@link #advance(long) advancing} the wheel only looks at the slots of the ticks that passed, so timers that
+ * aren't due yet cost nothing. </p>
+ *
+ * <p> A timer holds an <code>int</code> chosen by the code that scheduled it (for example, the slot of a unit).
+ * When the wheel is advanced, the values of all the timers that expired are collected into one array, which the
+ * caller goes through as a batch. A timer expires on the first tick that begins at or after its time, so if the
+ * clock doesn't move in whole ticks, a timer may expire up to one tick late, but never early. The wheel's ticks
+ * are counted from the first time it is given (to {@link #schedule(long, int) schedule()} or
+ * <code>advance()</code>). </p>
+ *
+ * @author Arman
+ */
+public class TimerWheel {
+
+	/**
+	 * The number of bits of the tick that select a slot in one wheel.
+	 */
+	private static final int SLOT_BITS = 6;
+	/**
+	 * The number of slots in each wheel.
+	 */
+	public static final int SLOTS = 1 << SLOT_BITS;
+	/**
+	 * The number of wheels. Timers that are further away than the last wheel reaches are kept in its furthest slot
+	 * until they come within reach.
+	 */
+	public static final int LEVELS = 4;
+
+	private static final int SLOT_MASK = SLOTS - 1;
+	/**
+	 * The furthest a timer can be from the current tick and still be put in the slot of its own tick.
+	 */
+	private static final long MAX_DISTANCE = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	/**
+	 * The length of a tick (in nanoseconds).
+	 */
+	private final long tickLength;
+	/**
+	 * The time of tick 0 (in nanoseconds).
+	 */
+	private long origin;
+	private boolean started;
+	/**
+	 * The last tick that was processed.
+	 */
+	private long currentTick;
+
+	/**
+	 * The first timer of each slot of each wheel, or -1 if a slot is empty. The slots of wheel <code>level</code>
+	 * start at <code>level * SLOTS</code>.
+	 */
+	private int[] heads;
+
+	// The timers, which are linked into the lists of the slots they are in
+	private long[] dueTick;
+	private int[] data;
+	private int[] next;
+	private int[] prev;
+	/**
+	 * The slot (in <code>heads</code>) of each timer, or -1 if the timer isn't scheduled.
+	 */
+	private int[] slotOf;
+
+	/**
+	 * The first timer that isn't in use. The free timers are linked through <code>next</code>.
+	 */
+	private int firstFree;
+	private int numScheduled;
+
+	/**
+	 * The values of the timers that expired in the last call to <code>advance()</code>.
+	 */
+	private int[] due;
+	private int numDue;
+
+	/**
+	 * <pre>public TimerWheel(long tickLength)</pre>
+	 *
+	 * <p> Constructs an empty timer wheel. </p>
+	 *
+	 * @param tickLength - The length of a tick (in nanoseconds); timers expire on tick boundaries
+	 */
+	public TimerWheel(long tickLength) {
+		this(tickLength, 64);
+	}
+
+	/**
+	 * <pre>public TimerWheel(long tickLength, int capacity)</pre>
+	 *
+	 * <p> Constructs an empty timer wheel. The wheel grows when more timers are scheduled than it has room for. </p>
+	 *
+	 * @param tickLength - The length of a tick (in nanoseconds); timers expire on tick boundaries
+	 * @param capacity - The initial number of timers
+	 */
+	public TimerWheel(long tickLength, int capacity) {
+		if (tickLength <= 0) {
+			throw new IllegalArgumentException("The tick length must be greater than 0");
+		}
+		this.tickLength = tickLength;
+		this.heads = new int[LEVELS * SLOTS];
+		Arrays.fill(this.heads, -1);
+
+		this.firstFree = -1;
+		resize(Math.max(capacity, 1));
+		this.due = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * <pre>public int schedule(long time, int value)</pre>
+	 *
+	 * <p> Schedules a timer. If the time has already passed, the timer expires the next time the wheel is
+	 * advanced by at least one tick. </p>
+	 *
+	 * @param time - The time the timer expires at (in nanoseconds of the clock that drives this wheel)
+	 * @param value - The value that is given back when the timer expires
+	 *
+	 * @return A handle to the timer, which can be used to {@link #cancel(int) cancel} it until it expires
+	 */
+	public int schedule(long time, int value) {
+		start(time);
+		if (this.firstFree == -1) {
+			resize(this.slotOf.length * 2);
+		}
+		int timer = this.firstFree;
+		this.firstFree = this.next[timer];
+
+		// Round up to the first tick that begins at or after the time
+		long tick = -Math.floorDiv(this.origin - time, this.tickLength);
+		this.dueTick[timer] = Math.max(tick, this.currentTick + 1);
+		this.data[timer] = value;
+		insert(timer);
+		this.numScheduled++;
+		return timer;
+	}
+
+	/**
+	 * <pre>public boolean cancel(int timer)</pre>
+	 *
+	 * <p> Cancels a timer so that it never expires. </p>
+	 *
+	 * @param timer - The handle that {@link #schedule(long, int) schedule()} returned for the timer
+	 *
+	 * @return Whether the timer was canceled (false if it had already expired or been canceled)
+	 */
+	public boolean cancel(int timer) {
+		if (timer < 0 || timer >= this.slotOf.length || this.slotOf[timer] == -1) {
+			return false;
+		}
+		unlink(timer);
+		free(timer);
+		this.numScheduled--;
+		return true;
+	}
+
+	/**
+	 * <pre>public int advance(long timeNow)</pre>
+	 *
+	 * <p> Advances this wheel to the given time and collects the timers that expired on the way. Their values
+	 * can be read from {@link #getDue() getDue()} until the wheel is advanced again. </p>
+	 *
+	 * @param timeNow - The current time (in nanoseconds of the clock that drives this wheel)
+	 *
+	 * @return The number of timers that expired
+	 */
+	public int advance(long timeNow) {
+		start(timeNow);
+		this.numDue = 0;
+
+		long targetTick = Math.floorDiv(timeNow - this.origin, this.tickLength);
+		while (this.currentTick < targetTick) {
+			if (this.numScheduled == 0) {
+				// Nothing can expire, so skip ahead
+				this.currentTick = targetTick;
+				break;
+			}
+			this.currentTick++;
+
+			// Move the timers of the next slot of each higher wheel down when the wheel below it goes around
+			for (int level = 1; level < LEVELS; level++) {
+				if ((this.currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+					break;
+				}
+				cascade(level * SLOTS + (int) ((this.currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+			}
+
+			// Collect the timers of this tick
+			int slot = (int) (this.currentTick & SLOT_MASK);
+			for (int timer = this.heads[slot]; timer != -1; ) {
+				int nextTimer = this.next[timer];
+				if (this.numDue == this.due.length) {
+					this.due = Arrays.copyOf(this.due, this.due.length * 2);
+				}
+				this.due[this.numDue++] = this.data[timer];
+				free(timer);
+				this.numScheduled--;
+				timer = nextTimer;
+			}
+			this.heads[slot] = -1;
+		}
+		return this.numDue;
+	}
+
+	/**
+	 * <pre>public int[] getDue()</pre>
+	 *
+	 * <p> Gets the values of the timers that expired in the last call to {@link #advance(long) advance()}. Only
+	 * the first {@link #getNumDue() getNumDue()} elements are used. </p>
+	 *
+	 * @return The values of the expired timers
+	 */
+	public int[] getDue() {
+		return this.due;
+	}
+
+	public int getNumDue() {
+		return this.numDue;
+	}
+
+	/**
+	 * <pre>public int size()</pre>
+	 *
+	 * <p> Gets the number of timers that are scheduled and haven't expired. </p>
+	 *
+	 * @return The number of scheduled timers
+	 */
+	public int size() {
+		return this.numScheduled;
+	}
+
+	public long getTickLength() {
+		return this.tickLength;
+	}
+
+	/**
+	 * <pre>public long getPhase(long timeNow)</pre>
+	 *
+	 * <p> Gets how long ago the last tick of this wheel began. A wheel with the same ticks relative to the current
+	 * time can be made again with {@link #setPhase(long, long) setPhase()}, for example when a saved game is
+	 * loaded. </p>
+	 *
+	 * @param timeNow - The current time (in nanoseconds of the clock that drives this wheel)
+	 *
+	 * @return The time since the last tick began (in nanoseconds), or -1 if this wheel hasn't been used yet
+	 */
+	public long getPhase(long timeNow) {
+		if (!this.started) {
+			return -1L;
+		}
+		return Math.floorMod(timeNow - this.origin, this.tickLength);
+	}
+
+	/**
+	 * <pre>public void setPhase(long timeNow, long phase)</pre>
+	 *
+	 * <p> Starts this wheel so that its last tick began the given time before now. This must be called before
+	 * the wheel is used. </p>
+	 *
+	 * @param timeNow - The current time (in nanoseconds of the clock that drives this wheel)
+	 * @param phase - The time since the last tick began (in nanoseconds), as given by
+	 * {@link #getPhase(long) getPhase()}; if it is -1, the wheel starts when it is first used
+	 */
+	public void setPhase(long timeNow, long phase) {
+		if (this.started) {
+			throw new IllegalStateException("The phase of a timer wheel can't be set after it is used");
+		}
+		if (phase != -1L) {
+			start(timeNow - phase);
+		}
+	}
+
+	private void start(long time) {
+		if (!this.started) {
+			this.origin = time;
+			this.currentTick = 0L;
+			this.started = true;
+		}
+	}
+
+	/**
+	 * <pre>private void insert(int timer)</pre>
+	 *
+	 * <p> Puts a timer into the slot of the lowest wheel that reaches its tick. The timer's tick must not be
+	 * before the current tick. </p>
+	 *
+	 * @param timer - The timer
+	 */
+	private void insert(int timer) {
+		long tick = this.dueTick[timer];
+		long distance = tick - this.currentTick;
+		if (distance > MAX_DISTANCE) {
+			tick = this.currentTick + MAX_DISTANCE;
+			distance = MAX_DISTANCE;
+		}
+
+		int level = 0;
+		while (distance >= (1L << (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		int slot = level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+		int head = this.heads[slot];
+		this.next[timer] = head;
+		this.prev[timer] = -1;
+		if (head != -1) {
+			this.prev[head] = timer;
+		}
+		this.heads[slot] = timer;
+		this.slotOf[timer] = slot;
+	}
+
+	private void cascade(int slot) {
+		int timer = this.heads[slot];
+		this.heads[slot] = -1;
+		while (timer != -1) {
+			int nextTimer = this.next[timer];
+			insert(timer);
+			timer = nextTimer;
+		}
+	}
+
+	private void unlink(int timer) {
+		int slot = this.slotOf[timer];
+		if (this.prev[timer] != -1) {
+			this.next[this.prev[timer]] = this.next[timer];
+		} else {
+			this.heads[slot] = this.next[timer];
+		}
+		if (this.next[timer] != -1) {
+			this.prev[this.next[timer]] = this.prev[timer];
+		}
+	}
+
+	private void free(int timer) {
+		this.slotOf[timer] = -1;
+		this.next[timer] = this.firstFree;
+		this.firstFree = timer;
+	}
+
+	private void resize(int capacity) {
+		int oldCapacity = this.slotOf == null ? 0 : this.slotOf.length;
+		this.dueTick = this.dueTick == null ? new long[capacity] : Arrays.copyOf(this.dueTick, capacity);
+		this.data = this.data == null ? new int[capacity] : Arrays.copyOf(this.data, capacity);
+		this.next = this.next == null ? new int[capacity] : Arrays.copyOf(this.next, capacity);
+		this.prev = this.prev == null ? new int[capacity] : Arrays.copyOf(this.prev, capacity);
+		this.slotOf = this.slotOf == null ? new int[capacity] : Arrays.copyOf(this.slotOf, capacity);
+
+		// Add the new timers to the free list, in order
+		for (int timer = capacity - 1; timer >= oldCapacity; timer--) {
+			free(timer);
+		}
+	}
+}
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 
 import org.lwjgl.util.Point;
 
+import com.rman.engine.GameClock;
+
 /**
  * An animation of a sprite.
  * 
@@ -37,7 +39,7 @@ public class Animation {
 	 */
 	private int currentFrame;
 	/**
-	 * The time that this animation was last updated (advanced a frame).
+	 * The time that this animation was last updated (advanced a frame), or -1 if it hasn't been updated yet.
 	 */
 	private long lastUpdate;
 
@@ -107,7 +109,7 @@ public class Animation {
 		this.shouldLoop = loop;
 
 		this.currentFrame = 0;
-		this.lastUpdate = System.nanoTime();
+		this.lastUpdate = -1L;
 		this.clip = new ArrayList<Frame>();
 
 		if (frames == null) { // No frames specified, so use all sprites in the spritesheet
@@ -153,13 +155,27 @@ public class Animation {
 	/**
 	 * <pre>public {@link Texture Texture} update()</pre>
 	 * 
-	 * <p> Updates the animation and returns the <code>Texture</code> of the animation's current frame. This method
-	 * should not be called; use {@link Renderer#drawAnimation(Animation, float, float, float, float, float)
-	 * Renderer.drawAnimation()} instead. </p>
+	 * <p> Updates the animation using the {@link GameClock#SYSTEM system clock} and returns the <code>Texture</code>
+	 * of the animation's current frame. This method should not be called; use
+	 * {@link Renderer#drawAnimation(Animation, float, float, float, float, float) Renderer.drawAnimation()} instead. </p>
 	 * 
 	 * @return This animation's current frame
 	 */
 	public Texture update() {
+		return update(GameClock.SYSTEM.nanoTime());
+	}
+
+	/**
+	 * <pre>public {@link Texture Texture} update(long timeNow)</pre>
+	 * 
+	 * <p> Updates the animation to the given time and returns the <code>Texture</code> of the animation's current
+	 * frame. </p>
+	 * 
+	 * @param timeNow - The current time (in nanoseconds) of the clock that drives this animation
+	 * 
+	 * @return This animation's current frame
+	 */
+	public Texture update(long timeNow) {
 		if (!this.isPlaying || this.clip.size() == 0) {
 			return null;
 		}
@@ -168,7 +184,9 @@ public class Animation {
 			return this.clip.get(0).texture;
 		}
 
-		long timeNow = System.nanoTime();
+		if (this.lastUpdate == -1L) {
+			this.lastUpdate = timeNow;
+		}
 		while ((timeNow - this.lastUpdate) >= this.clip.get(this.currentFrame).duration) {
 			this.lastUpdate = timeNow;
 			if (!this.shouldLoop && this.currentFrame == this.clip.size() - 1) {
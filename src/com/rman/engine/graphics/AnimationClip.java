@@ -0,0 +1,184 @@
+package com.rman.engine.graphics;
+
+import org.lwjgl.util.Point;
+
+/**
+ * <pre>public final class AnimationClip</pre>
+ *
+ * <p> The frames of an animation and how long each of them is shown, without any playback state. A clip never
+ * changes, so it can be shared by any number of entities, each of which keeps its own position in the clip (see
+ * {@link com.rman.engine.Entity#setClip(AnimationClip) Entity.setClip()}). </p>
+ *
+ * <p> The frame at a point of the clip is computed instead of stepped to: if all frames are shown for the same
+ * time, which is the usual case, it is a division, and otherwise a binary search of the times the frames
+ * end. </p>
+ *
+ * @author Arman
+ */
+public final class AnimationClip {
+
+	/**
+	 * The name of the clip.
+	 */
+	private final String name;
+	private final Texture[] frames;
+	/**
+	 * The time each frame ends, measured from the start of the clip (in nanoseconds).
+	 */
+	private final long[] frameEnds;
+	/**
+	 * The time every frame is shown (in nanoseconds) if they are all shown for the same time, or -1.
+	 */
+	private final long frameDuration;
+	private final boolean shouldLoop;
+
+	/**
+	 * <pre>public AnimationClip({@link String String} name, {@link SpriteSheet SpriteSheet} spriteSheet, double
+	 * duration, boolean loop, {@link Point Point}[] frames)</pre>
+	 *
+	 * <p> Constructs a clip of the indicated frames of a <code>SpriteSheet</code>, each shown for the same
+	 * time. </p>
+	 *
+	 * @param name - The name of this clip
+	 * @param spriteSheet - The <code>SpriteSheet</code> to take the frames from
+	 * @param duration - The duration of each frame (in milliseconds)
+	 * @param loop - Whether this clip replays after finishing
+	 * @param frames - The row (x) and column (y) of each frame in the <code>SpriteSheet</code>
+	 */
+	public AnimationClip(String name, SpriteSheet spriteSheet, double duration, boolean loop, Point[] frames) {
+		this(name, getSprites(name, spriteSheet, frames), getDurations(duration, frames.length), loop);
+	}
+
+	/**
+	 * <pre>public AnimationClip({@link String String} name, {@link Texture Texture}[] frames, long[] durations,
+	 * boolean loop)</pre>
+	 *
+	 * <p> Constructs a clip of the given frames. </p>
+	 *
+	 * @param name - The name of this clip
+	 * @param frames - The textures of the frames
+	 * @param durations - The duration of each frame (in nanoseconds)
+	 * @param loop - Whether this clip replays after finishing
+	 */
+	public AnimationClip(String name, Texture[] frames, long[] durations, boolean loop) {
+		if (frames.length == 0 || frames.length != durations.length) {
+			throw new IllegalArgumentException("Error creating " + name + " (there must be one duration for each of at least one frame)");
+		}
+		this.name = name;
+		this.frames = frames.clone();
+		this.shouldLoop = loop;
+
+		this.frameEnds = new long[durations.length];
+		long end = 0L;
+		boolean uniform = true;
+		for (int i = 0; i < durations.length; i++) {
+			if (durations[i] <= 0) {
+				throw new IllegalArgumentException("Error creating " + name + " (duration must be greater than 0)");
+			}
+			end += durations[i];
+			this.frameEnds[i] = end;
+			uniform &= durations[i] == durations[0];
+		}
+		this.frameDuration = uniform ? durations[0] : -1L;
+	}
+
+	private static Texture[] getSprites(String name, SpriteSheet spriteSheet, Point[] frames) {
+		Texture[] sprites = new Texture[frames.length];
+		for (int i = 0; i < frames.length; i++) {
+			int row = frames[i].getX();
+			int column = frames[i].getY();
+			if (row >= spriteSheet.getNumRows() || column >= spriteSheet.getNumColumns()) {
+				throw new IllegalArgumentException("Error creating " + name + " (frame " + i + " is outside of the sprite sheet)");
+			}
+			sprites[i] = spriteSheet.getSprite(row, column);
+		}
+		return sprites;
+	}
+
+	private static long[] getDurations(double duration, int numFrames) {
+		long[] durations = new long[numFrames];
+		for (int i = 0; i < numFrames; i++) {
+			durations[i] = (long) (duration * 1000000L); // milliseconds -> nanoseconds
+		}
+		return durations;
+	}
+
+	/**
+	 * <pre>public int getFrameIndex(long elapsed)</pre>
+	 *
+	 * <p> Gets the index of the frame that is shown a given time after the clip started. A clip that doesn't
+	 * loop stays on its last frame once it has finished. </p>
+	 *
+	 * @param elapsed - The time since the clip started (in nanoseconds)
+	 *
+	 * @return The index of the frame
+	 */
+	public int getFrameIndex(long elapsed) {
+		int last = this.frames.length - 1;
+		long duration = this.frameEnds[last];
+		if (elapsed < 0L) {
+			return 0;
+		} else if (elapsed >= duration) {
+			if (!this.shouldLoop) {
+				return last;
+			}
+			elapsed %= duration;
+		}
+
+		if (this.frameDuration != -1L) {
+			return (int) (elapsed / this.frameDuration);
+		}
+		int low = 0;
+		int high = last;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.frameEnds[middle] <= elapsed) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * <pre>public {@link Texture Texture} getFrame(long elapsed)</pre>
+	 *
+	 * <p> Gets the texture of the frame that is shown a given time after the clip started. </p>
+	 *
+	 * @param elapsed - The time since the clip started (in nanoseconds)
+	 *
+	 * @return The texture of the frame
+	 */
+	public Texture getFrame(long elapsed) {
+		return this.frames[getFrameIndex(elapsed)];
+	}
+
+	public Texture getTexture(int index) {
+		return this.frames[index];
+	}
+
+	public int getNumFrames() {
+		return this.frames.length;
+	}
+
+	/**
+	 * <pre>public long getDuration()</pre>
+	 *
+	 * <p> Gets the time it takes to play this clip once. </p>
+	 *
+	 * @return The duration of this clip (in nanoseconds)
+	 */
+	public long getDuration() {
+		return this.frameEnds[this.frameEnds.length - 1];
+	}
+
+	public boolean doesLoop() {
+		return this.shouldLoop;
+	}
+
+	@Override
+	public String toString() {
+		return "AnimationClip: " + this.name;
+	}
+}
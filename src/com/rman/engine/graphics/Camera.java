@@ -0,0 +1,272 @@
+package com.rman.engine.graphics;
+
+/**
+ * <pre>public class Camera</pre>
+ *
+ * <p> A 2D camera that shows part of a world in a rectangle of the window (the viewport), panned to a position and
+ * zoomed by a factor. While a camera is set on a {@link Renderer Renderer} (see
+ * {@link Renderer#setCamera(Camera) setCamera()}), everything is drawn in world coordinates and only shows up
+ * inside the viewport. </p>
+ *
+ * <p> World coordinates have the same orientation as window coordinates (the origin is the top-left corner), so a
+ * camera at (0, 0) with a zoom of 1 draws everything where it would be drawn without a camera, offset by the
+ * viewport's position. The camera can be kept inside the world's bounds (see {@link #setBounds(float, float)
+ * setBounds()}). </p>
+ *
+ * @author Arman
+ */
+public class Camera {
+
+	/**
+	 * The world coordinates of the top-left corner of the view.
+	 */
+	private float x;
+	private float y;
+	/**
+	 * The number of pixels of the window that a unit of the world takes up.
+	 */
+	private float zoom = 1.0f;
+	private float minZoom = 0.25f;
+	private float maxZoom = 4.0f;
+
+	/**
+	 * The rectangle of the window that the view is drawn in (in window coordinates).
+	 */
+	private float viewportX;
+	private float viewportY;
+	private float viewportWidth;
+	private float viewportHeight;
+
+	/**
+	 * The size of the world that the view is kept inside of, or 0 if the view isn't bounded.
+	 */
+	private float boundsWidth;
+	private float boundsHeight;
+
+	/**
+	 * <pre>public Camera(float viewportX, float viewportY, float viewportWidth, float viewportHeight)</pre>
+	 *
+	 * <p> Constructs a camera at the origin of the world with a zoom of 1. </p>
+	 *
+	 * @param viewportX - The x-coordinate of the viewport in the window
+	 * @param viewportY - The y-coordinate of the viewport in the window
+	 * @param viewportWidth - The width of the viewport (in pixels)
+	 * @param viewportHeight - The height of the viewport (in pixels)
+	 */
+	public Camera(float viewportX, float viewportY, float viewportWidth, float viewportHeight) {
+		this.viewportX = viewportX;
+		this.viewportY = viewportY;
+		this.viewportWidth = viewportWidth;
+		this.viewportHeight = viewportHeight;
+	}
+
+	public float getX() {
+		return this.x;
+	}
+
+	public float getY() {
+		return this.y;
+	}
+
+	public float getZoom() {
+		return this.zoom;
+	}
+
+	public float getViewportX() {
+		return this.viewportX;
+	}
+
+	public float getViewportY() {
+		return this.viewportY;
+	}
+
+	public float getViewportWidth() {
+		return this.viewportWidth;
+	}
+
+	public float getViewportHeight() {
+		return this.viewportHeight;
+	}
+
+	/**
+	 * <pre>public float getViewWidth()</pre>
+	 *
+	 * <p> Gets the width of the part of the world that is shown. </p>
+	 *
+	 * @return The width of the view (in world units)
+	 */
+	public float getViewWidth() {
+		return this.viewportWidth / this.zoom;
+	}
+
+	/**
+	 * <pre>public float getViewHeight()</pre>
+	 *
+	 * <p> Gets the height of the part of the world that is shown. </p>
+	 *
+	 * @return The height of the view (in world units)
+	 */
+	public float getViewHeight() {
+		return this.viewportHeight / this.zoom;
+	}
+
+	/**
+	 * <pre>public void setBounds(float width, float height)</pre>
+	 *
+	 * <p> Keeps the view inside a world of the given size from now on. If the world is smaller than the view, the
+	 * view is kept at the world's top-left corner. </p>
+	 *
+	 * @param width - The width of the world, or 0 to not bound the view
+	 * @param height - The height of the world, or 0 to not bound the view
+	 */
+	public void setBounds(float width, float height) {
+		this.boundsWidth = width;
+		this.boundsHeight = height;
+		setPosition(this.x, this.y);
+	}
+
+	/**
+	 * <pre>public void setZoomRange(float minZoom, float maxZoom)</pre>
+	 *
+	 * <p> Sets the smallest and largest zoom that {@link #setZoom(float) setZoom()} allows. </p>
+	 *
+	 * @param minZoom - The smallest zoom
+	 * @param maxZoom - The largest zoom
+	 */
+	public void setZoomRange(float minZoom, float maxZoom) {
+		this.minZoom = minZoom;
+		this.maxZoom = maxZoom;
+		setZoom(this.zoom);
+	}
+
+	/**
+	 * <pre>public void setPosition(float x, float y)</pre>
+	 *
+	 * <p> Moves the view so that its top-left corner is at the given world coordinates, keeping it inside the
+	 * bounds. </p>
+	 *
+	 * @param x - The x-coordinate of the top-left corner of the view
+	 * @param y - The y-coordinate of the top-left corner of the view
+	 */
+	public void setPosition(float x, float y) {
+		if (this.boundsWidth > 0) {
+			x = Math.max(Math.min(x, this.boundsWidth - getViewWidth()), 0.0f);
+		}
+		if (this.boundsHeight > 0) {
+			y = Math.max(Math.min(y, this.boundsHeight - getViewHeight()), 0.0f);
+		}
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * <pre>public void pan(float dx, float dy)</pre>
+	 *
+	 * <p> Moves the view by an amount of window pixels, so that panning feels the same at any zoom. </p>
+	 *
+	 * @param dx - The amount to move right (in pixels)
+	 * @param dy - The amount to move down (in pixels)
+	 */
+	public void pan(float dx, float dy) {
+		setPosition(this.x + dx / this.zoom, this.y + dy / this.zoom);
+	}
+
+	/**
+	 * <pre>public void setZoom(float zoom)</pre>
+	 *
+	 * <p> Sets the zoom, keeping the center of the view where it is. </p>
+	 *
+	 * @param zoom - The new zoom, which is clamped to the zoom range
+	 */
+	public void setZoom(float zoom) {
+		zoomAt(zoom, this.viewportX + this.viewportWidth / 2, this.viewportY + this.viewportHeight / 2);
+	}
+
+	/**
+	 * <pre>public void zoomAt(float zoom, float windowX, float windowY)</pre>
+	 *
+	 * <p> Sets the zoom, keeping the point of the world under a point of the window (such as the mouse pointer)
+	 * where it is. </p>
+	 *
+	 * @param zoom - The new zoom, which is clamped to the zoom range
+	 * @param windowX - The x-coordinate of the point in the window
+	 * @param windowY - The y-coordinate of the point in the window
+	 */
+	public void zoomAt(float zoom, float windowX, float windowY) {
+		float worldX = toWorldX(windowX);
+		float worldY = toWorldY(windowY);
+		this.zoom = Math.max(Math.min(zoom, this.maxZoom), this.minZoom);
+		setPosition(worldX - (windowX - this.viewportX) / this.zoom, worldY - (windowY - this.viewportY) / this.zoom);
+	}
+
+	/**
+	 * <pre>public float toWorldX(float windowX)</pre>
+	 *
+	 * <p> Converts an x-coordinate of the window, such as the mouse's, to the world. </p>
+	 *
+	 * @param windowX - The x-coordinate in the window
+	 *
+	 * @return The x-coordinate in the world
+	 */
+	public float toWorldX(float windowX) {
+		return this.x + (windowX - this.viewportX) / this.zoom;
+	}
+
+	/**
+	 * <pre>public float toWorldY(float windowY)</pre>
+	 *
+	 * <p> Converts a y-coordinate of the window, such as the mouse's, to the world. </p>
+	 *
+	 * @param windowY - The y-coordinate in the window
+	 *
+	 * @return The y-coordinate in the world
+	 */
+	public float toWorldY(float windowY) {
+		return this.y + (windowY - this.viewportY) / this.zoom;
+	}
+
+	public float toWindowX(float worldX) {
+		return this.viewportX + (worldX - this.x) * this.zoom;
+	}
+
+	public float toWindowY(float worldY) {
+		return this.viewportY + (worldY - this.y) * this.zoom;
+	}
+
+	/**
+	 * <pre>public boolean isInViewport(float windowX, float windowY)</pre>
+	 *
+	 * <p> Gets whether a point of the window is inside the viewport. </p>
+	 *
+	 * @param windowX - The x-coordinate in the window
+	 * @param windowY - The y-coordinate in the window
+	 *
+	 * @return Whether the point is inside the viewport
+	 */
+	public boolean isInViewport(float windowX, float windowY) {
+		return windowX >= this.viewportX && windowX < this.viewportX + this.viewportWidth
+				&& windowY >= this.viewportY && windowY < this.viewportY + this.viewportHeight;
+	}
+
+	/**
+	 * <pre>public boolean isVisible(float x, float y, float width, float height)</pre>
+	 *
+	 * <p> Gets whether any part of a rectangle of the world is in the view. This is used to skip drawing what
+	 * can't be seen. </p>
+	 *
+	 * @param x - The x-coordinate of the rectangle's top-left corner
+	 * @param y - The y-coordinate of the rectangle's top-left corner
+	 * @param width - The width of the rectangle
+	 * @param height - The height of the rectangle
+	 *
+	 * @return Whether the rectangle is at least partly visible
+	 */
+	public boolean isVisible(float x, float y, float width, float height) {
+		return x + width > this.x && x < this.x + getViewWidth() && y + height > this.y && y < this.y + getViewHeight();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Camera: (%.1f, %.1f) at %.2fx", this.x, this.y, this.zoom);
+	}
+}
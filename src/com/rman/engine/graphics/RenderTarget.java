@@ -0,0 +1,237 @@
+package com.rman.engine.graphics;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.EXTFramebufferObject;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GLContext;
+import org.lwjgl.util.glu.GLU;
+
+import com.rman.engine.Log;
+
+/**
+ * <pre>public class RenderTarget</pre>
+ *
+ * <p> An offscreen texture that can be drawn to like the window, using an OpenGL framebuffer object. While a target
+ * is set on a {@link Renderer Renderer} (see {@link Renderer#setTarget(RenderTarget) setTarget()}), everything is
+ * drawn into the target's texture instead of the window. The texture can then be drawn any number of times, so a
+ * layer that rarely changes can be drawn once and copied to the window with a single quad each frame. </p>
+ *
+ * <p> A target covers a rectangle of window coordinates whose top-left corner is the origin. Its texture can have
+ * more pixels than the rectangle (see {@link #getScale() getScale()}), so that it stays sharp when the window is
+ * resized or the target is drawn through a zoomed {@link Camera Camera}. </p>
+ *
+ * @author Arman
+ */
+public class RenderTarget {
+
+	/**
+	 * The largest width or height of a texture, or 0 if it hasn't been queried yet.
+	 */
+	private static int maxSize;
+
+	private final String name;
+	/**
+	 * The OpenGL ID of this target's framebuffer object.
+	 */
+	private int framebufferID;
+	private final Texture texture;
+	/**
+	 * Whether the framebuffer object is from the <code>EXT_framebuffer_object</code> extension rather than
+	 * OpenGL 3.0.
+	 */
+	private final boolean useEXT;
+
+	/**
+	 * The size of the rectangle of window coordinates that this target covers.
+	 */
+	private final float width;
+	private final float height;
+	private final float scale;
+
+	/**
+	 * <pre>public RenderTarget({@link String String} name, float width, float height, float scale)</pre>
+	 *
+	 * <p> Constructs a target that covers a rectangle of window coordinates, with a texture of the rectangle's size
+	 * times the scale. </p>
+	 *
+	 * @param name - The name of the target
+	 * @param width - The width of the rectangle
+	 * @param height - The height of the rectangle
+	 * @param scale - The number of pixels of the texture for each unit of the rectangle
+	 *
+	 * @throws IllegalStateException If framebuffer objects aren't supported, or the framebuffer couldn't be
+	 *         created
+	 */
+	public RenderTarget(String name, float width, float height, float scale) {
+		if (!isSupported()) {
+			throw new IllegalStateException("Error creating " + name + " (framebuffer objects aren't supported)");
+		}
+		this.name = name;
+		this.width = width;
+		this.height = height;
+		this.scale = scale;
+		this.useEXT = !GLContext.getCapabilities().OpenGL30;
+		Log.log("Creating render target: " + this);
+
+		this.texture = new Texture(name, (ByteBuffer) null, Math.max(Math.round(width * scale), 1), Math.max(Math.round(height * scale), 1));
+		this.texture.flipVertically();
+
+		int status;
+		if (this.useEXT) {
+			this.framebufferID = EXTFramebufferObject.glGenFramebuffersEXT();
+			EXTFramebufferObject.glBindFramebufferEXT(EXTFramebufferObject.GL_FRAMEBUFFER_EXT, this.framebufferID);
+			EXTFramebufferObject.glFramebufferTexture2DEXT(EXTFramebufferObject.GL_FRAMEBUFFER_EXT, EXTFramebufferObject.GL_COLOR_ATTACHMENT0_EXT,
+					GL11.GL_TEXTURE_2D, this.texture.getTextureID(), 0);
+			status = EXTFramebufferObject.glCheckFramebufferStatusEXT(EXTFramebufferObject.GL_FRAMEBUFFER_EXT);
+		} else {
+			this.framebufferID = GL30.glGenFramebuffers();
+			GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, this.framebufferID);
+			GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, this.texture.getTextureID(), 0);
+			status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
+		}
+		bindFramebuffer(0);
+
+		if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
+			delete();
+			throw new IllegalStateException("Error creating " + name + " (framebuffer status " + status + ")");
+		}
+	}
+
+	/**
+	 * <pre>public static boolean isSupported()</pre>
+	 *
+	 * <p> Gets whether the OpenGL context supports framebuffer objects, either through OpenGL 3.0 or the
+	 * <code>EXT_framebuffer_object</code> extension. </p>
+	 *
+	 * @return Whether render targets can be created
+	 */
+	public static boolean isSupported() {
+		ContextCapabilities capabilities = GLContext.getCapabilities();
+		return capabilities.OpenGL30 || capabilities.GL_EXT_framebuffer_object;
+	}
+
+	/**
+	 * <pre>public static int getMaxSize()</pre>
+	 *
+	 * <p> Gets the largest width or height (in pixels) that the texture of a target can have. </p>
+	 *
+	 * @return The largest texture size
+	 */
+	public static int getMaxSize() {
+		if (maxSize == 0) {
+			maxSize = GL11.glGetInteger(GL11.GL_MAX_TEXTURE_SIZE);
+		}
+		return maxSize;
+	}
+
+	private void bindFramebuffer(int id) {
+		if (this.useEXT) {
+			EXTFramebufferObject.glBindFramebufferEXT(EXTFramebufferObject.GL_FRAMEBUFFER_EXT, id);
+		} else {
+			GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, id);
+		}
+	}
+
+	/**
+	 * <pre>void begin(int windowHeight)</pre>
+	 *
+	 * <p> Starts drawing into this target. The viewport is set to the texture, and the projection is set so that
+	 * the rectangle this target covers, flipped the same way the {@link Renderer Renderer} flips window
+	 * coordinates, fills it. The scissor test and the modelview matrix are saved and reset until
+	 * {@link #end() end()} is called. </p>
+	 *
+	 * @param windowHeight - The height of the window, which the renderer flips coordinates with
+	 */
+	void begin(int windowHeight) {
+		GL11.glPushAttrib(GL11.GL_VIEWPORT_BIT | GL11.GL_ENABLE_BIT | GL11.GL_SCISSOR_BIT);
+		bindFramebuffer(this.framebufferID);
+		GL11.glDisable(GL11.GL_SCISSOR_TEST);
+		GL11.glViewport(0, 0, (int) this.texture.getWidth(), (int) this.texture.getHeight());
+
+		GL11.glMatrixMode(GL11.GL_PROJECTION);
+		GL11.glPushMatrix();
+		GL11.glLoadIdentity();
+		GLU.gluOrtho2D(0.0f, this.width, windowHeight - this.height, windowHeight);
+		GL11.glMatrixMode(GL11.GL_MODELVIEW);
+		GL11.glPushMatrix();
+		GL11.glLoadIdentity();
+	}
+
+	/**
+	 * <pre>void end()</pre>
+	 *
+	 * <p> Stops drawing into this target, and restores what {@link #begin(int) begin()} changed. </p>
+	 */
+	void end() {
+		GL11.glPopMatrix();
+		GL11.glMatrixMode(GL11.GL_PROJECTION);
+		GL11.glPopMatrix();
+		GL11.glMatrixMode(GL11.GL_MODELVIEW);
+
+		bindFramebuffer(0);
+		GL11.glPopAttrib();
+	}
+
+	/**
+	 * <pre>public void clear()</pre>
+	 *
+	 * <p> Clears this target to transparent. This must be called while this target is set on a renderer. </p>
+	 */
+	public void clear() {
+		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+	}
+
+	/**
+	 * <pre>public {@link Texture Texture} getTexture()</pre>
+	 *
+	 * <p> Gets the texture that this target is drawn into. It is the right way up, and can be drawn like any other
+	 * texture. </p>
+	 *
+	 * @return The texture
+	 */
+	public Texture getTexture() {
+		return this.texture;
+	}
+
+	public float getWidth() {
+		return this.width;
+	}
+
+	public float getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * <pre>public float getScale()</pre>
+	 *
+	 * <p> Gets the number of pixels of this target's texture for each unit of the rectangle it covers. </p>
+	 *
+	 * @return The scale of the texture
+	 */
+	public float getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * <pre>public void delete()</pre>
+	 *
+	 * <p> Deletes this target's framebuffer object and texture. </p>
+	 */
+	public void delete() {
+		Log.log("Deleting render target: " + this);
+		if (this.useEXT) {
+			EXTFramebufferObject.glDeleteFramebuffersEXT(this.framebufferID);
+		} else {
+			GL30.glDeleteFramebuffers(this.framebufferID);
+		}
+		this.texture.delete();
+	}
+
+	@Override
+	public String toString() {
+		return this.name + " (" + this.width + "x" + this.height + " at " + this.scale + "x)";
+	}
+}
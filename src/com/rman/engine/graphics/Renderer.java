@@ -7,6 +7,7 @@ import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
 
+import com.rman.engine.GameClock;
 import com.rman.engine.gui.TrueTypeFont;
 import com.rman.engine.gui.Window;
 
@@ -48,6 +49,34 @@ public class Renderer {
 	 * The {@link Window Window} of the application. This is used to get the current width and height.
 	 */
 	private Window window;
+	
+	/**
+	 * The {@link SpriteBatch SpriteBatch} that textures are drawn with while batching.
+	 */
+	private SpriteBatch spriteBatch;
+	/**
+	 * The number of unmatched calls to {@link #beginBatch() beginBatch()}.
+	 */
+	private int batchDepth;
+	
+	/**
+	 * The clock that animations are advanced with.
+	 */
+	private GameClock clock = GameClock.SYSTEM;
+	/**
+	 * How far (from 0 to 1) the frame being rendered is between the last game tick and the next one.
+	 */
+	private double interpolation = 1.0;
+	/**
+	 * The {@link Camera Camera} that everything is drawn through, or null if things are drawn in window
+	 * coordinates.
+	 */
+	private Camera camera;
+	/**
+	 * The {@link RenderTarget RenderTarget} that everything is drawn into, or null if things are drawn to the
+	 * window.
+	 */
+	private RenderTarget target;
 
 	/**
 	 * <pre>public Renderer()</pre>
@@ -83,6 +112,195 @@ public class Renderer {
 		GL11.glVertexPointer(2, GL11.GL_FLOAT, 0, 0L);
 
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+		
+		this.spriteBatch = new SpriteBatch();
+	}
+	
+	/**
+	 * <pre>public void beginBatch()</pre>
+	 * 
+	 * <p> Starts batching textures. Until the matching call to {@link #endBatch() endBatch()}, textures (including
+	 * animations and text) are added to this renderer's {@link SpriteBatch SpriteBatch} instead of being drawn
+	 * one at a time. Calls may be nested; only the outermost pair starts and ends the batch. </p>
+	 */
+	public void beginBatch() {
+		if (this.batchDepth++ == 0) {
+			this.spriteBatch.begin();
+		}
+	}
+	
+	/**
+	 * <pre>public void endBatch()</pre>
+	 * 
+	 * <p> Stops batching textures. If this is the outermost call, all batched textures are drawn. </p>
+	 */
+	public void endBatch() {
+		if (--this.batchDepth == 0) {
+			this.spriteBatch.end();
+		}
+	}
+	
+	/**
+	 * <pre>private void flushBatch()</pre>
+	 * 
+	 * <p> Draws the textures batched so far, so that shapes drawn afterwards appear on top of them. </p>
+	 */
+	private void flushBatch() {
+		if (this.spriteBatch.isDrawing()) {
+			this.spriteBatch.flush();
+		}
+	}
+	
+	/**
+	 * <pre>public void endFrame()</pre>
+	 * 
+	 * <p> Ends the current frame. This stores the draw call and vertex counts of the frame (see
+	 * {@link SpriteBatch#getDrawCalls() getDrawCalls()} and {@link SpriteBatch#getVertexCount() getVertexCount()}). </p>
+	 */
+	public void endFrame() {
+		this.spriteBatch.nextFrame();
+	}
+	
+	/**
+	 * <pre>public {@link SpriteBatch SpriteBatch} getSpriteBatch()</pre>
+	 * 
+	 * <p> Gets the <code>SpriteBatch</code> used by this renderer. </p>
+	 * 
+	 * @return The <code>SpriteBatch</code>
+	 */
+	public SpriteBatch getSpriteBatch() {
+		return this.spriteBatch;
+	}
+
+	/**
+	 * <pre>public {@link GameClock GameClock} getClock()</pre>
+	 * 
+	 * <p> Gets the clock that animations are advanced with. </p>
+	 * 
+	 * @return The clock
+	 */
+	public GameClock getClock() {
+		return this.clock;
+	}
+	
+	/**
+	 * <pre>public void setClock({@link GameClock GameClock} clock)</pre>
+	 * 
+	 * <p> Sets the clock that animations are advanced with. </p>
+	 * 
+	 * @param clock - The new clock
+	 */
+	public void setClock(GameClock clock) {
+		this.clock = clock;
+	}
+	
+	/**
+	 * <pre>public {@link Camera Camera} getCamera()</pre>
+	 * 
+	 * <p> Gets the camera that everything is drawn through. </p>
+	 * 
+	 * @return The camera, or null if things are drawn in window coordinates
+	 */
+	public Camera getCamera() {
+		return this.camera;
+	}
+	
+	/**
+	 * <pre>public void setCamera({@link Camera Camera} camera)</pre>
+	 * 
+	 * <p> Sets the camera that everything is drawn through. Until the camera is set back to null, all
+	 * coordinates and sizes are in the camera's world: they are moved and scaled by the camera's position and
+	 * zoom, and only what falls inside the camera's viewport is drawn. The camera's position and zoom when this is
+	 * called are used until the camera is set again, so a camera should be set once per frame, after it has been
+	 * moved. Anything batched so far is drawn first. </p>
+	 * 
+	 * @param camera - The camera, or null to draw in window coordinates
+	 */
+	public void setCamera(Camera camera) {
+		flushBatch();
+		if (this.camera != null) {
+			GL11.glPopMatrix();
+			this.window.clearClip();
+		}
+		
+		this.camera = camera;
+		if (camera != null) {
+			// Window coordinates are flipped to OpenGL's (see drawTexture()), so the view's top edge is scaled
+			// about the window's top edge
+			float zoom = camera.getZoom();
+			int height = this.window.getHeight();
+			GL11.glPushMatrix();
+			GL11.glTranslatef(camera.getViewportX() - camera.getX() * zoom, height - camera.getViewportY() - (height - camera.getY()) * zoom, 0.0f);
+			GL11.glScalef(zoom, zoom, 1.0f);
+			this.window.setClip(camera.getViewportX(), camera.getViewportY(), camera.getViewportWidth(), camera.getViewportHeight());
+		}
+	}
+	
+	/**
+	 * <pre>public {@link RenderTarget RenderTarget} getTarget()</pre>
+	 * 
+	 * <p> Gets the render target that everything is drawn into. </p>
+	 * 
+	 * @return The render target, or null if things are drawn to the window
+	 */
+	public RenderTarget getTarget() {
+		return this.target;
+	}
+	
+	/**
+	 * <pre>public void setTarget({@link RenderTarget RenderTarget} target)</pre>
+	 * 
+	 * <p> Sets the render target that everything is drawn into. Until the target is set back to null, everything
+	 * is drawn into the target's texture, in window coordinates and without the camera. Anything batched so far is
+	 * drawn first. </p>
+	 * 
+	 * @param target - The render target, or null to draw to the window
+	 */
+	public void setTarget(RenderTarget target) {
+		flushBatch();
+		if (this.target != null) {
+			this.target.end();
+		}
+		
+		this.target = target;
+		if (target != null) {
+			target.begin(this.window.getHeight());
+		}
+	}
+	
+	/**
+	 * <pre>public float getScale()</pre>
+	 * 
+	 * <p> Gets how many pixels of the display one unit of what is drawn takes up, with the window's
+	 * {@link Window#getScale() scale} and the camera's zoom. </p>
+	 * 
+	 * @return The scale that things are drawn at
+	 */
+	public float getScale() {
+		return this.camera != null ? this.window.getScale() * this.camera.getZoom() : this.window.getScale();
+	}
+	
+	/**
+	 * <pre>public double getInterpolation()</pre>
+	 * 
+	 * <p> Gets how far (from 0 to 1) the frame being rendered is between the last game tick and the next one.
+	 * Entities use this to draw themselves between their previous and current positions. </p>
+	 * 
+	 * @return The interpolation factor
+	 */
+	public double getInterpolation() {
+		return this.interpolation;
+	}
+	
+	/**
+	 * <pre>public void setInterpolation(double interpolation)</pre>
+	 * 
+	 * <p> Sets how far (from 0 to 1) the frame being rendered is between the last game tick and the next one. </p>
+	 * 
+	 * @param interpolation - The interpolation factor
+	 */
+	public void setInterpolation(double interpolation) {
+		this.interpolation = interpolation;
 	}
 
 	/**
@@ -114,6 +332,7 @@ public class Renderer {
 	 * @param rot - The amount (in degrees) that the rectangle should be rotated
 	 */
 	public void drawRect(float x, float y, float width, float height, float rot) {
+		flushBatch();
 		this.currentColor.setAsCurrentOpenGLColor();
 
 		GL11.glPushMatrix();
@@ -163,6 +382,7 @@ public class Renderer {
 	 * @param rot - The amount (in degrees) that the rectangle should be rotated
 	 */
 	public void fillRect(float x, float y, float width, float height, float rot) {
+		flushBatch();
 		this.currentColor.setAsCurrentOpenGLColor();
 
 		GL11.glPushMatrix();
@@ -215,7 +435,8 @@ public class Renderer {
 	 * float rot)</pre>
 	 * 
 	 * <p> Draws a <code>Texture</code> at the given coordinates, scaled to the given size, and rotated the given
-	 * amount (in degrees). </p>
+	 * amount (in degrees). If this renderer is {@link #beginBatch() batching}, the texture is added to the
+	 * {@link SpriteBatch SpriteBatch} and drawn later. </p>
 	 * 
 	 * @param texture - The texture to be drawn
 	 * @param x - The x coordinate to draw to (of the top-left vertex)
@@ -232,7 +453,9 @@ public class Renderer {
 			throw new NullPointerException("Teture is null");
 		}
 		
-		if (texture != null) {
+		if (this.spriteBatch.isDrawing()) {
+			this.spriteBatch.draw(texture, x, this.window.getHeight() - y - height, width, height, rot, this.filter);
+		} else {
 			if (this.filter != null) {
 				this.filter.setAsCurrentOpenGLColor();
 			} else {
@@ -267,6 +490,7 @@ public class Renderer {
 	 * @param radius - The radius of the circle
 	 */
 	public void drawCircle(int centerX, int centerY, int radius) {
+		flushBatch();
 		this.currentColor.setAsCurrentOpenGLColor();
 
 		GL11.glPushMatrix();
@@ -295,6 +519,7 @@ public class Renderer {
 	 * @param radius - The radius of the circle
 	 */
 	public void fillCircle(int centerX, int centerY, int radius) {
+		flushBatch();
 		this.currentColor.setAsCurrentOpenGLColor();
 
 		GL11.glPushMatrix();
@@ -323,7 +548,7 @@ public class Renderer {
 	 */
 	public void drawAnimation(Animation animation, float x, float y) {
 		animation.start();
-		drawTexture(animation.update(), x, y);
+		drawTexture(animation.update(this.clock.nanoTime()), x, y);
 	}
 	
 	/**
@@ -339,7 +564,7 @@ public class Renderer {
 	 */
 	public void drawAnimation(Animation animation, float x, float y, float width, float height) {
 		animation.start();
-		drawTexture(animation.update(), x, y, width, height);
+		drawTexture(animation.update(this.clock.nanoTime()), x, y, width, height);
 	}
 	
 	/**
@@ -357,7 +582,7 @@ public class Renderer {
 	public void drawAnimation(Animation animation, float x, float y, float width, float height,
 			float rot) {
 		animation.start();
-		drawTexture(animation.update(), x, y, width, height, rot);
+		drawTexture(animation.update(this.clock.nanoTime()), x, y, width, height, rot);
 	}
 	
 	/**
@@ -462,6 +687,7 @@ public class Renderer {
 	public void destroy() {
 		GL15.glDeleteBuffers(this.rectID);
 		GL15.glDeleteBuffers(this.circleID);
+		this.spriteBatch.destroy();
 		DEFAULT_FONT.destroy();
 	}
 }
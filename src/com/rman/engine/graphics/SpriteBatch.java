@@ -0,0 +1,281 @@
+package com.rman.engine.graphics;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * <pre>public class SpriteBatch</pre>
+ *
+ * <p> This class collects textured quads on the CPU and draws them with as few OpenGL calls as possible. All
+ * quads are written into one streaming vertex buffer object, which is only drawn (flushed) when the texture
+ * changes, when the buffer is full, or when the batch ends. </p>
+ *
+ * <p> Quads are given in OpenGL coordinates (the origin is the bottom-left corner of the window). The
+ * {@link Renderer Renderer} converts its coordinates before adding quads to its batch. </p>
+ *
+ * @author Arman
+ */
+public class SpriteBatch {
+
+	/**
+	 * The default number of quads a batch can hold before it must be flushed.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The number of floats in each vertex (x, y, u, v, r, g, b, a).
+	 */
+	private static final int VERTEX_SIZE = 8;
+	/**
+	 * The number of bytes in each vertex.
+	 */
+	private static final int VERTEX_STRIDE = VERTEX_SIZE * 4;
+
+	/**
+	 * The vertices of the quads that have not been drawn yet.
+	 */
+	private FloatBuffer vertices;
+	/**
+	 * The ID of the streaming vertex buffer object.
+	 */
+	private int vboID;
+	/**
+	 * The maximum number of quads this batch holds before it is flushed.
+	 */
+	private int capacity;
+	/**
+	 * The number of quads that have not been drawn yet.
+	 */
+	private int numQuads;
+	/**
+	 * The OpenGL ID of the texture of the quads that have not been drawn yet, or -1 if there are none.
+	 */
+	private int currentTextureID = -1;
+	/**
+	 * Indicates whether this batch is between calls to {@link #begin() begin()} and {@link #end() end()}.
+	 */
+	private boolean isDrawing;
+
+	/**
+	 * The number of draw calls made in the current frame.
+	 */
+	private int drawCalls;
+	/**
+	 * The number of vertices drawn in the current frame.
+	 */
+	private int vertexCount;
+	/**
+	 * The number of draw calls made in the last frame.
+	 */
+	private int lastFrameDrawCalls;
+	/**
+	 * The number of vertices drawn in the last frame.
+	 */
+	private int lastFrameVertexCount;
+
+	/**
+	 * <pre>public SpriteBatch()</pre>
+	 *
+	 * <p> Constructs a <code>SpriteBatch</code> with the {@link #DEFAULT_CAPACITY default capacity}. </p>
+	 */
+	public SpriteBatch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * <pre>public SpriteBatch(int capacity)</pre>
+	 *
+	 * <p> Constructs a <code>SpriteBatch</code> that holds the given number of quads before flushing. </p>
+	 *
+	 * @param capacity - The number of quads
+	 */
+	public SpriteBatch(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than 0");
+		}
+		this.capacity = capacity;
+		this.vertices = BufferUtils.createFloatBuffer(capacity * 4 * VERTEX_SIZE);
+		this.vboID = GL15.glGenBuffers();
+	}
+
+	/**
+	 * <pre>public void begin()</pre>
+	 *
+	 * <p> Starts collecting quads. </p>
+	 *
+	 * @throws IllegalStateException If this batch has already begun
+	 */
+	public void begin() {
+		if (this.isDrawing) {
+			throw new IllegalStateException("SpriteBatch.end() must be called before begin()");
+		}
+		this.isDrawing = true;
+	}
+
+	/**
+	 * <pre>public void end()</pre>
+	 *
+	 * <p> Draws any remaining quads and stops collecting quads. </p>
+	 *
+	 * @throws IllegalStateException If this batch hasn't begun
+	 */
+	public void end() {
+		if (!this.isDrawing) {
+			throw new IllegalStateException("SpriteBatch.begin() must be called before end()");
+		}
+		flush();
+		this.isDrawing = false;
+	}
+
+	/**
+	 * <pre>public boolean isDrawing()</pre>
+	 *
+	 * <p> Gets whether this batch is collecting quads. </p>
+	 *
+	 * @return Whether this batch has begun
+	 */
+	public boolean isDrawing() {
+		return this.isDrawing;
+	}
+
+	/**
+	 * <pre>public void draw({@link Texture Texture} texture, float x, float y, float width, float height, float rot,
+	 * {@link Color Color} color)</pre>
+	 *
+	 * <p> Adds a textured quad to this batch. The quad is rotated the given amount (in degrees) in the
+	 * counter-clockwise direction around its bottom-left vertex. </p>
+	 *
+	 * @param texture - The texture of the quad
+	 * @param x - The x coordinate of the bottom-left vertex
+	 * @param y - The y coordinate of the bottom-left vertex
+	 * @param width - The width of the quad (in pixels)
+	 * @param height - The height of the quad (in pixels)
+	 * @param rot - The amount (in degrees) the quad should be rotated
+	 * @param color - The color the texture is multiplied by, or null for white
+	 */
+	public void draw(Texture texture, float x, float y, float width, float height, float rot, Color color) {
+		if (texture.getTextureID() != this.currentTextureID || this.numQuads == this.capacity) {
+			flush();
+			this.currentTextureID = texture.getTextureID();
+		}
+
+		float r = 1.0f, g = 1.0f, b = 1.0f, a = 1.0f;
+		if (color != null) {
+			r = color.getRed();
+			g = color.getGreen();
+			b = color.getBlue();
+			a = color.getAlpha();
+		}
+
+		float left = texture.getTexLeft();
+		float right = texture.getTexRight();
+		float top = texture.getTexTop();
+		float bottom = texture.getTexBottom();
+
+		if (rot == 0.0f) {
+			putVertex(x, y, left, bottom, r, g, b, a);
+			putVertex(x + width, y, right, bottom, r, g, b, a);
+			putVertex(x + width, y + height, right, top, r, g, b, a);
+			putVertex(x, y + height, left, top, r, g, b, a);
+		} else {
+			float cos = (float) Math.cos(Math.toRadians(rot));
+			float sin = (float) Math.sin(Math.toRadians(rot));
+			putVertex(x, y, left, bottom, r, g, b, a);
+			putVertex(x + width * cos, y + width * sin, right, bottom, r, g, b, a);
+			putVertex(x + width * cos - height * sin, y + width * sin + height * cos, right, top, r, g, b, a);
+			putVertex(x - height * sin, y + height * cos, left, top, r, g, b, a);
+		}
+		this.numQuads++;
+	}
+
+	private void putVertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+		this.vertices.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+	}
+
+	/**
+	 * <pre>public void flush()</pre>
+	 *
+	 * <p> Draws all the quads that have been collected so far with a single draw call. </p>
+	 */
+	public void flush() {
+		if (this.numQuads == 0) {
+			return;
+		}
+
+		this.vertices.flip();
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, this.vertices, GL15.GL_STREAM_DRAW);
+		GL11.glVertexPointer(2, GL11.GL_FLOAT, VERTEX_STRIDE, 0L);
+		GL11.glTexCoordPointer(2, GL11.GL_FLOAT, VERTEX_STRIDE, 8L);
+		GL11.glColorPointer(4, GL11.GL_FLOAT, VERTEX_STRIDE, 16L);
+
+		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glEnable(GL11.GL_TEXTURE_2D);
+		GL11.glBindTexture(GL11.GL_TEXTURE_2D, this.currentTextureID);
+
+		GL11.glDrawArrays(GL11.GL_QUADS, 0, this.numQuads * 4);
+
+		GL11.glDisable(GL11.GL_TEXTURE_2D);
+		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+		this.drawCalls++;
+		this.vertexCount += this.numQuads * 4;
+
+		this.vertices.clear();
+		this.numQuads = 0;
+		this.currentTextureID = -1;
+	}
+
+	/**
+	 * <pre>public void nextFrame()</pre>
+	 *
+	 * <p> Stores the draw call and vertex counts of the current frame and resets them for the next frame. This
+	 * should be called once at the end of every frame. </p>
+	 */
+	public void nextFrame() {
+		this.lastFrameDrawCalls = this.drawCalls;
+		this.lastFrameVertexCount = this.vertexCount;
+		this.drawCalls = 0;
+		this.vertexCount = 0;
+	}
+
+	/**
+	 * <pre>public int getDrawCalls()</pre>
+	 *
+	 * <p> Gets the number of draw calls this batch made during the last frame. </p>
+	 *
+	 * @return The number of draw calls
+	 */
+	public int getDrawCalls() {
+		return this.lastFrameDrawCalls;
+	}
+
+	/**
+	 * <pre>public int getVertexCount()</pre>
+	 *
+	 * <p> Gets the number of vertices this batch drew during the last frame. </p>
+	 *
+	 * @return The number of vertices
+	 */
+	public int getVertexCount() {
+		return this.lastFrameVertexCount;
+	}
+
+	/**
+	 * <pre>public void destroy()</pre>
+	 *
+	 * <p> Frees the vertex buffer object of this batch. </p>
+	 */
+	public void destroy() {
+		GL15.glDeleteBuffers(this.vboID);
+	}
+}
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 
 import javax.imageio.ImageIO;
 
@@ -52,8 +53,41 @@ public class Texture {
 	 */
 	private int vboID;
 	
+	/**
+	 * The texture coordinate of this texture's left edge.
+	 */
+	private float texLeft = 0.0f;
+	/**
+	 * The texture coordinate of this texture's right edge.
+	 */
+	private float texRight = 1.0f;
+	/**
+	 * The texture coordinate of this texture's top edge.
+	 */
+	private float texTop = 0.0f;
+	/**
+	 * The texture coordinate of this texture's bottom edge.
+	 */
+	private float texBottom = 1.0f;
+	
+	/**
+	 * The index of this texture's first vertex in its vertex buffer object. This is only non-zero for
+	 * sub-textures that share a buffer.
+	 */
+	private int firstVertex;
+	/**
+	 * Indicates whether this texture's vertex buffer object is shared with other sub-textures.
+	 */
+	private boolean sharesVBO;
+	
 	private int numRows;
 	private int numColumns;
+	
+	/**
+	 * The number of vertex buffer objects that textures have created. This only goes up, so it can be used to
+	 * check that drawing doesn't create buffers (see {@link #getNumBuffersCreated() getNumBuffersCreated()}).
+	 */
+	private static int numBuffersCreated;
 
 	/**
 	 * <pre>public Texture({@link String String} name, {@link URL URL} path)</pre>
@@ -99,7 +133,7 @@ public class Texture {
 				this.width, this.height, 1.0f, 0.0f, 0.0f, this.height, 0.0f, 0.0f});
 		coordinates.flip();
 
-		this.vboID = GL15.glGenBuffers();
+		this.vboID = genBuffer();
 
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
@@ -146,7 +180,7 @@ public class Texture {
 				this.width, this.height, 1.0f, 0.0f, 0.0f, this.height, 0.0f, 0.0f});
 		coordinates.flip();
 
-		this.vboID = GL15.glGenBuffers();
+		this.vboID = genBuffer();
 
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
@@ -188,7 +222,7 @@ public class Texture {
 				this.width, this.height, 1.0f, 0.0f, 0.0f, this.height, 0.0f, 0.0f});
 		coordinates.flip();
 
-		this.vboID = GL15.glGenBuffers();
+		this.vboID = genBuffer();
 
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
@@ -221,16 +255,13 @@ public class Texture {
 		this.height = subHeight;
 		this.numRows = 1; this.numColumns = 1;
 
+		setSubTextureCoordinates(texture, subX, subY);
+
 		FloatBuffer coordinates = BufferUtils.createFloatBuffer(16);
-		coordinates.put(new float[] {0.0f, 0.0f, subX / texture.getWidth(),
-				(subY + this.height) / texture.getHeight(), this.width, 0.0f,
-				(subX + this.width) / texture.getWidth(),
-				(subY + this.height) / texture.getHeight(), this.width, this.height,
-				(subX + this.width) / texture.getWidth(), subY / texture.getHeight(), 0.0f,
-				this.height, subX / texture.getWidth(), subY / texture.getHeight()});
+		putQuad(coordinates);
 		coordinates.flip();
 
-		this.vboID = GL15.glGenBuffers();
+		this.vboID = genBuffer();
 
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
@@ -240,6 +271,89 @@ public class Texture {
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
 	}
 	
+	/**
+	 * <pre>private Texture({@link String String} name, {@link Texture Texture} texture, float subX, float subY, float subWidth, float subHeight, int vboID, int firstVertex)</pre>
+	 * 
+	 * <p> Constructs a sub-texture whose quad is stored in a vertex buffer object shared with other sub-textures.
+	 * See {@link #getSubTextures(String, int[][]) getSubTextures()}. </p>
+	 * 
+	 * @param name - The name of the sub-texture
+	 * @param texture - The parent texture
+	 * @param subX - The x coordinate of the sub-texture (relative to the texture)
+	 * @param subY - The y coordinate of the sub-texture (relative to the texture)
+	 * @param subWidth - The width of the sub-texture
+	 * @param subHeight - The height of the sub-texture
+	 * @param vboID - The ID of the shared vertex buffer object
+	 * @param firstVertex - The index of this sub-texture's first vertex in the shared buffer
+	 */
+	private Texture(String name, Texture texture, float subX, float subY, float subWidth, float subHeight,
+			int vboID, int firstVertex) {
+		this.name = name;
+		this.id = texture.getTextureID();
+		this.width = subWidth;
+		this.height = subHeight;
+		setSubTextureCoordinates(texture, subX, subY);
+		this.numRows = 1; this.numColumns = 1;
+		this.vboID = vboID;
+		this.firstVertex = firstVertex;
+		this.sharesVBO = true;
+	}
+	
+	/**
+	 * <pre>private void setSubTextureCoordinates({@link Texture Texture} texture, float subX, float subY)</pre>
+	 * 
+	 * <p> Sets this texture's texture coordinates to the region of the parent texture that starts at (subX, subY)
+	 * and has this texture's width and height. If the parent is itself a sub-texture, the region is taken
+	 * relative to the parent's region. </p>
+	 * 
+	 * @param texture - The parent texture
+	 * @param subX - The x coordinate of the sub-texture (relative to the texture)
+	 * @param subY - The y coordinate of the sub-texture (relative to the texture)
+	 */
+	private void setSubTextureCoordinates(Texture texture, float subX, float subY) {
+		float scaleU = (texture.texRight - texture.texLeft) / texture.getWidth();
+		float scaleV = (texture.texBottom - texture.texTop) / texture.getHeight();
+		this.texLeft = texture.texLeft + subX * scaleU;
+		this.texRight = texture.texLeft + (subX + this.width) * scaleU;
+		this.texTop = texture.texTop + subY * scaleV;
+		this.texBottom = texture.texTop + (subY + this.height) * scaleV;
+	}
+	
+	/**
+	 * <pre>private void putQuad({@link FloatBuffer FloatBuffer} coordinates)</pre>
+	 * 
+	 * <p> Puts the four vertices (position and texture coordinates) of this texture's quad into the given
+	 * buffer. </p>
+	 * 
+	 * @param coordinates - The buffer to put the vertices into
+	 */
+	private void putQuad(FloatBuffer coordinates) {
+		coordinates.put(new float[] {0.0f, 0.0f, this.texLeft, this.texBottom, this.width, 0.0f,
+				this.texRight, this.texBottom, this.width, this.height, this.texRight, this.texTop, 0.0f,
+				this.height, this.texLeft, this.texTop});
+	}
+	
+	/**
+	 * <pre>void flipVertically()</pre>
+	 * 
+	 * <p> Swaps this texture's top and bottom texture coordinates. OpenGL stores the rows of a texture that was
+	 * drawn to (see {@link RenderTarget RenderTarget}) from the bottom up, so its texture coordinates are flipped
+	 * for it to be drawn the right way up. </p>
+	 */
+	void flipVertically() {
+		float top = this.texTop;
+		this.texTop = this.texBottom;
+		this.texBottom = top;
+		
+		FloatBuffer coordinates = BufferUtils.createFloatBuffer(16);
+		putQuad(coordinates);
+		coordinates.flip();
+		
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+	
 	/**
 	 * <pre>public Texture({@link String String} name, {@link URL URL} path, int numRows, int numColumns)</pre>
 	 * 
@@ -299,7 +413,7 @@ public class Texture {
 				this.width, this.height, 1.0f, 0.0f, 0.0f, this.height, 0.0f, 0.0f});
 		coordinates.flip();
 
-		this.vboID = GL15.glGenBuffers();
+		this.vboID = genBuffer();
 
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboID);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
@@ -311,6 +425,30 @@ public class Texture {
 		bind();
 	}
 
+	/**
+	 * <pre>private static int genBuffer()</pre>
+	 * 
+	 * <p> Creates a vertex buffer object and counts it. </p>
+	 * 
+	 * @return The ID of the buffer
+	 */
+	private static int genBuffer() {
+		numBuffersCreated++;
+		return GL15.glGenBuffers();
+	}
+	
+	/**
+	 * <pre>public static int getNumBuffersCreated()</pre>
+	 * 
+	 * <p> Gets the number of vertex buffer objects that textures have created so far, including the ones that
+	 * have been deleted. </p>
+	 * 
+	 * @return The number of buffers created
+	 */
+	public static int getNumBuffersCreated() {
+		return numBuffersCreated;
+	}
+	
 	/**
 	 * <pre>public void bind()</pre>
 	 * 
@@ -431,9 +569,123 @@ public class Texture {
 		return this.vboID;
 	}
 	
+	/**
+	 * <pre>public float getTexLeft()</pre>
+	 * 
+	 * <p> Gets the texture coordinate (u) of this texture's left edge. </p>
+	 * 
+	 * @return The left texture coordinate
+	 */
+	public float getTexLeft() {
+		return this.texLeft;
+	}
+	
+	/**
+	 * <pre>public float getTexRight()</pre>
+	 * 
+	 * <p> Gets the texture coordinate (u) of this texture's right edge. </p>
+	 * 
+	 * @return The right texture coordinate
+	 */
+	public float getTexRight() {
+		return this.texRight;
+	}
+	
+	/**
+	 * <pre>public float getTexTop()</pre>
+	 * 
+	 * <p> Gets the texture coordinate (v) of this texture's top edge. </p>
+	 * 
+	 * @return The top texture coordinate
+	 */
+	public float getTexTop() {
+		return this.texTop;
+	}
+	
+	/**
+	 * <pre>public float getTexBottom()</pre>
+	 * 
+	 * <p> Gets the texture coordinate (v) of this texture's bottom edge. </p>
+	 * 
+	 * @return The bottom texture coordinate
+	 */
+	public float getTexBottom() {
+		return this.texBottom;
+	}
+	
 	public Texture getSubTexture(int x, int y, int width, int height) {
 		return new Texture(this.name, this, (float) x, (float) y, (float) width, (float) height);
 	}
+	
+	/**
+	 * <pre>public {@link Texture Texture}[] getSubTextures({@link String String} name, int[][] regions)</pre>
+	 * 
+	 * <p> Creates a sub-texture for each of the given regions. Unlike {@link #getSubTexture(int, int, int, int)
+	 * getSubTexture()}, the quads of all the sub-textures are stored in a single vertex buffer object, so only
+	 * one buffer is allocated no matter how many regions there are. A region may be null, in which case the
+	 * corresponding sub-texture is null. </p>
+	 * 
+	 * @param name - The name of the sub-textures
+	 * @param regions - The regions of the sub-textures, each in the form {x, y, width, height}
+	 * 
+	 * @return The sub-textures, in the same order as the regions
+	 */
+	public Texture[] getSubTextures(String name, int[][] regions) {
+		String[] names = new String[regions.length];
+		Arrays.fill(names, name);
+		return getSubTextures(names, regions);
+	}
+	
+	/**
+	 * <pre>public {@link Texture Texture}[] getSubTextures({@link String String}[] names, int[][] regions)</pre>
+	 * 
+	 * <p> Creates a sub-texture for each of the given regions, like {@link #getSubTextures(String, int[][])
+	 * getSubTextures()}, but with a name for each sub-texture. </p>
+	 * 
+	 * @param names - The name of each sub-texture
+	 * @param regions - The regions of the sub-textures, each in the form {x, y, width, height}
+	 * 
+	 * @return The sub-textures, in the same order as the regions
+	 */
+	public Texture[] getSubTextures(String[] names, int[][] regions) {
+		int sharedID = genBuffer();
+
+		FloatBuffer coordinates = BufferUtils.createFloatBuffer(16 * regions.length);
+		Texture[] subTextures = new Texture[regions.length];
+		for (int i = 0; i < regions.length; i++) {
+			int[] region = regions[i];
+			if (region != null) {
+				subTextures[i] = new Texture(names[i], this, region[0], region[1], region[2], region[3], sharedID, 4 * i);
+				subTextures[i].putQuad(coordinates);
+			} else {
+				coordinates.position(coordinates.position() + 16);
+			}
+		}
+		coordinates.rewind();
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, sharedID);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, coordinates, GL15.GL_STATIC_DRAW);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+		return subTextures;
+	}
+	
+	/**
+	 * <pre>public static void deleteSubTextures({@link Texture Texture}[] subTextures)</pre>
+	 * 
+	 * <p> Deletes the vertex buffer object shared by sub-textures created with
+	 * {@link #getSubTextures(String, int[][]) getSubTextures()}. The parent texture is not deleted. </p>
+	 * 
+	 * @param subTextures - The sub-textures
+	 */
+	public static void deleteSubTextures(Texture[] subTextures) {
+		for (Texture subTexture : subTextures) {
+			if (subTexture != null) {
+				GL15.glDeleteBuffers(subTexture.vboID);
+				return;
+			}
+		}
+	}
 
 	/**
 	 * <pre>public void render()</pre>
@@ -450,7 +702,11 @@ public class Texture {
 
 		bind();
 
-		GL11.glDrawArrays(GL11.GL_QUADS, 0, 8 * this.numRows * this.numColumns);
+		if (this.sharesVBO) {
+			GL11.glDrawArrays(GL11.GL_QUADS, this.firstVertex, 4);
+		} else {
+			GL11.glDrawArrays(GL11.GL_QUADS, 0, 8 * this.numRows * this.numColumns);
+		}
 
 		bind();
 
@@ -0,0 +1,411 @@
+package com.rman.engine.graphics;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import com.rman.engine.Log;
+
+/**
+ * <pre>public class TextureAtlas</pre>
+ *
+ * <p> This class packs many images into one or a few OpenGL textures (pages). Images are added with the
+ * <code>add</code> methods, and then {@link #pack() pack()} places them on power-of-two pages using
+ * rectangle bin-packing (the "maximal rectangles" method) and uploads the pages. Afterwards,
+ * {@link #getRegion(String) getRegion()} returns a {@link Texture Texture} for each image that is a region of
+ * its page. </p>
+ *
+ * <p> Since the regions are sub-textures, {@link SpriteSheet SpriteSheet} sprites and
+ * {@link Texture#getSubTexture(int, int, int, int) getSubTexture()} calls on a region are regions of the same
+ * page, so a {@link SpriteBatch SpriteBatch} can draw all of them without switching textures. </p>
+ *
+ * @author Arman
+ */
+public class TextureAtlas {
+
+	/**
+	 * The default maximum width and height of a page (in pixels).
+	 */
+	public static final int DEFAULT_MAX_PAGE_SIZE = 2048;
+	/**
+	 * The number of pixels between images on a page. The edges of each image are extended into the padding so
+	 * that linear filtering doesn't blend in neighboring images.
+	 */
+	public static final int PADDING = 1;
+
+	/**
+	 * The name of this atlas.
+	 */
+	private String name;
+	/**
+	 * The maximum width and height of a page.
+	 */
+	private int maxPageSize;
+
+	/**
+	 * The images that have been added but not packed yet, in the order they were added.
+	 */
+	private Map<String, BufferedImage> images;
+	/**
+	 * The region of each packed image.
+	 */
+	private Map<String, Texture> regions;
+	/**
+	 * The textures of this atlas' pages.
+	 */
+	private List<Texture> pages;
+	/**
+	 * The regions of each page. The regions of a page share one vertex buffer object (see
+	 * {@link Texture#getSubTextures(String[], int[][]) getSubTextures()}), which is deleted with the page.
+	 */
+	private List<Texture[]> pageRegions;
+
+	/**
+	 * <pre>public TextureAtlas({@link String String} name)</pre>
+	 *
+	 * <p> Constructs an empty atlas with the {@link #DEFAULT_MAX_PAGE_SIZE default maximum page size}. </p>
+	 *
+	 * @param name - The name of the atlas
+	 */
+	public TextureAtlas(String name) {
+		this(name, DEFAULT_MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * <pre>public TextureAtlas({@link String String} name, int maxPageSize)</pre>
+	 *
+	 * <p> Constructs an empty atlas. </p>
+	 *
+	 * @param name - The name of the atlas
+	 * @param maxPageSize - The maximum width and height of a page (this should be a power of two)
+	 */
+	public TextureAtlas(String name, int maxPageSize) {
+		this.name = name;
+		this.maxPageSize = maxPageSize;
+		this.images = new LinkedHashMap<String, BufferedImage>();
+		this.regions = new HashMap<String, Texture>();
+		this.pages = new ArrayList<Texture>();
+		this.pageRegions = new ArrayList<Texture[]>();
+	}
+
+	/**
+	 * <pre>public void add({@link String String} imageName, {@link URL URL} path)</pre>
+	 *
+	 * <p> Adds the image at the given location to this atlas. </p>
+	 *
+	 * @param imageName - The name of the image (used to get its region)
+	 * @param path - The location of the image
+	 */
+	public void add(String imageName, URL path) {
+		try {
+			add(imageName, ImageIO.read(path));
+		} catch (Exception e) {
+			Log.logError("Error adding image to atlas: " + imageName, e);
+		}
+	}
+
+	/**
+	 * <pre>public void add({@link String String} imageName, {@link URL URL} path, int numRows, int numColumns)</pre>
+	 *
+	 * <p> Adds the image at the given location to this atlas, stacked into the given number of rows and columns
+	 * (like {@link Texture#Texture(String, URL, int, int) Texture(String, URL, int, int)}). </p>
+	 *
+	 * @param imageName - The name of the image (used to get its region)
+	 * @param path - The location of the image
+	 * @param numRows - The number of rows to stack
+	 * @param numColumns - The number of columns to stack
+	 */
+	public void add(String imageName, URL path, int numRows, int numColumns) {
+		try {
+			BufferedImage originalImage = ImageIO.read(path);
+			BufferedImage stackedImage = new BufferedImage(originalImage.getWidth() * numColumns,
+					originalImage.getHeight() * numRows, BufferedImage.TYPE_INT_ARGB);
+
+			Graphics g = stackedImage.getGraphics();
+			for (int row = 0; row < numRows; row++) {
+				for (int col = 0; col < numColumns; col++) {
+					g.drawImage(originalImage, col * originalImage.getWidth(), row * originalImage.getHeight(), null);
+				}
+			}
+			g.dispose();
+			add(imageName, stackedImage);
+		} catch (Exception e) {
+			Log.logError("Error adding stacked image to atlas: " + imageName, e);
+		}
+	}
+
+	/**
+	 * <pre>public void add({@link String String} imageName, {@link BufferedImage BufferedImage} image)</pre>
+	 *
+	 * <p> Adds an image to this atlas. </p>
+	 *
+	 * @param imageName - The name of the image (used to get its region)
+	 * @param image - The image
+	 *
+	 * @throws IllegalArgumentException If the image is larger than the maximum page size
+	 */
+	public void add(String imageName, BufferedImage image) {
+		if (image.getWidth() + 2 * PADDING > this.maxPageSize || image.getHeight() + 2 * PADDING > this.maxPageSize) {
+			throw new IllegalArgumentException("Image " + imageName + " is too large for atlas " + this.name);
+		}
+		this.images.put(imageName, image);
+	}
+
+	/**
+	 * <pre>public void pack()</pre>
+	 *
+	 * <p> Packs all the images that have been added into pages and uploads the pages to OpenGL. Each page is
+	 * the smallest power-of-two square (up to the maximum page size) that the remaining images fit into; if
+	 * they don't all fit on a page of the maximum size, the rest go on the next page. </p>
+	 */
+	public void pack() {
+		List<String> remaining = new ArrayList<String>(this.images.keySet());
+		// Placing large images first gives tighter packings
+		Collections.sort(remaining, new Comparator<String>() {
+			public int compare(String a, String b) {
+				BufferedImage imageA = images.get(a);
+				BufferedImage imageB = images.get(b);
+				return Math.max(imageB.getWidth(), imageB.getHeight()) - Math.max(imageA.getWidth(), imageA.getHeight());
+			}
+		});
+
+		while (!remaining.isEmpty()) {
+			int pageSize = getInitialPageSize(remaining);
+			Map<String, int[]> placements = place(remaining, pageSize);
+			while (placements.size() < remaining.size() && pageSize < this.maxPageSize) {
+				pageSize *= 2;
+				placements = place(remaining, pageSize);
+			}
+
+			createPage(placements, pageSize);
+			remaining.removeAll(placements.keySet());
+		}
+		this.images.clear();
+	}
+
+	/**
+	 * <pre>private int getInitialPageSize({@link List List}&lt;{@link String String}&gt; imageNames)</pre>
+	 *
+	 * <p> Gets the smallest power-of-two page size that could possibly hold the given images. </p>
+	 *
+	 * @param imageNames - The names of the images
+	 *
+	 * @return The page size
+	 */
+	private int getInitialPageSize(List<String> imageNames) {
+		long totalArea = 0;
+		int largestSide = 0;
+		for (String imageName : imageNames) {
+			BufferedImage image = this.images.get(imageName);
+			int width = image.getWidth() + 2 * PADDING;
+			int height = image.getHeight() + 2 * PADDING;
+			totalArea += (long) width * height;
+			largestSide = Math.max(largestSide, Math.max(width, height));
+		}
+
+		int pageSize = 1;
+		while (pageSize < this.maxPageSize && (pageSize < largestSide || (long) pageSize * pageSize < totalArea)) {
+			pageSize *= 2;
+		}
+		return pageSize;
+	}
+
+	/**
+	 * <pre>private {@link Map Map}&lt;{@link String String}, int[]&gt; place({@link List List}&lt;{@link String String}&gt; imageNames, int pageSize)</pre>
+	 *
+	 * <p> Places as many of the given images as possible on a page of the given size. This keeps a list of the
+	 * maximal free rectangles of the page and puts each image into the free rectangle that leaves the shortest
+	 * leftover side (best short side fit). </p>
+	 *
+	 * @param imageNames - The names of the images, in the order they should be placed
+	 * @param pageSize - The width and height of the page
+	 *
+	 * @return The location {x, y} (of the padded image) of each image that was placed
+	 */
+	private Map<String, int[]> place(List<String> imageNames, int pageSize) {
+		Map<String, int[]> placements = new LinkedHashMap<String, int[]>();
+		List<int[]> freeRects = new ArrayList<int[]>();
+		freeRects.add(new int[] {0, 0, pageSize, pageSize});
+
+		for (String imageName : imageNames) {
+			BufferedImage image = this.images.get(imageName);
+			int width = image.getWidth() + 2 * PADDING;
+			int height = image.getHeight() + 2 * PADDING;
+
+			int[] best = null;
+			int bestShortSide = Integer.MAX_VALUE;
+			int bestLongSide = Integer.MAX_VALUE;
+			for (int[] free : freeRects) {
+				if (free[2] >= width && free[3] >= height) {
+					int leftoverX = free[2] - width;
+					int leftoverY = free[3] - height;
+					int shortSide = Math.min(leftoverX, leftoverY);
+					int longSide = Math.max(leftoverX, leftoverY);
+					if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+						best = free;
+						bestShortSide = shortSide;
+						bestLongSide = longSide;
+					}
+				}
+			}
+
+			if (best != null) {
+				int[] used = new int[] {best[0], best[1], width, height};
+				splitFreeRects(freeRects, used);
+				placements.put(imageName, new int[] {used[0], used[1]});
+			}
+		}
+		return placements;
+	}
+
+	/**
+	 * <pre>private void splitFreeRects({@link List List}&lt;int[]&gt; freeRects, int[] used)</pre>
+	 *
+	 * <p> Removes the used rectangle from the free rectangles. Every free rectangle that overlaps it is replaced
+	 * by the (up to four) maximal rectangles around it, and free rectangles that are contained in others are
+	 * removed. Rectangles are in the form {x, y, width, height}. </p>
+	 *
+	 * @param freeRects - The free rectangles of the page
+	 * @param used - The rectangle that was just used
+	 */
+	private void splitFreeRects(List<int[]> freeRects, int[] used) {
+		List<int[]> newRects = new ArrayList<int[]>();
+		for (int i = freeRects.size() - 1; i >= 0; i--) {
+			int[] free = freeRects.get(i);
+			if (used[0] >= free[0] + free[2] || used[0] + used[2] <= free[0]
+					|| used[1] >= free[1] + free[3] || used[1] + used[3] <= free[1]) {
+				continue;
+			}
+			freeRects.remove(i);
+
+			if (used[0] > free[0]) {
+				newRects.add(new int[] {free[0], free[1], used[0] - free[0], free[3]});
+			}
+			if (used[0] + used[2] < free[0] + free[2]) {
+				newRects.add(new int[] {used[0] + used[2], free[1], free[0] + free[2] - used[0] - used[2], free[3]});
+			}
+			if (used[1] > free[1]) {
+				newRects.add(new int[] {free[0], free[1], free[2], used[1] - free[1]});
+			}
+			if (used[1] + used[3] < free[1] + free[3]) {
+				newRects.add(new int[] {free[0], used[1] + used[3], free[2], free[1] + free[3] - used[1] - used[3]});
+			}
+		}
+		freeRects.addAll(newRects);
+
+		// Remove rectangles that are contained in other rectangles
+		for (int i = freeRects.size() - 1; i >= 0; i--) {
+			int[] a = freeRects.get(i);
+			for (int j = 0; j < freeRects.size(); j++) {
+				int[] b = freeRects.get(j);
+				if (i != j && a[0] >= b[0] && a[1] >= b[1] && a[0] + a[2] <= b[0] + b[2] && a[1] + a[3] <= b[1] + b[3]) {
+					freeRects.remove(i);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <pre>private void createPage({@link Map Map}&lt;{@link String String}, int[]&gt; placements, int pageSize)</pre>
+	 *
+	 * <p> Draws the placed images onto a new page, uploads it, and creates the regions of the images. </p>
+	 *
+	 * @param placements - The location {x, y} of each padded image
+	 * @param pageSize - The width and height of the page
+	 */
+	private void createPage(Map<String, int[]> placements, int pageSize) {
+		BufferedImage pageImage = new BufferedImage(pageSize, pageSize, BufferedImage.TYPE_INT_ARGB);
+		Graphics g = pageImage.getGraphics();
+		for (Map.Entry<String, int[]> placement : placements.entrySet()) {
+			BufferedImage image = this.images.get(placement.getKey());
+			int x = placement.getValue()[0] + PADDING;
+			int y = placement.getValue()[1] + PADDING;
+			int width = image.getWidth();
+			int height = image.getHeight();
+
+			g.drawImage(image, x, y, null);
+			// Extend the edges into the padding
+			g.drawImage(image, x, y - PADDING, x + width, y, 0, 0, width, 1, null);
+			g.drawImage(image, x, y + height, x + width, y + height + PADDING, 0, height - 1, width, height, null);
+			g.drawImage(image, x - PADDING, y, x, y + height, 0, 0, 1, height, null);
+			g.drawImage(image, x + width, y, x + width + PADDING, y + height, width - 1, 0, width, height, null);
+		}
+		g.dispose();
+
+		Texture page = new Texture(this.name + " (Page " + this.pages.size() + ")", pageImage);
+		this.pages.add(page);
+
+		// Create the regions with one shared buffer for the page
+		String[] names = new String[placements.size()];
+		int[][] regionRects = new int[placements.size()][];
+		int n = 0;
+		for (Map.Entry<String, int[]> placement : placements.entrySet()) {
+			BufferedImage image = this.images.get(placement.getKey());
+			names[n] = placement.getKey();
+			regionRects[n] = new int[] {placement.getValue()[0] + PADDING, placement.getValue()[1] + PADDING, image.getWidth(), image.getHeight()};
+			n++;
+		}
+		Texture[] pageRegions = page.getSubTextures(names, regionRects);
+		for (int i = 0; i < names.length; i++) {
+			this.regions.put(names[i], pageRegions[i]);
+		}
+		this.pageRegions.add(pageRegions);
+		Log.log("Packed " + placements.size() + " images into " + page + " (" + pageSize + "x" + pageSize + ")");
+	}
+
+	/**
+	 * <pre>public {@link Texture Texture} getRegion({@link String String} imageName)</pre>
+	 *
+	 * <p> Gets the region of a packed image. </p>
+	 *
+	 * @param imageName - The name the image was added with
+	 *
+	 * @return The region of the image, or null if there is no packed image with that name
+	 */
+	public Texture getRegion(String imageName) {
+		return this.regions.get(imageName);
+	}
+
+	/**
+	 * <pre>public int getNumPages()</pre>
+	 *
+	 * <p> Gets the number of pages of this atlas. </p>
+	 *
+	 * @return The number of pages
+	 */
+	public int getNumPages() {
+		return this.pages.size();
+	}
+
+	/**
+	 * <pre>public void destroy()</pre>
+	 *
+	 * <p> Deletes the textures of this atlas' pages and the buffers of their regions. </p>
+	 */
+	public void destroy() {
+		for (Texture[] regions : this.pageRegions) {
+			Texture.deleteSubTextures(regions);
+		}
+		for (Texture page : this.pages) {
+			page.delete();
+		}
+		this.pageRegions.clear();
+		this.pages.clear();
+		this.regions.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "TextureAtlas '" + this.name + "'";
+	}
+}
@@ -37,6 +37,11 @@ public class TrueTypeFont {
 
 	private Texture fontTexture;
 	private CharLoc[] charLocs;
+	/**
+	 * The quad of each character. These are built once when the characters are loaded and share a single
+	 * vertex buffer object, so drawing text doesn't create any textures or buffers.
+	 */
+	private Texture[] glyphs;
 	private FontMetrics fontMetrics;
 
 	private static class CharLoc {
@@ -128,6 +133,13 @@ public class TrueTypeFont {
 				fontImage = null;
 			}
 			this.fontTexture = new Texture(this.name, chars);
+			
+			int[][] glyphRegions = new int[256][];
+			for (int i = 0; i < 256; i++) {
+				CharLoc charLoc = this.charLocs[i];
+				glyphRegions[i] = new int[] {charLoc.x, charLoc.y, charLoc.width, charLoc.height};
+			}
+			this.glyphs = this.fontTexture.getSubTextures(this.name, glyphRegions);
 			g.dispose();
 			chars = null;
 		} catch (Exception e) {
@@ -168,12 +180,11 @@ public class TrueTypeFont {
 	}
 	
 	public int drawChar(Renderer renderer, char c, Color color, float x, float y) {
-		CharLoc charLoc = this.charLocs[c];
+		Texture glyph = this.glyphs[c];
 
-		if (charLoc != null) {
-			renderer.drawTexture(this.fontTexture.getSubTexture(charLoc.x, charLoc.y,
-					charLoc.width, charLoc.height), x, y);
-			return charLoc.width;
+		if (glyph != null) {
+			renderer.drawTexture(glyph, x, y);
+			return this.charLocs[c].width;
 		}
 		return 0;
 	}
@@ -270,10 +281,12 @@ public class TrueTypeFont {
 	public void setSize(int newSize) {
 		this.font = this.font.deriveFont((float) newSize);
 		this.fontSize = this.font.getSize() + 3;
+		destroy();
 		loadCharacters();
 	}
 
 	public void destroy() {
+		Texture.deleteSubTextures(this.glyphs);
 		this.fontTexture.delete();
 	}
 
@@ -11,6 +11,7 @@ import org.lwjgl.util.vector.Matrix4f;
 
 import com.rman.engine.GMath;
 import com.rman.engine.Log;
+import com.rman.engine.graphics.Camera;
 import com.rman.engine.graphics.Renderer;
 
 /**
@@ -446,6 +447,73 @@ public class Window {
 	public int getMouseY() {
 		return (int) (((float) (Display.getHeight() - Mouse.getY() - this.originY - 1) / (Display.getHeight() - 2 * this.originY)) * this.height);
 	}
+	
+	/**
+	 * <pre>public float getMouseX({@link Camera Camera} camera)</pre>
+	 * 
+	 * <p> Gets the x-coordinate of the mouse's position in the world shown by a camera. </p>
+	 * 
+	 * @param camera - The camera
+	 * 
+	 * @return The x-coordinate of the mouse pointer in the camera's world
+	 */
+	public float getMouseX(Camera camera) {
+		return camera.toWorldX(getMouseX());
+	}
+	
+	/**
+	 * <pre>public float getMouseY({@link Camera Camera} camera)</pre>
+	 * 
+	 * <p> Gets the y-coordinate of the mouse's position in the world shown by a camera. </p>
+	 * 
+	 * @param camera - The camera
+	 * 
+	 * @return The y-coordinate of the mouse pointer in the camera's world
+	 */
+	public float getMouseY(Camera camera) {
+		return camera.toWorldY(getMouseY());
+	}
+	
+	/**
+	 * <pre>public float getScale()</pre>
+	 * 
+	 * <p> Gets how many pixels of the display one unit of this window's coordinates takes up. This is 1 until
+	 * the window is resized. </p>
+	 * 
+	 * @return The scale of this window's contents on the display
+	 */
+	public float getScale() {
+		return (float) (Display.getWidth() - 2 * this.originX) / this.width;
+	}
+	
+	/**
+	 * <pre>public void setClip(float x, float y, float width, float height)</pre>
+	 * 
+	 * <p> Only lets OpenGL draw inside a rectangle of this window until {@link #clearClip() clearClip()} is
+	 * called. The rectangle is given in this window's coordinates (the origin is the top-left corner), and is
+	 * scaled the same way as everything else when the window is resized. </p>
+	 * 
+	 * @param x - The x-coordinate of the rectangle's top-left corner
+	 * @param y - The y-coordinate of the rectangle's top-left corner
+	 * @param width - The width of the rectangle
+	 * @param height - The height of the rectangle
+	 */
+	public void setClip(float x, float y, float width, float height) {
+		float scaleX = (float) (Display.getWidth() - 2 * this.originX) / this.width;
+		float scaleY = (float) (Display.getHeight() - 2 * this.originY) / this.height;
+		GL11.glEnable(GL11.GL_SCISSOR_TEST);
+		GL11.glScissor(this.originX + Math.round(x * scaleX), this.originY + Math.round((this.height - y - height) * scaleY),
+				Math.round(width * scaleX), Math.round(height * scaleY));
+	}
+	
+	/**
+	 * <pre>public void clearClip()</pre>
+	 * 
+	 * <p> Lets OpenGL draw on the whole window again. </p>
+	 */
+	public void clearClip() {
+		GL11.glDisable(GL11.GL_SCISSOR_TEST);
+	}
 
 	/**
 	 * <pre>private boolean initWindow() throws {@link WindowException WindowException}</pre>
@@ -0,0 +1,161 @@
+package com.rman.engine.test;
+
+import com.rman.de.core.DefenseEvolution;
+import com.rman.de.core.Grid;
+import com.rman.de.core.Projectile;
+import com.rman.de.core.Simulation;
+import com.rman.de.core.Unit;
+import com.rman.de.core.UnitStore;
+import com.rman.de.core.UnitType;
+import com.rman.engine.Log;
+import com.rman.engine.TickClock;
+
+/**
+ * <pre>public class SlotReuseCheck</pre>
+ *
+ * <p> Checks without a window that a projectile in flight doesn't act on the unit that is given a
+ * {@link UnitStore UnitStore} slot after the projectile's shooter or target has left the game. Each case places a
+ * few units on an empty grid, releases the slot of the shooter or target while the projectile flies, and spawns
+ * an enemy in the same tick so that the slot is given to it straight away: </p>
+ *
+ * <ul>
+ * <li> A shooter dies while its arrow flies. The arrow must hit its target with the dead shooter's strength, and
+ * the kill must not give experience to the enemy that was given the shooter's slot. </li>
+ * <li> An enemy reaches the building while an arrow flies at it. The arrow must be dropped without hitting the
+ * enemy that was given the slot. </li>
+ * </ul>
+ *
+ * <p> Both cases are run with and without {@link Grid#setScheduledImpacts(boolean) scheduled impacts}. The result
+ * of each case is logged, and the process exits with status 1 if any of them failed. </p>
+ *
+ * @author Arman
+ */
+public class SlotReuseCheck {
+
+	private static final long TICK_LENGTH = 1000000000L / DefenseEvolution.TICK_RATE;
+	/**
+	 * The maximum number of ticks a case waits for something to happen before it fails.
+	 */
+	private static final int MAX_TICKS = 600;
+
+	private static int numFailed;
+
+	public static void main(String[] args) {
+		for (int scheduled = 0; scheduled < 2; scheduled++) {
+			checkShooterReleased(scheduled == 1);
+			checkTargetReleased(scheduled == 1);
+		}
+		if (numFailed > 0) {
+			Log.logError(numFailed + " slot reuse checks failed");
+			System.exit(1);
+		}
+		Log.log("All slot reuse checks passed");
+	}
+
+	private static void checkShooterReleased(boolean scheduledImpacts) {
+		String name = "Shooter released mid-flight" + (scheduledImpacts ? " (scheduled impacts)" : "");
+		TickClock clock = new TickClock();
+		Simulation sim = newSimulation(clock, scheduledImpacts);
+		Grid grid = sim.getGrid();
+		int column = 4;
+
+		grid.addUnit(UnitType.ENEMY, 0, column);
+		grid.addUnit(UnitType.SHOOTER, grid.getNumRows() - 1, column);
+		Unit target = (Unit) grid.getEntityAt(0, column);
+		Unit shooter = (Unit) grid.getEntityAt(grid.getNumRows() - 1, column);
+
+		// Let the shooter fire once, then make its arrow kill the target
+		int ticks = 0;
+		while (grid.getProjectileCount() == 0 && ticks++ < MAX_TICKS) {
+			tick(sim, clock);
+		}
+		int strength = shooter.getUpgradedStrength();
+		target.damage(target.getHealth() - strength);
+
+		// Kill the shooter, and give its slot to a new enemy as soon as it is released
+		shooter.damage(shooter.getHealth());
+		while (!shooter.isReleased() && ticks++ < MAX_TICKS) {
+			tick(sim, clock);
+		}
+		grid.addUnit(UnitType.ENEMY, 0, column + 2);
+		Unit reused = (Unit) grid.getEntityAt(0, column + 2);
+		if (reused.getSlot() != shooter.getSlot()) {
+			fail(name, "the shooter's slot " + shooter.getSlot() + " was not reused (got " + reused.getSlot() + ")");
+			return;
+		}
+
+		while (grid.getProjectileCount() > 0 && ticks++ < MAX_TICKS) {
+			tick(sim, clock);
+		}
+		if (grid.getProjectileCount() > 0) {
+			fail(name, "the arrow did not land");
+		} else if (target.getHealth() > 0) {
+			fail(name, "the arrow did " + (strength - target.getHealth()) + " damage instead of " + strength);
+		} else if (reused.getCurrentXP() != 0) {
+			fail(name, "the enemy in the shooter's old slot was given " + reused.getCurrentXP() + " XP");
+		} else {
+			Log.log(name + ": passed");
+		}
+	}
+
+	private static void checkTargetReleased(boolean scheduledImpacts) {
+		String name = "Target released mid-flight" + (scheduledImpacts ? " (scheduled impacts)" : "");
+		TickClock clock = new TickClock();
+		Simulation sim = newSimulation(clock, scheduledImpacts);
+		Grid grid = sim.getGrid();
+		int column = 4;
+		int lastRow = grid.getNumRows() - 1;
+
+		// An enemy in the last row reaches the building on the first tick
+		grid.addUnit(UnitType.SHOOTER, lastRow, column + 2);
+		grid.addUnit(UnitType.ENEMY, lastRow, column);
+		Unit shooter = (Unit) grid.getEntityAt(lastRow, column + 2);
+		Unit target = (Unit) grid.getEntityAt(lastRow, column);
+
+		// Fire from far below the grid, so that the arrow is still flying when the target leaves
+		grid.fireProjectile(Projectile.ARROW, target.getX(), target.getY() + 20 * Grid.SQUARE_SIZE, shooter, target, Unit.UP);
+		tick(sim, clock);
+		if (!target.isReleased()) {
+			fail(name, "the target did not reach the building");
+			return;
+		}
+
+		// Give the target's slot to a new enemy in the arrow's path
+		grid.addUnit(UnitType.ENEMY, lastRow - 4, column);
+		Unit reused = (Unit) grid.getEntityAt(lastRow - 4, column);
+		if (reused.getSlot() != target.getSlot()) {
+			fail(name, "the target's slot " + target.getSlot() + " was not reused (got " + reused.getSlot() + ")");
+			return;
+		}
+		int health = reused.getHealth();
+
+		int ticks = 0;
+		while (grid.getProjectileCount() > 0 && ticks++ < MAX_TICKS) {
+			tick(sim, clock);
+		}
+		if (grid.getProjectileCount() > 0) {
+			fail(name, "the arrow was not dropped");
+		} else if (reused.getHealth() != health) {
+			fail(name, "the enemy in the target's old slot took " + (health - reused.getHealth()) + " damage");
+		} else {
+			Log.log(name + ": passed");
+		}
+	}
+
+	private static Simulation newSimulation(TickClock clock, boolean scheduledImpacts) {
+		Simulation sim = new Simulation(clock, DefenseEvolution.WINDOW_WIDTH - DefenseEvolution.INFO_PANE_WIDTH,
+				DefenseEvolution.WINDOW_HEIGHT - DefenseEvolution.INFO_PANE_HEIGHT, 0L);
+		sim.setScheduledImpacts(scheduledImpacts);
+		return sim;
+	}
+
+	private static void tick(Simulation sim, TickClock clock) {
+		clock.advance(TICK_LENGTH);
+		sim.update(1.0);
+	}
+
+	private static void fail(String name, String reason) {
+		Log.logError(name + ": failed, " + reason);
+		numFailed++;
+	}
+}
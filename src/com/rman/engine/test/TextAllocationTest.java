@@ -0,0 +1,72 @@
+package com.rman.engine.test;
+
+import java.awt.Font;
+
+import com.rman.engine.Game;
+import com.rman.engine.Log;
+import com.rman.engine.graphics.Texture;
+import com.rman.engine.gui.TrueTypeFont;
+
+/**
+ * Tests that drawing text doesn't create any vertex buffer objects once a font's characters are loaded. Text is
+ * drawn for a number of frames, then the number of buffers created while drawing is logged and the test stops.
+ *
+ * @author Arman
+ */
+public class TextAllocationTest extends Game {
+
+	/**
+	 * The number of frames that text is drawn for.
+	 */
+	private static final int NUM_FRAMES = 600;
+
+	private TrueTypeFont font;
+
+	/**
+	 * The number of buffers that had been created once the font's characters were loaded.
+	 */
+	private int buffersAfterLoad;
+	private int frame;
+
+	public TextAllocationTest(String title) {
+		super(title, 80, 800, 600);
+	}
+
+	@Override
+	public void init() {
+		this.font = new TrueTypeFont("Test Font", new Font("SansSerif", Font.PLAIN, 16), true);
+		this.buffersAfterLoad = Texture.getNumBuffersCreated();
+	}
+
+	@Override
+	public void update(double delta) {
+
+	}
+
+	@Override
+	public void render() {
+		this.renderer.setFont(this.font);
+		this.renderer.drawText("Frame " + this.frame + ": The quick brown fox jumps over the lazy dog", 10, 10);
+		this.renderer.drawText("Wave " + (this.frame / 60 + 1) + "\tGold: " + this.frame * 7, 10, 40, 300, 20);
+
+		this.frame++;
+		if (this.frame == NUM_FRAMES) {
+			int created = Texture.getNumBuffersCreated() - this.buffersAfterLoad;
+			if (created == 0) {
+				Log.log("Text allocation test passed: no buffers were created in " + NUM_FRAMES + " frames of text");
+			} else {
+				Log.logError("Text allocation test failed: " + created + " buffers were created in " + NUM_FRAMES + " frames of text");
+			}
+			this.running = false;
+		}
+	}
+
+	@Override
+	public void cleanUp() {
+		this.font.destroy();
+	}
+
+	public static void main(String[] args) {
+		new TextAllocationTest("Text Allocation Test");
+	}
+}